@@ -0,0 +1,84 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Benchmarks
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import eu.smesec.cysec.translationtool.benchmarks.CoachGenerator;
+import net.sf.okapi.common.Event;
+import net.sf.okapi.common.EventType;
+import net.sf.okapi.common.LocaleId;
+import net.sf.okapi.common.filters.IFilter;
+import net.sf.okapi.common.resource.ITextUnit;
+import net.sf.okapi.common.resource.RawDocument;
+import net.sf.okapi.filters.xliff.XLIFFFilter;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares the retained heap of the translations learned by a merge with the former map of Okapi text units.
+ * <p>
+ * Lives in the package of the library to access the package-private {@link TranslationApplier}.
+ * Usage: {@code java -cp benchmarks.jar eu.smesec.cysec.translationtool.TranslationStoreFootprint [units...]}
+ *
+ * @author Matthias Luppi
+ */
+public class TranslationStoreFootprint {
+
+    private static final LocaleId SRC_LOCALE = LocaleId.fromString("en");
+    private static final LocaleId TRG_LOCALE = LocaleId.fromString("de");
+
+    public static void main(String[] args) throws Exception {
+        final String[] sizes = args.length > 0 ? args : new String[]{"100", "10000", "100000"};
+        System.out.printf("%10s %18s %18s %8s%n", "units", "ITextUnit map [B]", "applier [B]", "ratio");
+        for (String size : sizes) {
+            final int units = Integer.parseInt(size);
+            final Path dir = Files.createTempDirectory("cysec-footprint-");
+            final Path coachFile = dir.resolve("coach.xml");
+            final Path xlfFile = dir.resolve("de.xlf");
+            // one question with three options has 8 text units
+            new CoachGenerator().questions(units / 8).dictionarySize(units % 8).write(coachFile, xlfFile, "de");
+
+            final Map<TextUnitId, ITextUnit> textUnitById = new HashMap<>();
+            final TranslationApplier applier = new TranslationApplier(TRG_LOCALE);
+            try (IFilter filter = new XLIFFFilter()) {
+                filter.open(new RawDocument(xlfFile.toUri(), StandardCharsets.UTF_8.name(), SRC_LOCALE, TRG_LOCALE));
+                while (filter.hasNext()) {
+                    final Event event = filter.next();
+                    if (event.getEventType() == EventType.TEXT_UNIT) {
+                        textUnitById.put(TextUnitId.parse(event.getTextUnit().getId()), event.getTextUnit());
+                        applier.learn(event.getTextUnit());
+                    }
+                }
+            }
+
+            final long mapSize = GraphLayout.parseInstance(textUnitById).totalSize();
+            final long applierSize = GraphLayout.parseInstance(applier).totalSize();
+            System.out.printf("%10d %18d %18d %8.1f%n", textUnitById.size(), mapSize, applierSize, (double) mapSize / applierSize);
+
+            Files.delete(coachFile);
+            Files.delete(xlfFile);
+            Files.delete(dir);
+        }
+    }
+}
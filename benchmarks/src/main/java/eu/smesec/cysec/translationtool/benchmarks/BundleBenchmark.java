@@ -0,0 +1,96 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Benchmarks
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool.benchmarks;
+
+import eu.smesec.cysec.platform.bridge.generated.Questionnaire;
+import eu.smesec.cysec.translationtool.ExtractionManifest;
+import eu.smesec.cysec.translationtool.Merger;
+import eu.smesec.cysec.translationtool.TextUnitId;
+import eu.smesec.cysec.translationtool.TranslationBundle;
+import eu.smesec.cysec.translationtool.TranslationEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.xml.bind.JAXBException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading the texts of a translated coach from a {@link TranslationBundle} with unmarshalling the
+ * translated coach, which is what a platform does at runtime for every language.
+ *
+ * @author Matthias Luppi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BundleBenchmark {
+
+    /**
+     * The translated coach and bundle of the generated coach, and the IDs of all of its text units.
+     */
+    @State(Scope.Benchmark)
+    public static class BundleState {
+        Path translatedFile;
+        Path bundleFile;
+        TranslationBundle bundle;
+        String[] ids;
+
+        @Setup
+        public void setup(CoachState coach) throws IOException, JAXBException {
+            final TranslationEngine engine = TranslationEngine.getDefault();
+            translatedFile = coach.outputDir.resolve("bundle-coach.xml");
+            bundleFile = coach.outputDir.resolve("coach.bundle");
+            new Merger(engine, coach.coachFile, coach.xlfFile, CoachState.TARGET_LANG, translatedFile).merge();
+            new Merger(engine, coach.coachFile, coach.xlfFile, CoachState.TARGET_LANG, bundleFile).mergeBundle(TranslationBundle.Format.BINARY);
+            bundle = TranslationBundle.open(bundleFile);
+            ids = ExtractionManifest.fromXliff(coach.xlfFile).getIds().stream().map(TextUnitId::toString).toArray(String[]::new);
+        }
+    }
+
+    @Benchmark
+    public TranslationBundle openBundle(BundleState state) throws IOException {
+        return TranslationBundle.open(state.bundleFile);
+    }
+
+    @Benchmark
+    public void lookupAll(BundleState state, Blackhole blackhole) {
+        for (String id : state.ids) {
+            blackhole.consume(state.bundle.get(id));
+        }
+    }
+
+    @Benchmark
+    public Questionnaire unmarshalTranslated(BundleState state) throws JAXBException {
+        return TranslationEngine.getDefault().unmarshal(state.translatedFile);
+    }
+}
@@ -0,0 +1,313 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Benchmarks
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool.benchmarks;
+
+import eu.smesec.cysec.platform.bridge.generated.Dictionary;
+import eu.smesec.cysec.platform.bridge.generated.DictionaryEntry;
+import eu.smesec.cysec.platform.bridge.generated.Option;
+import eu.smesec.cysec.platform.bridge.generated.Options;
+import eu.smesec.cysec.platform.bridge.generated.Question;
+import eu.smesec.cysec.platform.bridge.generated.Questionnaire;
+import eu.smesec.cysec.platform.bridge.generated.Questions;
+import eu.smesec.cysec.translationtool.TextUnitId;
+import eu.smesec.cysec.translationtool.TranslationEngine;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Generates synthetic coaches and matching translated XLIFF files for benchmarks and load tests.
+ * <p>
+ * The output only depends on the settings and the seed, so the same settings always produce the same files.
+ * Every question has a text, an introduction and a number of options with text and comment. Text length and the
+ * share of HTML markup and entities are configurable, as is the share of text units without translation.
+ *
+ * @author Matthias Luppi
+ */
+public class CoachGenerator {
+
+    private static final String[] WORDS = {
+            "security", "password", "backup", "network", "device", "policy", "employee", "access", "data", "update",
+            "firewall", "email", "phishing", "risk", "incident", "server", "account", "training", "cloud", "mobile"
+    };
+    private static final String[] MARKUP = {"<b>%s</b>", "<i>%s</i>", "<a href=\"https://smesec.eu\">%s</a>", "%s &amp;", "&quot;%s&quot;"};
+
+    private int questions = 100;
+    private int optionsPerQuestion = 3;
+    private int dictionarySize = 10;
+    private int textLength = 12;
+    private double markupDensity = 0.1;
+    private double missingTargets = 0.0;
+    private long seed = 42;
+
+    /**
+     * Sets the number of questions, default is 100
+     */
+    public CoachGenerator questions(int questions) {
+        this.questions = requireNonNegative(questions, "questions");
+        return this;
+    }
+
+    /**
+     * Sets the number of options of every question, default is 3
+     */
+    public CoachGenerator optionsPerQuestion(int optionsPerQuestion) {
+        this.optionsPerQuestion = requireNonNegative(optionsPerQuestion, "optionsPerQuestion");
+        return this;
+    }
+
+    /**
+     * Sets the number of dictionary entries, default is 10
+     */
+    public CoachGenerator dictionarySize(int dictionarySize) {
+        this.dictionarySize = requireNonNegative(dictionarySize, "dictionarySize");
+        return this;
+    }
+
+    /**
+     * Sets the number of words of every text, default is 12
+     */
+    public CoachGenerator textLength(int textLength) {
+        if (textLength < 1) {
+            throw new IllegalArgumentException("textLength must be at least 1, got " + textLength);
+        }
+        this.textLength = textLength;
+        return this;
+    }
+
+    /**
+     * Sets the share of words wrapped in HTML markup or followed by an entity, default is 0.1
+     */
+    public CoachGenerator markupDensity(double markupDensity) {
+        this.markupDensity = requireShare(markupDensity, "markupDensity");
+        return this;
+    }
+
+    /**
+     * Sets the share of text units written without target to the XLIFF file, default is 0
+     */
+    public CoachGenerator missingTargets(double missingTargets) {
+        this.missingTargets = requireShare(missingTargets, "missingTargets");
+        return this;
+    }
+
+    /**
+     * Sets the seed of the random generator, default is 42
+     */
+    public CoachGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * @return the number of text units of the generated coach
+     */
+    public int textUnitCount() {
+        return 2 + questions * (2 + 2 * optionsPerQuestion) + dictionarySize;
+    }
+
+    /**
+     * Generates the coach
+     *
+     * @return a new {@link Questionnaire}
+     */
+    public Questionnaire generate() {
+        final Random random = new Random(seed);
+        final Questionnaire questionnaire = new Questionnaire();
+        questionnaire.setId("lib-generated");
+        questionnaire.setReadableName("Generated Coach");
+        questionnaire.setDescription(text(random));
+        questionnaire.setLanguage("en");
+        questionnaire.setVersion(1);
+        questionnaire.setOrder(0);
+
+        final Questions qs = new Questions();
+        for (int q = 0; q < questions; q++) {
+            final Question question = new Question();
+            question.setId("q" + q);
+            question.setType("Astar");
+            question.setHidden(false);
+            question.setText(text(random));
+            question.setIntroduction(text(random));
+            if (optionsPerQuestion > 0) {
+                final Options options = new Options();
+                for (int o = 0; o < optionsPerQuestion; o++) {
+                    final Option option = new Option();
+                    option.setId(question.getId() + "o" + o);
+                    option.setText(text(random));
+                    option.setComment(text(random));
+                    options.getOption().add(option);
+                }
+                question.setOptions(options);
+            }
+            qs.getQuestion().add(question);
+        }
+        questionnaire.setQuestions(qs);
+
+        final Dictionary dictionary = new Dictionary();
+        for (int e = 0; e < dictionarySize; e++) {
+            final DictionaryEntry entry = new DictionaryEntry();
+            entry.setKey("key" + e);
+            entry.setValue(text(random));
+            dictionary.getEntry().add(entry);
+        }
+        questionnaire.setDictionary(dictionary);
+        return questionnaire;
+    }
+
+    /**
+     * Writes a translated XLIFF file for a generated coach.
+     * <p>
+     * Text units are written in the order of an extraction, the targets are the sources prefixed with the language.
+     *
+     * @param questionnaire a coach generated by {@link #generate()}
+     * @param outputFile    the XLIFF file to write
+     * @param targetLang    the target language, e.g. 'de'
+     */
+    public void writeXliff(Questionnaire questionnaire, Path outputFile, String targetLang) throws IOException, XMLStreamException {
+        final Random random = new Random(seed ^ targetLang.hashCode());
+        try (Writer out = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+            final XMLStreamWriter w = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+            w.writeStartDocument("UTF-8", "1.0");
+            w.writeStartElement("xliff");
+            w.writeDefaultNamespace("urn:oasis:names:tc:xliff:document:1.2");
+            w.writeAttribute("version", "1.2");
+            w.writeStartElement("file");
+            w.writeAttribute("original", "coach.xml");
+            w.writeAttribute("source-language", questionnaire.getLanguage());
+            w.writeAttribute("target-language", targetLang);
+            w.writeAttribute("datatype", "xml");
+            w.writeStartElement("body");
+            unit(w, random, TextUnitId.attr(TextUnitId.COACH_READABLE_NAME), questionnaire.getReadableName(), targetLang);
+            unit(w, random, TextUnitId.attr(TextUnitId.COACH_DESCRIPTION), questionnaire.getDescription(), targetLang);
+            for (Question question : questionnaire.getQuestions().getQuestion()) {
+                unit(w, random, TextUnitId.attr(TextUnitId.QST_TEXT).qst(question), question.getText(), targetLang);
+                unit(w, random, TextUnitId.attr(TextUnitId.QST_INTRODUCTION).qst(question), question.getIntroduction(), targetLang);
+                if (question.getOptions() != null) {
+                    for (Option option : question.getOptions().getOption()) {
+                        unit(w, random, TextUnitId.attr(TextUnitId.OPT_TEXT).qst(question).opt(option), option.getText(), targetLang);
+                        unit(w, random, TextUnitId.attr(TextUnitId.OPT_COMMENT).qst(question).opt(option), option.getComment(), targetLang);
+                    }
+                }
+            }
+            for (DictionaryEntry entry : questionnaire.getDictionary().getEntry()) {
+                unit(w, random, TextUnitId.attr(TextUnitId.DK_TEXT).dkey(entry.getKey()), entry.getValue(), targetLang);
+            }
+            w.writeEndElement();
+            w.writeEndElement();
+            w.writeEndElement();
+            w.writeEndDocument();
+            w.close();
+        }
+    }
+
+    /**
+     * Generates a coach and writes it together with a translated XLIFF file.
+     *
+     * @param coachFile  the coach file to write
+     * @param xlfFile    the XLIFF file to write
+     * @param targetLang the target language, e.g. 'de'
+     */
+    public void write(Path coachFile, Path xlfFile, String targetLang) throws IOException, JAXBException, XMLStreamException {
+        final Questionnaire questionnaire = generate();
+        TranslationEngine.getDefault().marshal(questionnaire, coachFile);
+        writeXliff(questionnaire, xlfFile, targetLang);
+    }
+
+    private void unit(XMLStreamWriter w, Random random, TextUnitId id, String source, String targetLang) throws XMLStreamException {
+        w.writeStartElement("trans-unit");
+        w.writeAttribute("id", id.toString());
+        w.writeStartElement("source");
+        w.writeAttribute("xml", "http://www.w3.org/XML/1998/namespace", "lang", "en");
+        w.writeCharacters(source);
+        w.writeEndElement();
+        if (random.nextDouble() < missingTargets) {
+            w.writeEmptyElement("target");
+        } else {
+            w.writeStartElement("target");
+            w.writeCharacters("[" + targetLang + "] " + source);
+            w.writeEndElement();
+        }
+        w.writeEndElement();
+    }
+
+    private String text(Random random) {
+        final StringBuilder sb = new StringBuilder("<p>");
+        for (int i = 0; i < textLength; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            final String word = WORDS[random.nextInt(WORDS.length)];
+            if (random.nextDouble() < markupDensity) {
+                sb.append(String.format(MARKUP[random.nextInt(MARKUP.length)], word));
+            } else {
+                sb.append(word);
+            }
+        }
+        return sb.append(".</p>").toString();
+    }
+
+    private static int requireNonNegative(int value, String name) {
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " must not be negative, got " + value);
+        }
+        return value;
+    }
+
+    private static double requireShare(double value, String name) {
+        if (value < 0 || value > 1) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1, got " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Writes {@code coach.xml} and {@code <lang>.xlf} into a directory.
+     * <p>
+     * Usage: {@code CoachGenerator <outputDir> <questions> [optionsPerQuestion] [dictionarySize] [textLength]
+     * [markupDensity] [missingTargets] [targetLang]}
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: CoachGenerator <outputDir> <questions> [optionsPerQuestion] [dictionarySize] [textLength] [markupDensity] [missingTargets] [targetLang]");
+            System.exit(1);
+        }
+        final CoachGenerator generator = new CoachGenerator().questions(Integer.parseInt(args[1]));
+        if (args.length > 2) generator.optionsPerQuestion(Integer.parseInt(args[2]));
+        if (args.length > 3) generator.dictionarySize(Integer.parseInt(args[3]));
+        if (args.length > 4) generator.textLength(Integer.parseInt(args[4]));
+        if (args.length > 5) generator.markupDensity(Double.parseDouble(args[5]));
+        if (args.length > 6) generator.missingTargets(Double.parseDouble(args[6]));
+        final String targetLang = args.length > 7 ? args[7] : "de";
+
+        final Path outputDir = Files.createDirectories(Paths.get(args[0]));
+        generator.write(outputDir.resolve("coach.xml"), outputDir.resolve(targetLang + ".xlf"), targetLang);
+        System.out.println("Generated " + generator.textUnitCount() + " text units in '" + outputDir + "'");
+    }
+}
@@ -0,0 +1,82 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Benchmarks
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark state holding a coach generated by {@link CoachGenerator}, its German XLIFF file and a directory for the output files.
+ *
+ * @author Matthias Luppi
+ */
+@State(Scope.Benchmark)
+public class CoachState {
+
+    static final String TARGET_LANG = "de";
+
+    private static final int OPTIONS_PER_QUESTION = 3;
+    private static final int UNITS_PER_QUESTION = 2 + 2 * OPTIONS_PER_QUESTION;
+
+    /**
+     * Number of text units in the coach and in the XLIFF file
+     */
+    @Param({"100", "10000", "100000"})
+    public int units;
+
+    Path dir;
+    Path coachFile;
+    Path xlfFile;
+    Path outputDir;
+
+    @Setup
+    public void setup() throws IOException, JAXBException, XMLStreamException {
+        // the remaining units after the coach attributes and the questions end up in the dictionary
+        final int questions = (units - 2) / UNITS_PER_QUESTION;
+        final CoachGenerator generator = new CoachGenerator()
+                .questions(questions)
+                .optionsPerQuestion(OPTIONS_PER_QUESTION)
+                .dictionarySize(units - 2 - questions * UNITS_PER_QUESTION);
+
+        dir = Files.createTempDirectory("cysec-benchmark-");
+        coachFile = dir.resolve("coach.xml");
+        xlfFile = dir.resolve(TARGET_LANG + ".xlf");
+        generator.write(coachFile, xlfFile, TARGET_LANG);
+        outputDir = Files.createDirectories(dir.resolve("out"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Benchmarks
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool.benchmarks;
+
+import eu.smesec.cysec.translationtool.FuzzyMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures fuzzy lookups in a {@link FuzzyMatcher} of {@code segments} translations.
+ * <p>
+ * The segments are sentences of 8 to 14 words, drawn by Zipf's law from a vocabulary of 20000 generated words. Every
+ * lookup queries an indexed segment with one word replaced, so there is always a close match. The score is the time
+ * per lookup, and {@link #findParallel()} runs the lookups on all available cores.
+ *
+ * @author Matthias Luppi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FuzzyMatchBenchmark {
+
+    private static final int QUERIES = 1024;
+    private static final int VOCABULARY = 20000;
+    private static final String LETTERS = "eeeeeeeeeeeetttttttttaaaaaaaaoooooooiiiiiiinnnnnnnsssssshhhhhhrrrrrrddddllllcccuuummwwffggyyppbbvkjxqz";
+
+    @Param({"10000", "100000"})
+    public int segments;
+
+    private FuzzyMatcher matcher;
+    private String[] queries;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Random random = new Random(42);
+        final String[] vocabulary = new String[VOCABULARY];
+        final double[] cumulative = new double[VOCABULARY];
+        double sum = 0;
+        for (int i = 0; i < VOCABULARY; i++) {
+            vocabulary[i] = word(random, i);
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+
+        final List<Map.Entry<String, String>> translations = new ArrayList<>(segments);
+        for (int i = 0; i < segments; i++) {
+            final String[] words = new String[8 + random.nextInt(7)];
+            for (int w = 0; w < words.length; w++) {
+                words[w] = vocabulary[zipf(random, cumulative)];
+            }
+            translations.add(new AbstractMap.SimpleImmutableEntry<>(String.join(" ", words), "translation " + i));
+        }
+        matcher = new FuzzyMatcher(translations);
+
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            final String[] words = translations.get(random.nextInt(segments)).getKey().split(" ");
+            words[random.nextInt(words.length)] = vocabulary[zipf(random, cumulative)];
+            queries[i] = String.join(" ", words);
+        }
+    }
+
+    /**
+     * Generates a word from letters in their English frequency, where frequent words are short.
+     */
+    private static String word(Random random, int rank) {
+        final StringBuilder sb = new StringBuilder();
+        final int length = 2 + (int) Math.log(rank + 2) + random.nextInt(3);
+        for (int i = 0; i < length; i++) {
+            sb.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the rank of a word drawn by Zipf's law
+     */
+    private static int zipf(Random random, double[] cumulative) {
+        final int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+
+    @Benchmark
+    public Object find() {
+        return matcher.find(queries[next.getAndIncrement() & (QUERIES - 1)], 5, 70);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object findParallel() {
+        return matcher.find(queries[next.getAndIncrement() & (QUERIES - 1)], 5, 70);
+    }
+}
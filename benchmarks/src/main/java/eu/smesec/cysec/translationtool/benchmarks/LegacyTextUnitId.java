@@ -0,0 +1,115 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Benchmarks
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool.benchmarks;
+
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Copy of the regex based and mutable {@code TextUnitId} of version 0.1.0, kept as baseline for benchmarks.
+ *
+ * @author Matthias Luppi
+ */
+public class LegacyTextUnitId {
+
+    private static final Pattern idPattern = Pattern.compile("^(?:QST:(?<qid>.*?)\\|\\|(?:OPT:(?<oid>.*?)\\|\\|)?)?(?:DK:(?<dkey>.*?)\\|\\|)?(?<attr>.*)$");
+
+    private final String attribute;
+    private String questionId;
+    private String optionId;
+    private String dictionaryKey;
+
+    private LegacyTextUnitId(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public static LegacyTextUnitId attr(String attribute) {
+        return new LegacyTextUnitId(attribute);
+    }
+
+    public LegacyTextUnitId qst(String questionId) {
+        this.questionId = questionId;
+        return this;
+    }
+
+    public LegacyTextUnitId opt(String optionId) {
+        this.optionId = optionId;
+        return this;
+    }
+
+    public LegacyTextUnitId dkey(String dictionaryKey) {
+        this.dictionaryKey = dictionaryKey;
+        return this;
+    }
+
+    public static LegacyTextUnitId parse(String input) {
+        final Matcher m = idPattern.matcher(input);
+        if (!m.matches()) {
+            throw new IllegalArgumentException("Could not parse '" + input + "'");
+        }
+        return LegacyTextUnitId
+                .attr(m.group("attr"))
+                .qst(m.group("qid"))
+                .opt(m.group("oid"))
+                .dkey(m.group("dkey"));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        if (questionId != null) {
+            sb.append("QST:");
+            sb.append(questionId);
+            sb.append("||");
+            if (optionId != null) {
+                sb.append("OPT:");
+                sb.append(optionId);
+                sb.append("||");
+            }
+        } else if (dictionaryKey != null) {
+            sb.append("DK:");
+            sb.append(dictionaryKey);
+            sb.append("||");
+        }
+        sb.append(attribute);
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final LegacyTextUnitId that = (LegacyTextUnitId) o;
+        if (!attribute.equals(that.attribute)) return false;
+        if (!Objects.equals(questionId, that.questionId)) return false;
+        if (!Objects.equals(optionId, that.optionId)) return false;
+        return Objects.equals(dictionaryKey, that.dictionaryKey);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = attribute.hashCode();
+        result = 31 * result + (questionId != null ? questionId.hashCode() : 0);
+        result = 31 * result + (optionId != null ? optionId.hashCode() : 0);
+        result = 31 * result + (dictionaryKey != null ? dictionaryKey.hashCode() : 0);
+        return result;
+    }
+}
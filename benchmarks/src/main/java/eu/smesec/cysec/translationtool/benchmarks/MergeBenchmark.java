@@ -0,0 +1,61 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Benchmarks
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool.benchmarks;
+
+import eu.smesec.cysec.translationtool.MergeReport;
+import eu.smesec.cysec.translationtool.Merger;
+import eu.smesec.cysec.translationtool.TranslationEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the merge of a German XLIFF file into a coach.
+ *
+ * @author Matthias Luppi
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MergeBenchmark {
+
+    @Benchmark
+    public MergeReport merge(CoachState state) throws IOException, JAXBException {
+        return new Merger(TranslationEngine.getDefault(), state.coachFile, state.xlfFile, CoachState.TARGET_LANG,
+                state.outputDir.resolve("merge.xml")).merge();
+    }
+
+    @Benchmark
+    public MergeReport mergeStreaming(CoachState state) throws IOException, JAXBException, XMLStreamException {
+        return new Merger(TranslationEngine.getDefault(), state.coachFile, state.xlfFile, CoachState.TARGET_LANG,
+                state.outputDir.resolve("merge-streaming.xml")).mergeStreaming();
+    }
+}
@@ -0,0 +1,139 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Benchmarks
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool.benchmarks;
+
+import eu.smesec.cysec.translationtool.TextUnitId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing, formatting and map lookups of {@link TextUnitId} against the former implementation.
+ * <p>
+ * Every invocation processes all {@code size} IDs, so the score is the time per batch.
+ *
+ * @author Matthias Luppi
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TextUnitIdBenchmark {
+
+    @Param({"100", "10000", "100000", "1000000"})
+    public int size;
+
+    private String[] ids;
+    private TextUnitId[] textUnitIds;
+    private LegacyTextUnitId[] legacyIds;
+    private Map<TextUnitId, String> textUnitIdMap;
+    private Map<LegacyTextUnitId, String> legacyMap;
+
+    @Setup
+    public void setup() {
+        ids = new String[size];
+        textUnitIds = new TextUnitId[size];
+        legacyIds = new LegacyTextUnitId[size];
+        textUnitIdMap = new HashMap<>(size * 2);
+        legacyMap = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            ids[i] = id(i);
+            textUnitIds[i] = TextUnitId.parse(ids[i]);
+            legacyIds[i] = LegacyTextUnitId.parse(ids[i]);
+            textUnitIdMap.put(textUnitIds[i], ids[i]);
+            legacyMap.put(legacyIds[i], ids[i]);
+        }
+    }
+
+    /**
+     * Builds IDs in the mix produced by an extraction: mostly options, some question fields and a few dictionary entries.
+     */
+    private static String id(int i) {
+        switch (i % 8) {
+            case 0:
+                return "QST:q" + (i / 8) + "||" + TextUnitId.QST_TEXT;
+            case 1:
+                return "QST:q" + (i / 8) + "||" + TextUnitId.QST_INTRODUCTION;
+            case 2:
+                return "QST:q" + (i / 8) + "||" + TextUnitId.QST_READ_MORE;
+            case 7:
+                return "DK:key" + (i / 8) + "||" + TextUnitId.DK_TEXT;
+            default:
+                return "QST:q" + (i / 8) + "||OPT:q" + (i / 8) + "o" + (i % 8) + "||" + TextUnitId.OPT_TEXT;
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) {
+        for (String id : ids) {
+            bh.consume(TextUnitId.parse(id));
+        }
+    }
+
+    @Benchmark
+    public void parseLegacy(Blackhole bh) {
+        for (String id : ids) {
+            bh.consume(LegacyTextUnitId.parse(id));
+        }
+    }
+
+    @Benchmark
+    public void format(Blackhole bh) {
+        for (TextUnitId id : textUnitIds) {
+            bh.consume(id.toString());
+        }
+    }
+
+    @Benchmark
+    public void formatLegacy(Blackhole bh) {
+        for (LegacyTextUnitId id : legacyIds) {
+            bh.consume(id.toString());
+        }
+    }
+
+    @Benchmark
+    public void parseAndLookup(Blackhole bh) {
+        for (String id : ids) {
+            bh.consume(textUnitIdMap.get(TextUnitId.parse(id)));
+        }
+    }
+
+    @Benchmark
+    public void parseAndLookupLegacy(Blackhole bh) {
+        for (String id : ids) {
+            bh.consume(legacyMap.get(LegacyTextUnitId.parse(id)));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Benchmarks
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool.benchmarks;
+
+import net.sf.okapi.common.Event;
+import net.sf.okapi.common.EventType;
+import net.sf.okapi.common.LocaleId;
+import net.sf.okapi.common.filters.IFilter;
+import net.sf.okapi.common.resource.RawDocument;
+import net.sf.okapi.filters.xliff.XLIFFFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading an XLIFF file with the Okapi filter, the same way a merge loads its translations.
+ *
+ * @author Matthias Luppi
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class XliffReadBenchmark {
+
+    private static final LocaleId SRC_LOCALE = LocaleId.fromString("en");
+    private static final LocaleId TRG_LOCALE = LocaleId.fromString(CoachState.TARGET_LANG);
+
+    @Benchmark
+    public int readXliff(CoachState state, Blackhole bh) {
+        int count = 0;
+        try (IFilter filter = new XLIFFFilter()) {
+            filter.open(new RawDocument(state.xlfFile.toUri(), StandardCharsets.UTF_8.name(), SRC_LOCALE, TRG_LOCALE));
+            while (filter.hasNext()) {
+                final Event event = filter.next();
+                if (event.getEventType() == EventType.TEXT_UNIT) {
+                    bh.consume(event.getTextUnit());
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
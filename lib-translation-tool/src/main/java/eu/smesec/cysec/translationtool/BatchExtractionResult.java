@@ -0,0 +1,65 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Result of a {@link BatchExtractor} run.
+ *
+ * @author Matthias Luppi
+ */
+public class BatchExtractionResult {
+
+    private final Map<Path, Path> extracted = new ConcurrentSkipListMap<>();
+    private final Map<Path, Exception> failures = new ConcurrentSkipListMap<>();
+
+    void addExtracted(final Path inputFile, final Path outputFile) {
+        extracted.put(inputFile, outputFile);
+    }
+
+    void addFailure(final Path inputFile, final Exception error) {
+        failures.put(inputFile, error);
+    }
+
+    /**
+     * @return paths of the written XLIFF files by path of the coach, sorted by coach
+     */
+    public Map<Path, Path> getExtracted() {
+        return Collections.unmodifiableMap(extracted);
+    }
+
+    /**
+     * @return errors by path of the coach that could not be extracted, sorted by coach
+     */
+    public Map<Path, Exception> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return true if all coaches were extracted
+     */
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+}
@@ -0,0 +1,207 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.bind.JAXBException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Extracts translatable content of all coaches in a directory tree to XLIFF.
+ * <p>
+ * Every file named {@value #COACH_FILE_NAME} below the input directory is extracted to
+ * {@value #XLF_FILE_NAME} in the same relative directory below the output directory. The coaches are
+ * extracted in parallel on a work-stealing pool. A failing coach does not abort the batch, its error
+ * is collected in the {@link BatchExtractionResult} instead.
+ *
+ * @author Matthias Luppi
+ */
+public class BatchExtractor {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchExtractor.class);
+
+    public static final String COACH_FILE_NAME = "coach.xml";
+    public static final String XLF_FILE_NAME = "source.xlf";
+
+    private final TranslationEngine engine;
+    private final Path inputDir;
+    private final Path outputDir;
+    private final int parallelism;
+
+    public BatchExtractor(final Path inputDir, final Path outputDir) {
+        this(null, inputDir, outputDir, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a batch extractor running on the given engine.
+     *
+     * @param engine the engine to be used, or null to use {@link TranslationEngine#getDefault()}
+     * @param inputDir root directory of the coaches
+     * @param outputDir root directory of the XLIFF files to be written
+     * @param parallelism maximal number of coaches extracted at the same time
+     */
+    public BatchExtractor(final TranslationEngine engine, final Path inputDir, final Path outputDir, final int parallelism) {
+        this.engine = engine;
+        this.inputDir = inputDir;
+        this.outputDir = outputDir;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Executes the extraction process for all coaches.
+     *
+     * @return the result of the batch
+     * @throws IOException if the input directory could not be searched
+     * @throws JAXBException if the JAXB context could not be created
+     */
+    public BatchExtractionResult extract() throws IOException, JAXBException {
+        return extract(new Listener() {
+        });
+    }
+
+    /**
+     * Executes the extraction process for all coaches and reports the progress to a listener.
+     *
+     * @param listener the listener to be notified, called concurrently from the worker threads
+     * @return the result of the batch
+     * @throws IOException if the input directory could not be searched
+     * @throws JAXBException if the JAXB context could not be created
+     */
+    public BatchExtractionResult extract(final Listener listener) throws IOException, JAXBException {
+        if (inputDir == null || !Files.isDirectory(inputDir)) {
+            throw new IllegalArgumentException("Invalid input directory");
+        }
+        if (outputDir == null) {
+            throw new IllegalArgumentException("Invalid output directory");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Invalid parallelism " + parallelism);
+        }
+        final TranslationEngine e = engine != null ? engine : TranslationEngine.getDefault();
+
+        final List<Path> inputFiles;
+        try (Stream<Path> files = Files.walk(inputDir)) {
+            inputFiles = files
+                    .filter(p -> p.getFileName() != null && COACH_FILE_NAME.equals(p.getFileName().toString()))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        log.info("Found {} coaches in '{}'", inputFiles.size(), inputDir);
+
+        final BatchExtractionResult result = new BatchExtractionResult();
+        final AtomicInteger done = new AtomicInteger();
+        final int total = inputFiles.size();
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final List<ForkJoinTask<?>> futures = new ArrayList<>();
+            for (Path inputFile : inputFiles) {
+                final Path outputFile = outputDir.resolve(inputDir.relativize(inputFile.getParent()).toString()).resolve(XLF_FILE_NAME);
+                futures.add(pool.submit(() -> {
+                    notifyListener(inputFile, () -> listener.started(inputFile));
+                    Exception error = null;
+                    try {
+                        e.extract(inputFile, outputFile);
+                        result.addExtracted(inputFile, outputFile);
+                    } catch (IOException | JAXBException | RuntimeException ex) {
+                        log.error("Could not extract '{}'", inputFile, ex);
+                        result.addFailure(inputFile, ex);
+                        error = ex;
+                    }
+                    // the coach is counted once, whatever the listener does
+                    final int count = done.incrementAndGet();
+                    final Exception failure = error;
+                    if (failure == null) {
+                        notifyListener(inputFile, () -> listener.completed(inputFile, outputFile, count, total));
+                    } else {
+                        notifyListener(inputFile, () -> listener.failed(inputFile, failure, count, total));
+                    }
+                }));
+            }
+            for (ForkJoinTask<?> future : futures) {
+                future.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        log.info("Extracted {} of {} coaches", result.getExtracted().size(), total);
+        return result;
+    }
+
+    /**
+     * Calls the listener for a coach. A failing listener is logged and does not affect the result of the coach.
+     */
+    private static void notifyListener(final Path inputFile, final Runnable call) {
+        try {
+            call.run();
+        } catch (RuntimeException e) {
+            log.warn("Listener failed for '{}'", inputFile, e);
+        }
+    }
+
+    /**
+     * Receives progress events of a {@link BatchExtractor}. An exception thrown by the listener is logged and does not
+     * affect the extraction.
+     */
+    public interface Listener {
+
+        /**
+         * Called before the extraction of a coach starts.
+         *
+         * @param inputFile path of the coach
+         */
+        default void started(Path inputFile) {
+        }
+
+        /**
+         * Called after a coach was extracted successfully.
+         *
+         * @param inputFile path of the coach
+         * @param outputFile path of the written XLIFF file
+         * @param done number of coaches processed so far
+         * @param total number of coaches in the batch
+         */
+        default void completed(Path inputFile, Path outputFile, int done, int total) {
+        }
+
+        /**
+         * Called after the extraction of a coach failed.
+         *
+         * @param inputFile path of the coach
+         * @param error the cause of the failure
+         * @param done number of coaches processed so far
+         * @param total number of coaches in the batch
+         */
+        default void failed(Path inputFile, Exception error, int done, int total) {
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of a merge of several target languages, see {@link TranslationEngine#mergeAll} and
+ * {@link TranslationEngine#mergeMultilingual}.
+ *
+ * @author Matthias Luppi
+ */
+public class BatchMergeResult {
+
+    private final Map<String, MergeReport> reports = new LinkedHashMap<>();
+    private final Map<String, Exception> failures = new LinkedHashMap<>();
+
+    void addReport(final String targetLang, final MergeReport report) {
+        reports.put(targetLang, report);
+    }
+
+    void addFailure(final String targetLang, final Exception error) {
+        failures.put(targetLang, error);
+    }
+
+    /**
+     * @return the reports of the merged languages by target language, in the order of the languages
+     */
+    public Map<String, MergeReport> getReports() {
+        return Collections.unmodifiableMap(reports);
+    }
+
+    /**
+     * @return errors by target language that could not be merged, in the order of the languages
+     */
+    public Map<String, Exception> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return true if all languages were merged
+     */
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+}
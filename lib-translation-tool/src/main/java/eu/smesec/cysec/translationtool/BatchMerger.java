@@ -0,0 +1,81 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import org.apache.commons.lang3.StringUtils;
+
+import javax.xml.bind.JAXBException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Merges an original coach with the translations of several target languages in one pass.
+ * <p>
+ * The translated coaches are written to the output directory as {@code <name>-<lang>.xml}, where
+ * {@code <name>} is the file name of the original coach without extension (e.g. {@code coach-de.xml}).
+ *
+ * @author Matthias Luppi
+ */
+public class BatchMerger {
+
+    private final TranslationEngine engine;
+    private final Path inputFile;
+    private final Map<String, Path> xlfFiles;
+    private final Path outputDir;
+
+    public BatchMerger(final Path inputFile, final Map<String, Path> xlfFiles, final Path outputDir) {
+        this(null, inputFile, xlfFiles, outputDir);
+    }
+
+    /**
+     * Creates a batch merger running on the given engine.
+     *
+     * @param engine the engine to be used, or null to use {@link TranslationEngine#getDefault()}
+     * @param inputFile path of the original coach
+     * @param xlfFiles paths of the XLIFF files by target language
+     * @param outputDir directory of the translated coaches
+     */
+    public BatchMerger(final TranslationEngine engine, final Path inputFile, final Map<String, Path> xlfFiles, final Path outputDir) {
+        this.engine = engine;
+        this.inputFile = inputFile;
+        this.xlfFiles = xlfFiles;
+        this.outputDir = outputDir;
+    }
+
+    /**
+     * Executes the merge operation for all target languages.
+     *
+     * @return the reports and failures of the merge operations by target language
+     * @throws IOException if an I/O error occurs
+     * @throws JAXBException if an error occurred while handling the XML files
+     */
+    public BatchMergeResult merge() throws IOException, JAXBException {
+        if (inputFile == null) {
+            throw new IllegalArgumentException("Invalid input file");
+        }
+        if (outputDir == null) {
+            throw new IllegalArgumentException("Invalid output directory");
+        }
+        final String baseName = StringUtils.substringBeforeLast(inputFile.getFileName().toString(), ".");
+        final TranslationEngine e = engine != null ? engine : TranslationEngine.getDefault();
+        return e.mergeAll(inputFile, xlfFiles, lang -> outputDir.resolve(baseName + "-" + lang + ".xml"));
+    }
+}
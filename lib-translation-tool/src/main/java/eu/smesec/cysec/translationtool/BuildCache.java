@@ -0,0 +1,478 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import net.sf.okapi.common.LocaleId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.bind.JAXBException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of extracted and merged files, keyed by a content hash of their inputs.
+ * <p>
+ * The key of an output is the SHA-256 hash of the operation, the target language, the version of this library, the
+ * settings of the engine and the contents of all input files. The version is read from the Maven metadata of the
+ * library jar; snapshots and class directories, whose version does not change with the code, add a hash of their
+ * classes. An operation whose key is cached is not executed: the output file is kept if it still has the cached
+ * content, otherwise it is restored from the cache. The cache is bounded by the total size of the cached files, the
+ * least recently used entries are evicted first.
+ * <p>
+ * A merge served from the cache still adds its translations to the translation memory of the engine, and the merge
+ * listeners of the engine receive the report of the original merge.
+ * <p>
+ * The cache directory holds the cached files and the reports of the merges in {@code objects} and the entries in the
+ * text file {@code index}.
+ * An instance is thread-safe, but a cache directory must not be shared by several processes at the same time.
+ *
+ * @author Matthias Luppi
+ */
+public class BuildCache {
+
+    private static final Logger log = LoggerFactory.getLogger(BuildCache.class);
+
+    private static final String INDEX_FILE = "index";
+    private static final String OBJECTS_DIR = "objects";
+    private static final String REPORT_SUFFIX = ".report";
+    private static final String TOOL_VERSION = loadToolVersion();
+
+    private final Path cacheDir;
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    /**
+     * Opens a cache directory, which is created if it does not exist.
+     *
+     * @param cacheDir the cache directory
+     * @param maxBytes the maximum total size of the cached files
+     * @throws IOException if the cache directory could not be created or read
+     */
+    public BuildCache(final Path cacheDir, final long maxBytes) throws IOException {
+        if (cacheDir == null) {
+            throw new IllegalArgumentException("Invalid cache directory");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Invalid maximum size " + maxBytes);
+        }
+        this.cacheDir = cacheDir;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(cacheDir.resolve(OBJECTS_DIR));
+        loadIndex();
+    }
+
+    /**
+     * Extracts a coach unless the same coach has already been extracted with this version of the library and the
+     * same settings of the engine.
+     *
+     * @param engine the engine to be used, or null to use {@link TranslationEngine#getDefault()}
+     * @param inputFile path of the original coach
+     * @param outputFile path of the XLIFF file to be written
+     * @return true if the output was served from the cache, false if the extraction was executed
+     * @throws IOException if an I/O error occurs
+     * @throws JAXBException if an error occurred while reading the coach
+     * @see TranslationEngine#extract(Path, Path)
+     */
+    public boolean extract(final TranslationEngine engine, final Path inputFile, final Path outputFile) throws IOException, JAXBException {
+        if (inputFile == null) {
+            throw new IllegalArgumentException("Invalid input file");
+        }
+        if (outputFile == null) {
+            throw new IllegalArgumentException("Invalid output file");
+        }
+        final TranslationEngine e = engine != null ? engine : TranslationEngine.getDefault();
+        final String key = key("extract", "", e.getConfiguration(), inputFile);
+        if (restore(key, outputFile)) {
+            return true;
+        }
+        e.extract(inputFile, outputFile);
+        store(key, outputFile, null);
+        return false;
+    }
+
+    /**
+     * Merges a coach unless the same coach and translations have already been merged with this version of the
+     * library and the same settings of the engine. For a merge served from the cache, the translations are added to
+     * the translation memory of the engine and its merge listeners receive the cached report.
+     *
+     * @param engine the engine to be used, or null to use {@link TranslationEngine#getDefault()}
+     * @param inputFile path of the original coach
+     * @param xlfFile path of the XLIFF file containing the translations
+     * @param trgLocale the target language
+     * @param outputFile path of the translated coach to be written
+     * @return true if the output was served from the cache, false if the merge was executed
+     * @throws IOException if an I/O error occurs
+     * @throws JAXBException if an error occurred while handling the XML files
+     * @see TranslationEngine#merge(Path, Path, LocaleId, Path)
+     */
+    public boolean merge(final TranslationEngine engine, final Path inputFile, final Path xlfFile, final LocaleId trgLocale,
+                         final Path outputFile) throws IOException, JAXBException {
+        if (inputFile == null) {
+            throw new IllegalArgumentException("Invalid input file");
+        }
+        if (xlfFile == null) {
+            throw new IllegalArgumentException("Invalid XLF file");
+        }
+        if (trgLocale == null) {
+            throw new IllegalArgumentException("Invalid target language");
+        }
+        if (outputFile == null) {
+            throw new IllegalArgumentException("Invalid output file");
+        }
+        final TranslationEngine e = engine != null ? engine : TranslationEngine.getDefault();
+        final String key = key("merge", trgLocale.toBCP47(), e.getConfiguration(), inputFile, xlfFile);
+        final MergeReport report = restoreMerge(key, trgLocale, outputFile);
+        if (report != null) {
+            e.completeCachedMerge(inputFile, xlfFile, trgLocale, report);
+            return true;
+        }
+        store(key, outputFile, e.merge(inputFile, xlfFile, trgLocale, outputFile));
+        return false;
+    }
+
+    /**
+     * @return the number of cached files
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the total size of the cached files
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Restores the output of a merge together with its report.
+     *
+     * @return the cached report, or null if the merge is not cached
+     */
+    private synchronized MergeReport restoreMerge(final String key, final LocaleId trgLocale, final Path outputFile) throws IOException {
+        final Path reportFile = reportFile(key);
+        if (!entries.containsKey(key) || Files.notExists(reportFile)) {
+            return null;
+        }
+        final MergeReport report = readReport(reportFile, trgLocale, outputFile);
+        return restore(key, outputFile) ? report : null;
+    }
+
+    /**
+     * Restores a cached output, holding the lock of the cache, so the cached file cannot be evicted meanwhile.
+     */
+    private synchronized boolean restore(final String key, final Path outputFile) throws IOException {
+        final Entry entry = entries.get(key);
+        if (entry == null) {
+            return false;
+        }
+        final Path object = objectFile(key);
+        if (Files.notExists(object)) {
+            entries.remove(key);
+            totalBytes -= entry.size;
+            return false;
+        }
+        if (Files.exists(outputFile) && Files.size(outputFile) == entry.size && entry.hash.equals(hash(outputFile))) {
+            log.info("Inputs of '{}' unchanged, skipped", outputFile);
+        } else {
+            if (outputFile.getParent() != null && Files.notExists(outputFile.getParent())) {
+                Files.createDirectories(outputFile.getParent());
+            }
+            Files.copy(object, outputFile, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Inputs of '{}' unchanged, restored from cache", outputFile);
+        }
+        writeIndex();
+        return true;
+    }
+
+    private void store(final String key, final Path outputFile, final MergeReport report) throws IOException {
+        final long size = Files.size(outputFile);
+        if (size > maxBytes) {
+            log.info("'{}' exceeds the size of the cache, not cached", outputFile);
+            return;
+        }
+        final Path object = objectFile(key);
+        final Path tmp = Files.createTempFile(object.getParent(), key, ".tmp");
+        Files.copy(outputFile, tmp, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(tmp, object, StandardCopyOption.REPLACE_EXISTING);
+        final Entry entry = new Entry(size, hash(object));
+        if (report != null) {
+            writeReport(reportFile(key), report);
+        }
+
+        synchronized (this) {
+            final Entry previous = entries.put(key, entry);
+            totalBytes += size - (previous != null ? previous.size : 0);
+            evict();
+            writeIndex();
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the cache fits its maximum size.
+     */
+    private void evict() throws IOException {
+        final Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            final Map.Entry<String, Entry> eldest = it.next();
+            Files.deleteIfExists(objectFile(eldest.getKey()));
+            Files.deleteIfExists(reportFile(eldest.getKey()));
+            totalBytes -= eldest.getValue().size;
+            it.remove();
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        final Path indexFile = cacheDir.resolve(INDEX_FILE);
+        if (Files.notExists(indexFile)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] fields = line.split("\t");
+                if (fields.length != 3 || Files.notExists(objectFile(fields[0]))) {
+                    log.warn("Ignoring invalid cache entry '{}'", line);
+                    continue;
+                }
+                final Entry entry = new Entry(Long.parseLong(fields[1]), fields[2]);
+                entries.put(fields[0], entry);
+                totalBytes += entry.size;
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid cache index '" + indexFile + "'", e);
+        }
+        evict();
+    }
+
+    /**
+     * Writes the entries from the least to the most recently used, so the order survives a restart.
+     */
+    private void writeIndex() throws IOException {
+        final Path indexFile = cacheDir.resolve(INDEX_FILE);
+        final Path tmp = cacheDir.resolve(INDEX_FILE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                writer.write(entry.getKey() + "\t" + entry.getValue().size + "\t" + entry.getValue().hash);
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path objectFile(final String key) {
+        return cacheDir.resolve(OBJECTS_DIR).resolve(key);
+    }
+
+    private Path reportFile(final String key) {
+        return cacheDir.resolve(OBJECTS_DIR).resolve(key + REPORT_SUFFIX);
+    }
+
+    /**
+     * Writes a merge report as text file with one tab separated line per value.
+     */
+    private static void writeReport(final Path reportFile, final MergeReport report) throws IOException {
+        final Path tmp = reportFile.resolveSibling(reportFile.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write("applied\t" + report.getAppliedCount());
+            writer.newLine();
+            writeIds(writer, "missing", report.getMissingIds());
+            writeIds(writer, "stale", report.getStaleIds());
+            writeIds(writer, "outdated", report.getOutdatedIds());
+            for (QualityIssue issue : report.getQualityIssues()) {
+                // the message must not break the line format
+                writer.write("issue\t" + issue.getType() + "\t" + issue.getId() + "\t"
+                        + issue.getMessage().replace('\t', ' ').replace('\n', ' ').replace('\r', ' '));
+                writer.newLine();
+            }
+            for (MergeReport.Phase phase : MergeReport.Phase.values()) {
+                writer.write("duration\t" + phase + "\t" + report.getDuration(phase).toNanos());
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, reportFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeIds(final BufferedWriter writer, final String name, final List<TextUnitId> ids) throws IOException {
+        for (TextUnitId id : ids) {
+            writer.write(name + "\t" + id);
+            writer.newLine();
+        }
+    }
+
+    private static MergeReport readReport(final Path reportFile, final LocaleId trgLocale, final Path outputFile) throws IOException {
+        long appliedCount = 0;
+        final Map<String, List<TextUnitId>> ids = new LinkedHashMap<>();
+        for (String name : new String[]{"missing", "stale", "outdated"}) {
+            ids.put(name, new ArrayList<>());
+        }
+        final List<QualityIssue> qualityIssues = new ArrayList<>();
+        final Map<MergeReport.Phase, Duration> durations = new EnumMap<>(MergeReport.Phase.class);
+        try (BufferedReader reader = Files.newBufferedReader(reportFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] fields = line.split("\t", 4);
+                if ("applied".equals(fields[0])) {
+                    appliedCount = Long.parseLong(fields[1]);
+                } else if ("issue".equals(fields[0])) {
+                    qualityIssues.add(new QualityIssue(TextUnitId.parse(fields[2]), QualityIssue.Type.valueOf(fields[1]), fields[3]));
+                } else if ("duration".equals(fields[0])) {
+                    durations.put(MergeReport.Phase.valueOf(fields[1]), Duration.ofNanos(Long.parseLong(fields[2])));
+                } else if (ids.containsKey(fields[0])) {
+                    ids.get(fields[0]).add(TextUnitId.parse(fields[1]));
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid cached report '" + reportFile + "'", e);
+        }
+        return new MergeReport(trgLocale.toBCP47(), outputFile, appliedCount, ids.get("missing"), ids.get("stale"),
+                ids.get("outdated"), qualityIssues, durations);
+    }
+
+    private static String key(final String operation, final String targetLang, final String configuration,
+                              final Path... inputFiles) throws IOException {
+        final MessageDigest digest = sha256();
+        for (String part : new String[]{TOOL_VERSION, operation, targetLang, configuration}) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        for (Path inputFile : inputFiles) {
+            // the length separates the contents of consecutive files
+            digest.update(Long.toString(Files.size(inputFile)).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            update(digest, inputFile);
+        }
+        return toHex(digest.digest());
+    }
+
+    private static String hash(final Path file) throws IOException {
+        final MessageDigest digest = sha256();
+        update(digest, file);
+        return toHex(digest.digest());
+    }
+
+    private static void update(final MessageDigest digest, final Path file) throws IOException {
+        final byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    private static String loadToolVersion() {
+        String version = "dev";
+        try (InputStream in = BuildCache.class.getResourceAsStream("/META-INF/maven/eu.smesec.cysec/lib-translation-tool/pom.properties")) {
+            if (in != null) {
+                final Properties properties = new Properties();
+                properties.load(in);
+                version = properties.getProperty("version", "dev");
+            }
+        } catch (IOException e) {
+            log.warn("Could not read the version of the library", e);
+        }
+        if ("dev".equals(version) || version.endsWith("-SNAPSHOT")) {
+            // the code of unreleased builds changes without a new version
+            version += "+" + hashClasses();
+        }
+        return version;
+    }
+
+    /**
+     * @return the hash of the jar or class directory of the library, or an empty string if it cannot be read
+     */
+    private static String hashClasses() {
+        final CodeSource codeSource = BuildCache.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            return "";
+        }
+        try {
+            final Path location = Paths.get(codeSource.getLocation().toURI());
+            if (!Files.isDirectory(location)) {
+                return hash(location);
+            }
+            final MessageDigest digest = sha256();
+            try (Stream<Path> files = Files.walk(location)) {
+                final Iterator<Path> it = files.filter(Files::isRegularFile).sorted().iterator();
+                while (it.hasNext()) {
+                    final Path file = it.next();
+                    digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                    update(digest, file);
+                }
+            }
+            return toHex(digest.digest());
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            log.warn("Could not read the classes of the library", e);
+            return "";
+        }
+    }
+
+    private static final class Entry {
+
+        private final long size;
+        private final String hash;
+
+        Entry(final long size, final String hash) {
+            this.size = size;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import eu.smesec.cysec.platform.bridge.generated.DictionaryEntry;
+import eu.smesec.cysec.platform.bridge.generated.Option;
+import eu.smesec.cysec.platform.bridge.generated.Question;
+import eu.smesec.cysec.platform.bridge.generated.Questionnaire;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index of the translatable fields of a coach by {@link TextUnitId}.
+ * <p>
+ * A field is not referenced directly, but by its kind and the positions of its question, option or dictionary entry.
+ * Thus one index built from a coach can be used for all copies of the coach, e.g. for every language of a batch, and
+ * translations can be set without walking the coach. The positions of the fields are in the order of the coach.
+ * Instances are immutable and thread-safe.
+ *
+ * @author Matthias Luppi
+ */
+final class CoachIndex {
+
+    private enum Field {
+        READABLE_NAME {
+            @Override
+            void set(Questionnaire questionnaire, int question, int item, String text) {
+                questionnaire.setReadableName(text);
+            }
+
+            @Override
+            String get(Questionnaire questionnaire, int question, int item) {
+                return questionnaire.getReadableName();
+            }
+        },
+        DESCRIPTION {
+            @Override
+            void set(Questionnaire questionnaire, int question, int item, String text) {
+                questionnaire.setDescription(text);
+            }
+
+            @Override
+            String get(Questionnaire questionnaire, int question, int item) {
+                return questionnaire.getDescription();
+            }
+        },
+        QST_TEXT {
+            @Override
+            void set(Questionnaire questionnaire, int question, int item, String text) {
+                question(questionnaire, question).setText(text);
+            }
+
+            @Override
+            String get(Questionnaire questionnaire, int question, int item) {
+                return question(questionnaire, question).getText();
+            }
+        },
+        QST_INTRODUCTION {
+            @Override
+            void set(Questionnaire questionnaire, int question, int item, String text) {
+                question(questionnaire, question).setIntroduction(text);
+            }
+
+            @Override
+            String get(Questionnaire questionnaire, int question, int item) {
+                return question(questionnaire, question).getIntroduction();
+            }
+        },
+        OPT_TEXT {
+            @Override
+            void set(Questionnaire questionnaire, int question, int item, String text) {
+                question(questionnaire, question).getOptions().getOption().get(item).setText(text);
+            }
+
+            @Override
+            String get(Questionnaire questionnaire, int question, int item) {
+                return question(questionnaire, question).getOptions().getOption().get(item).getText();
+            }
+        },
+        OPT_COMMENT {
+            @Override
+            void set(Questionnaire questionnaire, int question, int item, String text) {
+                question(questionnaire, question).getOptions().getOption().get(item).setComment(text);
+            }
+
+            @Override
+            String get(Questionnaire questionnaire, int question, int item) {
+                return question(questionnaire, question).getOptions().getOption().get(item).getComment();
+            }
+        },
+        QST_INFOTEXT {
+            @Override
+            void set(Questionnaire questionnaire, int question, int item, String text) {
+                question(questionnaire, question).setInfotext(text);
+            }
+
+            @Override
+            String get(Questionnaire questionnaire, int question, int item) {
+                return question(questionnaire, question).getInfotext();
+            }
+        },
+        QST_READ_MORE {
+            @Override
+            void set(Questionnaire questionnaire, int question, int item, String text) {
+                question(questionnaire, question).setReadMore(text);
+            }
+
+            @Override
+            String get(Questionnaire questionnaire, int question, int item) {
+                return question(questionnaire, question).getReadMore();
+            }
+        },
+        QST_INSTRUCTION {
+            @Override
+            void set(Questionnaire questionnaire, int question, int item, String text) {
+                question(questionnaire, question).getInstruction().setText(text);
+            }
+
+            @Override
+            String get(Questionnaire questionnaire, int question, int item) {
+                return question(questionnaire, question).getInstruction().getText();
+            }
+        },
+        DK_TEXT {
+            @Override
+            void set(Questionnaire questionnaire, int question, int item, String text) {
+                questionnaire.getDictionary().getEntry().get(item).setValue(text);
+            }
+
+            @Override
+            String get(Questionnaire questionnaire, int question, int item) {
+                return questionnaire.getDictionary().getEntry().get(item).getValue();
+            }
+        };
+
+        abstract void set(Questionnaire questionnaire, int question, int item, String text);
+
+        abstract String get(Questionnaire questionnaire, int question, int item);
+
+        private static Question question(Questionnaire questionnaire, int question) {
+            return questionnaire.getQuestions().getQuestion().get(question);
+        }
+    }
+
+    private final TextUnitId[] ids;
+    private final Field[] fields;
+    private final int[] questions;
+    private final int[] items;
+    // next position with the same ID, or -1; IDs are only ambiguous if the coach has duplicate IDs
+    private final int[] nextSame;
+    // open addressing table of the first position of an ID plus one, 0 for a free slot
+    private final int[] slots;
+
+    private CoachIndex(final Builder builder) {
+        final int size = builder.ids.size();
+        this.ids = builder.ids.toArray(new TextUnitId[0]);
+        this.fields = builder.fields.toArray(new Field[0]);
+        this.questions = Arrays.copyOf(builder.questions, size);
+        this.items = Arrays.copyOf(builder.items, size);
+        this.nextSame = new int[size];
+        Arrays.fill(nextSame, -1);
+        this.slots = new int[Math.max(16, Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1)];
+        final int[] lastSame = new int[size];
+        for (int position = 0; position < size; position++) {
+            final int slot = slot(ids[position]);
+            if (slots[slot] == 0) {
+                slots[slot] = position + 1;
+                lastSame[position] = position;
+            } else {
+                final int first = slots[slot] - 1;
+                nextSame[lastSame[first]] = position;
+                lastSame[first] = position;
+            }
+        }
+    }
+
+    /**
+     * Indexes the translatable fields of a coach, the same fields as extracted to XLIFF
+     *
+     * @param questionnaire the coach
+     * @return the index of the coach
+     */
+    static CoachIndex of(final Questionnaire questionnaire) {
+        final Builder builder = new Builder();
+        builder.add(TextUnitId.attr(TextUnitId.COACH_READABLE_NAME), Field.READABLE_NAME, -1, -1);
+        builder.add(TextUnitId.attr(TextUnitId.COACH_DESCRIPTION), Field.DESCRIPTION, -1, -1);
+
+        if (questionnaire.getQuestions() != null) {
+            final List<Question> questionList = questionnaire.getQuestions().getQuestion();
+            for (int q = 0; q < questionList.size(); q++) {
+                final Question question = questionList.get(q);
+                builder.add(TextUnitId.attr(TextUnitId.QST_TEXT).qst(question), Field.QST_TEXT, q, -1);
+                builder.add(TextUnitId.attr(TextUnitId.QST_INTRODUCTION).qst(question), Field.QST_INTRODUCTION, q, -1);
+                if (question.getOptions() != null) {
+                    final List<Option> optionList = question.getOptions().getOption();
+                    for (int o = 0; o < optionList.size(); o++) {
+                        final Option option = optionList.get(o);
+                        if (StringUtils.isNotBlank(option.getText())) {
+                            builder.add(TextUnitId.attr(TextUnitId.OPT_TEXT).qst(question).opt(option), Field.OPT_TEXT, q, o);
+                        }
+                        if (StringUtils.isNotBlank(option.getComment())) {
+                            builder.add(TextUnitId.attr(TextUnitId.OPT_COMMENT).qst(question).opt(option), Field.OPT_COMMENT, q, o);
+                        }
+                    }
+                }
+                if (StringUtils.isNotBlank(question.getInfotext())) {
+                    builder.add(TextUnitId.attr(TextUnitId.QST_INFOTEXT).qst(question), Field.QST_INFOTEXT, q, -1);
+                }
+                if (StringUtils.isNotBlank(question.getReadMore())) {
+                    builder.add(TextUnitId.attr(TextUnitId.QST_READ_MORE).qst(question), Field.QST_READ_MORE, q, -1);
+                }
+                if (question.getInstruction() != null && StringUtils.isNotBlank(question.getInstruction().getText())) {
+                    builder.add(TextUnitId.attr(TextUnitId.QST_INSTRUCTION).qst(question), Field.QST_INSTRUCTION, q, -1);
+                }
+            }
+        }
+
+        if (questionnaire.getDictionary() != null) {
+            final List<DictionaryEntry> entryList = questionnaire.getDictionary().getEntry();
+            for (int e = 0; e < entryList.size(); e++) {
+                builder.add(TextUnitId.attr(TextUnitId.DK_TEXT).dkey(entryList.get(e).getKey()), Field.DK_TEXT, -1, e);
+            }
+        }
+        return new CoachIndex(builder);
+    }
+
+    /**
+     * @return the number of indexed fields
+     */
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * @param id the ID of a text unit
+     * @return the first position of a field with the ID, or -1 if the coach has no such field
+     */
+    int find(final TextUnitId id) {
+        return slots[slot(id)] - 1;
+    }
+
+    /**
+     * @param position the position of a field
+     * @return the next position of a field with the same ID, or -1 if there is none
+     */
+    int next(final int position) {
+        return nextSame[position];
+    }
+
+    TextUnitId getId(final int position) {
+        return ids[position];
+    }
+
+    /**
+     * @param position the position of a field
+     * @return the position of the question of the field in the coach, or -1 if the field is not part of a question
+     */
+    int getQuestion(final int position) {
+        return questions[position];
+    }
+
+    /**
+     * Sets the text of a field
+     *
+     * @param questionnaire the indexed coach or a copy of it
+     * @param position the position of the field
+     * @param text the text to be set
+     */
+    void set(final Questionnaire questionnaire, final int position, final String text) {
+        fields[position].set(questionnaire, questions[position], items[position], text);
+    }
+
+    /**
+     * Gets the text of a field
+     *
+     * @param questionnaire the indexed coach or a copy of it
+     * @param position the position of the field
+     * @return the text of the field
+     */
+    String get(final Questionnaire questionnaire, final int position) {
+        return fields[position].get(questionnaire, questions[position], items[position]);
+    }
+
+    private int slot(final TextUnitId id) {
+        final int mask = slots.length - 1;
+        int h = id.hashCode() * 0x9E3779B9;
+        int slot = (h ^ (h >>> 16)) & mask;
+        while (slots[slot] != 0 && !ids[slots[slot] - 1].equals(id)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static final class Builder {
+        private final List<TextUnitId> ids = new ArrayList<>();
+        private final List<Field> fields = new ArrayList<>();
+        private int[] questions = new int[64];
+        private int[] items = new int[64];
+
+        void add(final TextUnitId id, final Field field, final int question, final int item) {
+            final int position = ids.size();
+            if (position == questions.length) {
+                questions = Arrays.copyOf(questions, position << 1);
+                items = Arrays.copyOf(items, position << 1);
+            }
+            ids.add(id);
+            fields.add(field);
+            questions[position] = question;
+            items[position] = item;
+        }
+    }
+}
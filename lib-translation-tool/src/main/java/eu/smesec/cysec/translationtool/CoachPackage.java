@@ -0,0 +1,108 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Zip or jar file to which translated coaches, XLIFF files or bundles are written directly, without intermediate
+ * files.
+ * <p>
+ * The package is opened as zip file system, so every path returned by {@link #resolve(String)} can be passed as
+ * output file or directory to the engine and the mergers, also to the batch operations, which write several
+ * languages in parallel. The entries are compressed while they are written, and the archive is completed when the
+ * package is closed. An existing archive is updated, entries with the same name are replaced.
+ *
+ * @author Matthias Luppi
+ */
+public class CoachPackage implements Closeable {
+
+    private final Path archive;
+    private final FileSystem fileSystem;
+
+    private CoachPackage(final Path archive, final FileSystem fileSystem) {
+        this.archive = archive;
+        this.fileSystem = fileSystem;
+    }
+
+    /**
+     * Opens a zip or jar file for writing, which is created if it does not exist.
+     *
+     * @param archive path of the zip or jar file
+     * @return the package, to be closed by the caller
+     * @throws IOException if the archive could not be opened
+     */
+    public static CoachPackage open(final Path archive) throws IOException {
+        if (archive == null) {
+            throw new IllegalArgumentException("Invalid archive");
+        }
+        final Path absolute = archive.toAbsolutePath();
+        if (absolute.getParent() != null) {
+            Files.createDirectories(absolute.getParent());
+        }
+        final Map<String, String> env = new HashMap<>();
+        env.put("create", "true");
+        env.put("encoding", "UTF-8");
+        return new CoachPackage(archive, FileSystems.newFileSystem(URI.create("jar:" + absolute.toUri()), env));
+    }
+
+    /**
+     * @param entry the name of an entry, directories are separated by {@code /}
+     * @return the path of the entry in the package
+     */
+    public Path resolve(final String entry) {
+        if (entry == null) {
+            throw new IllegalArgumentException("Invalid entry");
+        }
+        return getRoot().resolve(entry);
+    }
+
+    /**
+     * @return the root directory of the package
+     */
+    public Path getRoot() {
+        return fileSystem.getPath("/");
+    }
+
+    /**
+     * @return path of the zip or jar file
+     */
+    public Path getArchive() {
+        return archive;
+    }
+
+    /**
+     * Completes the archive, no entries must be written any more.
+     *
+     * @throws IOException if the archive could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        fileSystem.close();
+    }
+}
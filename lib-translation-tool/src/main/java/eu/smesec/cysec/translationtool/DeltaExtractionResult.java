@@ -0,0 +1,99 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of an incremental extraction, see {@link TranslationEngine#extractDelta(Path, Path, ExtractionManifest)}.
+ *
+ * @author Matthias Luppi
+ */
+public class DeltaExtractionResult {
+
+    private final Path outputFile;
+    private final ExtractionManifest manifest;
+    private final List<TextUnitId> addedIds;
+    private final List<TextUnitId> changedIds;
+    private final List<TextUnitId> removedIds;
+
+    DeltaExtractionResult(final Path outputFile, final ExtractionManifest manifest, final List<TextUnitId> addedIds,
+                          final List<TextUnitId> changedIds, final List<TextUnitId> removedIds) {
+        this.outputFile = outputFile;
+        this.manifest = manifest;
+        this.addedIds = Collections.unmodifiableList(addedIds);
+        this.changedIds = Collections.unmodifiableList(changedIds);
+        this.removedIds = Collections.unmodifiableList(removedIds);
+    }
+
+    /**
+     * @return path of the written delta XLIFF file
+     */
+    public Path getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * @return the manifest of all text units of the coach, the baseline for the next incremental extraction
+     */
+    public ExtractionManifest getManifest() {
+        return manifest;
+    }
+
+    /**
+     * @return the IDs of the text units which are new since the previous extraction
+     */
+    public List<TextUnitId> getAddedIds() {
+        return addedIds;
+    }
+
+    /**
+     * @return the IDs of the text units whose source text changed since the previous extraction
+     */
+    public List<TextUnitId> getChangedIds() {
+        return changedIds;
+    }
+
+    /**
+     * @return the IDs of the text units which no longer exist in the coach
+     */
+    public List<TextUnitId> getRemovedIds() {
+        return removedIds;
+    }
+
+    /**
+     * @return true if the coach has the same text units and source texts as in the previous extraction
+     */
+    public boolean isUnchanged() {
+        return addedIds.isEmpty() && changedIds.isEmpty() && removedIds.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "DeltaExtractionResult{" +
+                "outputFile=" + outputFile +
+                ", added=" + addedIds.size() +
+                ", changed=" + changedIds.size() +
+                ", removed=" + removedIds.size() +
+                '}';
+    }
+}
@@ -0,0 +1,76 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import net.sf.okapi.common.filterwriter.XLIFFWriter;
+import net.sf.okapi.common.resource.ITextUnit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes only the text units which are not part of a previous manifest or whose source text changed, and
+ * collects the manifest of all text units.
+ *
+ * @author Matthias Luppi
+ */
+final class DeltaXliffWriter extends XLIFFWriter {
+
+    private final ExtractionManifest previous;
+    private final ExtractionManifest manifest = new ExtractionManifest();
+    private final List<TextUnitId> addedIds = new ArrayList<>();
+    private final List<TextUnitId> changedIds = new ArrayList<>();
+
+    DeltaXliffWriter(final ExtractionManifest previous) {
+        this.previous = previous;
+    }
+
+    @Override
+    public void writeTextUnit(final ITextUnit textUnit) {
+        final TextUnitId id = TextUnitId.parse(textUnit.getId());
+        final long hash = SourceHash.of(textUnit.getSource().toString());
+        manifest.put(id, hash);
+
+        final Long previousHash = previous.getHash(id);
+        if (previousHash == null) {
+            addedIds.add(id);
+        } else if (previousHash != hash) {
+            changedIds.add(id);
+        } else {
+            return;
+        }
+        super.writeTextUnit(textUnit);
+    }
+
+    /**
+     * @return the manifest of all text units written so far
+     */
+    ExtractionManifest getManifest() {
+        return manifest;
+    }
+
+    List<TextUnitId> getAddedIds() {
+        return addedIds;
+    }
+
+    List<TextUnitId> getChangedIds() {
+        return changedIds;
+    }
+}
@@ -0,0 +1,165 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import net.sf.okapi.common.Event;
+import net.sf.okapi.common.EventType;
+import net.sf.okapi.common.LocaleId;
+import net.sf.okapi.common.filters.IFilter;
+import net.sf.okapi.common.resource.ITextUnit;
+import net.sf.okapi.common.resource.RawDocument;
+import net.sf.okapi.filters.xliff.XLIFFFilter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The IDs of the text units of an extraction together with the hashes of their source texts.
+ * <p>
+ * A manifest is the baseline of an incremental extraction, see {@link TranslationEngine#extractDelta(Path, Path, ExtractionManifest)}.
+ * It is stored as a text file with one line per text unit, containing the hash in hex and the ID separated by a tab.
+ *
+ * @author Matthias Luppi
+ */
+public class ExtractionManifest {
+
+    private final Map<TextUnitId, Long> hashById = new LinkedHashMap<>();
+
+    ExtractionManifest() {
+    }
+
+    /**
+     * @return an empty manifest, with which an incremental extraction contains all text units
+     */
+    public static ExtractionManifest empty() {
+        return new ExtractionManifest();
+    }
+
+    /**
+     * Reads a manifest written by {@link #write(Path)}.
+     *
+     * @param manifestFile path of the manifest
+     * @return the manifest
+     * @throws IOException if an I/O error occurs
+     */
+    public static ExtractionManifest read(final Path manifestFile) throws IOException {
+        if (manifestFile == null) {
+            throw new IllegalArgumentException("Invalid manifest file");
+        }
+        final ExtractionManifest manifest = new ExtractionManifest();
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                final int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    throw new IOException("Invalid line in manifest '" + manifestFile + "': " + line);
+                }
+                try {
+                    manifest.put(TextUnitId.parse(line.substring(tab + 1)), SourceHash.fromHex(line.substring(0, tab)));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid line in manifest '" + manifestFile + "': " + line, e);
+                }
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Creates a manifest from the source texts of a previously extracted XLIFF file.
+     *
+     * @param xlfFile path of the XLIFF file
+     * @return the manifest
+     */
+    public static ExtractionManifest fromXliff(final Path xlfFile) {
+        if (xlfFile == null) {
+            throw new IllegalArgumentException("Invalid XLF file");
+        }
+        final ExtractionManifest manifest = new ExtractionManifest();
+        try (IFilter filter = new XLIFFFilter()) {
+            // the languages are taken from the XLIFF file, the ones given here are only defaults
+            filter.open(new RawDocument(xlfFile.toUri(), StandardCharsets.UTF_8.name(), LocaleId.ENGLISH, LocaleId.EMPTY));
+            while (filter.hasNext()) {
+                final Event event = filter.next();
+                if (event.getEventType() == EventType.TEXT_UNIT) {
+                    final ITextUnit textUnit = event.getTextUnit();
+                    manifest.put(TextUnitId.parse(textUnit.getId()), SourceHash.of(textUnit.getSource().toString()));
+                }
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Writes the manifest.
+     *
+     * @param manifestFile path of the manifest to be written
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(final Path manifestFile) throws IOException {
+        if (manifestFile == null) {
+            throw new IllegalArgumentException("Invalid manifest file");
+        }
+        if (manifestFile.getParent() != null && Files.notExists(manifestFile.getParent())) {
+            Files.createDirectories(manifestFile.getParent());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(manifestFile, StandardCharsets.UTF_8)) {
+            for (Map.Entry<TextUnitId, Long> entry : hashById.entrySet()) {
+                writer.write(SourceHash.toHex(entry.getValue()));
+                writer.write('\t');
+                writer.write(entry.getKey().toString());
+                writer.newLine();
+            }
+        }
+    }
+
+    void put(final TextUnitId id, final long hash) {
+        hashById.put(id, hash);
+    }
+
+    /**
+     * @param id the ID of a text unit
+     * @return the hash of the source text, or null if the text unit is not part of the manifest
+     */
+    public Long getHash(final TextUnitId id) {
+        return hashById.get(id);
+    }
+
+    /**
+     * @return the IDs of all text units, in the order of the extraction
+     */
+    public Set<TextUnitId> getIds() {
+        return Collections.unmodifiableSet(hashById.keySet());
+    }
+
+    public int size() {
+        return hashById.size();
+    }
+}
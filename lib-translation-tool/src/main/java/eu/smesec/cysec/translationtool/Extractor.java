@@ -19,23 +19,11 @@
  */
 package eu.smesec.cysec.translationtool;
 
-import eu.smesec.cysec.platform.bridge.generated.DictionaryEntry;
-import eu.smesec.cysec.platform.bridge.generated.Option;
-import eu.smesec.cysec.platform.bridge.generated.Question;
-import eu.smesec.cysec.platform.bridge.generated.Questionnaire;
 import net.sf.okapi.common.LocaleId;
-import net.sf.okapi.common.filterwriter.XLIFFWriter;
-import net.sf.okapi.common.filterwriter.XLIFFWriterParameters;
-import net.sf.okapi.common.resource.TextUnit;
-import org.apache.commons.lang3.StringUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 
 /**
@@ -45,126 +33,73 @@ import java.nio.file.Path;
  */
 public class Extractor {
 
-    private static final Logger log = LoggerFactory.getLogger(Extractor.class);
-
+    private final TranslationEngine engine;
     private final Path inputFile;
     private final Path outputFile;
 
     public Extractor(final Path inputFile, final Path outputFile) {
+        this(null, inputFile, outputFile);
+    }
+
+    /**
+     * Creates an extractor running on the given engine.
+     *
+     * @param engine the engine to be used, or null to use {@link TranslationEngine#getDefault()}
+     * @param inputFile path of the original coach
+     * @param outputFile path of the XLIFF file to be written
+     */
+    public Extractor(final TranslationEngine engine, final Path inputFile, final Path outputFile) {
+        this.engine = engine;
         this.inputFile = inputFile;
         this.outputFile = outputFile;
     }
 
     public void extract() throws IOException, JAXBException {
-        if (inputFile == null) {
-            throw new IllegalArgumentException("Invalid input file");
-        }
-        if (outputFile == null) {
-            throw new IllegalArgumentException("Invalid output file");
-        }
-        if (Files.notExists(outputFile.getParent())) {
-            Files.createDirectories(outputFile.getParent());
-        }
-
-        JAXBContext context = JAXBContext.newInstance(Questionnaire.class);
-        final Unmarshaller unmarshaller = context.createUnmarshaller();
-        final Questionnaire questionnaire = (Questionnaire) unmarshaller.unmarshal(inputFile.toFile());
-
-        // get source language from XML or use English as fallback
-        final LocaleId srcLocale = LocaleId.fromString(StringUtils.defaultString(questionnaire.getLanguage(), "en"));
-
-        try (XLIFFWriter writer = new XLIFFWriter()) {
-            final String originalFileName = inputFile.getFileName().toString();
-            writer.create(outputFile.toAbsolutePath().toString(), null, srcLocale, null, "xml", originalFileName, null);
-
-            log.info("Starting extraction of translatable content from '{}'", inputFile);
-
-            XLIFFWriterParameters paramsXliff = writer.getParameters();
-            paramsXliff.setPlaceholderMode(true);
-            paramsXliff.setCopySource(false);
-            paramsXliff.setIncludeAltTrans(true);
-            paramsXliff.setIncludeCodeAttrs(false);
-            paramsXliff.setEscapeGt(true);
-
-            extractGeneralAttributes(questionnaire, writer);
-            extractQuestions(questionnaire, writer);
-            extractDictionary(questionnaire, writer);
+        final TranslationEngine e = engine != null ? engine : TranslationEngine.getDefault();
+        e.extract(inputFile, outputFile);
+    }
 
-            log.info("Translatable content extracted to '{}'", outputFile);
+    /**
+     * Executes the extraction process for a target language, which prefills the targets found in the
+     * translation memory of the engine.
+     *
+     * @param targetLang the target language
+     * @throws IOException if an I/O error occurs
+     * @throws JAXBException if an error occurred while reading the coach
+     * @see TranslationEngine#extract(Path, Path, LocaleId)
+     */
+    public void extract(final String targetLang) throws IOException, JAXBException {
+        if (targetLang == null) {
+            throw new IllegalArgumentException("Invalid target language");
         }
+        final TranslationEngine e = engine != null ? engine : TranslationEngine.getDefault();
+        e.extract(inputFile, outputFile, new LocaleId(targetLang));
     }
 
-    private void extractGeneralAttributes(final Questionnaire questionnaire, final XLIFFWriter writer) {
-        writer.writeTextUnit(new TextUnit(
-                TextUnitId.attr(TextUnitId.COACH_READABLE_NAME).toString(),
-                questionnaire.getReadableName()
-        ));
-        writer.writeTextUnit(new TextUnit(
-                TextUnitId.attr(TextUnitId.COACH_DESCRIPTION).toString(),
-                questionnaire.getDescription()));
+    /**
+     * Executes the extraction process without loading the whole coach into memory.
+     *
+     * @throws IOException if an I/O error occurs
+     * @throws JAXBException if the JAXB context of the default engine could not be created
+     * @throws XMLStreamException if an error occurred while reading the coach
+     * @see TranslationEngine#extractStreaming(Path, Path)
+     */
+    public void extractStreaming() throws IOException, JAXBException, XMLStreamException {
+        final TranslationEngine e = engine != null ? engine : TranslationEngine.getDefault();
+        e.extractStreaming(inputFile, outputFile);
     }
 
-    private void extractQuestions(final Questionnaire questionnaire, final XLIFFWriter writer) {
-        if (questionnaire.getQuestions() == null) {
-            return;
-        }
-        for (Question question : questionnaire.getQuestions().getQuestion()) {
-            writer.writeTextUnit(new TextUnit(
-                    TextUnitId.attr(TextUnitId.QST_TEXT).qst(question).toString(),
-                    question.getText()
-            ));
-            if (StringUtils.isNotBlank(question.getIntroduction())) {
-                writer.writeTextUnit(new TextUnit(
-                        TextUnitId.attr(TextUnitId.QST_INTRODUCTION).qst(question).toString(),
-                        question.getIntroduction()
-                ));
-            }
-            if (question.getOptions() != null) {
-                for (Option option : question.getOptions().getOption()) {
-                    if (StringUtils.isNotBlank(option.getText())) {
-                        writer.writeTextUnit(new TextUnit(
-                                TextUnitId.attr(TextUnitId.OPT_TEXT).qst(question).opt(option).toString(),
-                                option.getText()
-                        ));
-                    }
-                    if (StringUtils.isNotBlank(option.getComment())) {
-                        writer.writeTextUnit(new TextUnit(
-                                TextUnitId.attr(TextUnitId.OPT_COMMENT).qst(question).opt(option).toString(),
-                                option.getComment()
-                        ));
-                    }
-                }
-            }
-            if (StringUtils.isNotBlank(question.getInfotext())) {
-                writer.writeTextUnit(new TextUnit(
-                        TextUnitId.attr(TextUnitId.QST_INFOTEXT).qst(question).toString(),
-                        question.getInfotext()
-                ));
-            }
-            if (StringUtils.isNotBlank(question.getReadMore())) {
-                writer.writeTextUnit(new TextUnit(
-                        TextUnitId.attr(TextUnitId.QST_READ_MORE).qst(question).toString(),
-                        question.getReadMore()
-                ));
-            }
-            if (question.getInstruction() != null && StringUtils.isNotBlank(question.getInstruction().getText())) {
-                writer.writeTextUnit(new TextUnit(
-                        TextUnitId.attr(TextUnitId.QST_INSTRUCTION).qst(question).toString(),
-                        question.getInstruction().getText()
-                ));
-            }
-        }
-    }
-
-    private void extractDictionary(final Questionnaire questionnaire, final XLIFFWriter writer) {
-        if (questionnaire.getDictionary() == null) {
-            return;
-        }
-        for (DictionaryEntry entry : questionnaire.getDictionary().getEntry()) {
-            writer.writeTextUnit(new TextUnit(
-                    TextUnitId.attr(TextUnitId.DK_TEXT).dkey(entry.getKey()).toString(),
-                    entry.getValue()
-            ));
-        }
+    /**
+     * Executes an incremental extraction, which writes only the text units added or changed since a previous extraction.
+     *
+     * @param previous the manifest of the previous extraction
+     * @return the result of the extraction
+     * @throws IOException if an I/O error occurs
+     * @throws JAXBException if an error occurred while reading the coach
+     * @see TranslationEngine#extractDelta(Path, Path, ExtractionManifest)
+     */
+    public DeltaExtractionResult extractDelta(final ExtractionManifest previous) throws IOException, JAXBException {
+        final TranslationEngine e = engine != null ? engine : TranslationEngine.getDefault();
+        return e.extractDelta(inputFile, outputFile, previous);
     }
 }
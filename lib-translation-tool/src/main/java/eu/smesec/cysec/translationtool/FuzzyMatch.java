@@ -0,0 +1,61 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+/**
+ * A translation suggested by the {@link FuzzyMatcher} for a source text.
+ *
+ * @author Matthias Luppi
+ */
+public final class FuzzyMatch {
+
+    private final String source;
+    private final String target;
+    private final int score;
+
+    FuzzyMatch(final String source, final String target, final int score) {
+        this.source = source;
+        this.target = target;
+        this.score = score;
+    }
+
+    /**
+     * @return the source text of the translation, with normalized whitespace
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * @return the similarity of the source texts from 0 to 100, where only identical texts score 100
+     */
+    public int getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return score + "% '" + source + "' -> '" + target + "'";
+    }
+}
@@ -0,0 +1,475 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import net.sf.okapi.common.LocaleId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Finds translations of similar source texts by character trigrams.
+ * <p>
+ * The similarity of two texts is the Dice coefficient of their sets of trigrams, computed on the lower-case text
+ * with normalized whitespace. An inverted index maps every trigram to the ascending list of segments containing it.
+ * A lookup only collects candidates from the rarest trigrams of the text, as many as a segment with the minimum score
+ * must share at least one of, and checks the candidates against the remaining trigrams, by binary search as long as
+ * there are few candidates. Thus the common trigrams, whose lists are the longest, are rarely scanned.
+ * <p>
+ * Translations added later, e.g. to a translation memory, are indexed as a new layer on top of the existing index by
+ * {@link #extend(List)}, where the newer layers override the translations of the same source text in older layers.
+ * Once there are {@value #MAX_LAYERS} layers, they are merged into a single index.
+ * <p>
+ * The index is immutable, so lookups are thread-safe.
+ *
+ * @author Matthias Luppi
+ */
+public class FuzzyMatcher {
+
+    private static final Comparator<FuzzyMatch> RANKING = Comparator.comparingInt(FuzzyMatch::getScore).reversed()
+            .thenComparing(FuzzyMatch::getSource);
+
+    private static final int MAX_LAYERS = 8;
+    // shared by all matchers, since every extension replaces the matcher of a memory
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final FuzzyMatcher previous;
+    private final int layers;
+    private final String[] sources;
+    private final String[] targets;
+    private final int[] gramCounts;
+    private final GramTable gramIds = new GramTable();
+    private final int[][] postings;
+    private final Map<String, Integer> exactIds = new HashMap<>();
+
+    /**
+     * Indexes translations given as pairs of source and target text. If a source text occurs more than once, the
+     * last translation is used for exact matches.
+     *
+     * @param translations the source and target texts
+     */
+    public FuzzyMatcher(final List<? extends Map.Entry<String, String>> translations) {
+        this(translations, null);
+    }
+
+    private FuzzyMatcher(final List<? extends Map.Entry<String, String>> translations, final FuzzyMatcher previous) {
+        if (translations == null) {
+            throw new IllegalArgumentException("Invalid translations");
+        }
+        this.previous = previous;
+        this.layers = previous != null ? previous.layers + 1 : 1;
+        final int size = translations.size();
+        sources = new String[size];
+        targets = new String[size];
+        gramCounts = new int[size];
+
+        int[][] lists = new int[1024][];
+        int[] listSizes = new int[1024];
+        for (int i = 0; i < size; i++) {
+            final Map.Entry<String, String> translation = translations.get(i);
+            sources[i] = SourceHash.normalize(translation.getKey());
+            targets[i] = translation.getValue();
+            exactIds.put(sources[i], i);
+
+            final long[] grams = grams(sources[i]);
+            gramCounts[i] = grams.length;
+            for (long gram : grams) {
+                int gramId = gramIds.get(gram);
+                if (gramId < 0) {
+                    gramId = gramIds.add(gram);
+                    if (gramId == lists.length) {
+                        lists = Arrays.copyOf(lists, gramId * 2);
+                        listSizes = Arrays.copyOf(listSizes, gramId * 2);
+                    }
+                    lists[gramId] = new int[4];
+                }
+                int[] list = lists[gramId];
+                if (listSizes[gramId] == list.length) {
+                    list = Arrays.copyOf(list, list.length * 2);
+                    lists[gramId] = list;
+                }
+                list[listSizes[gramId]++] = i;
+            }
+        }
+
+        postings = new int[gramIds.size()][];
+        for (int gramId = 0; gramId < postings.length; gramId++) {
+            postings[gramId] = Arrays.copyOf(lists[gramId], listSizes[gramId]);
+        }
+    }
+
+    /**
+     * Indexes the translations of a target language in a translation memory.
+     *
+     * @param memory the translation memory
+     * @param trgLocale the target language
+     * @return the matcher for the translations
+     */
+    public static FuzzyMatcher of(final TranslationMemory memory, final LocaleId trgLocale) {
+        return new FuzzyMatcher(memory.getTranslations(trgLocale));
+    }
+
+    /**
+     * Indexes additional translations without indexing the translations of this matcher again.
+     *
+     * @param translations the source and target texts, which override the translations of the same source texts
+     * @return the matcher for the translations of this matcher and the additional ones
+     */
+    public FuzzyMatcher extend(final List<? extends Map.Entry<String, String>> translations) {
+        if (translations == null) {
+            throw new IllegalArgumentException("Invalid translations");
+        }
+        if (translations.isEmpty()) {
+            return this;
+        }
+        if (layers < MAX_LAYERS) {
+            return new FuzzyMatcher(translations, this);
+        }
+        // merge the layers from the oldest to the newest, so newer translations replace older ones
+        final Map<String, String> merged = new LinkedHashMap<>();
+        collectTranslations(merged);
+        for (Map.Entry<String, String> translation : translations) {
+            merged.put(SourceHash.normalize(translation.getKey()), translation.getValue());
+        }
+        return new FuzzyMatcher(new ArrayList<>(merged.entrySet()));
+    }
+
+    private void collectTranslations(final Map<String, String> merged) {
+        if (previous != null) {
+            previous.collectTranslations(merged);
+        }
+        for (int i = 0; i < sources.length; i++) {
+            merged.put(sources[i], targets[i]);
+        }
+    }
+
+    /**
+     * @return the number of indexed translations, a source text indexed in several layers counts several times
+     */
+    public int size() {
+        return sources.length + (previous != null ? previous.size() : 0);
+    }
+
+    /**
+     * Finds the translations with the most similar source texts.
+     *
+     * @param source the source text
+     * @param maxResults the maximum number of matches
+     * @param minScore the minimum score of a match, from 1 to 100
+     * @return the matches ordered by descending score
+     */
+    public List<FuzzyMatch> find(final String source, final int maxResults, final int minScore) {
+        if (maxResults < 0) {
+            throw new IllegalArgumentException("Invalid maximum number of results");
+        }
+        if (minScore < 1 || minScore > 100) {
+            throw new IllegalArgumentException("Invalid minimum score");
+        }
+        final String normalized = SourceHash.normalize(source);
+        if (maxResults == 0 || normalized.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final PriorityQueue<FuzzyMatch> best = new PriorityQueue<>(maxResults + 1, RANKING.reversed());
+        boolean exact = false;
+        for (FuzzyMatcher layer = this; layer != null; layer = layer.previous) {
+            // only the newest translation of a source text is an exact match
+            final Integer exactId = exact ? null : layer.exactIds.get(normalized);
+            if (exactId != null) {
+                best.add(new FuzzyMatch(layer.sources[exactId], layer.targets[exactId], 100));
+                if (best.size() > maxResults) {
+                    // newer layers may already have collected enough similar matches
+                    best.poll();
+                }
+                exact = true;
+            }
+            if (minScore < 100) {
+                layer.collectSimilar(normalized, exactId, maxResults, minScore, best, this);
+            }
+        }
+
+        final List<FuzzyMatch> matches = new ArrayList<>(best);
+        matches.sort(RANKING);
+        return matches;
+    }
+
+    /**
+     * @param newest the newest layer, whose layers down to this one may override the translations of this layer
+     */
+    private void collectSimilar(final String normalized, final Integer exactId, final int maxResults, final int minScore,
+                                final PriorityQueue<FuzzyMatch> best, final FuzzyMatcher newest) {
+        final long[] grams = grams(normalized);
+        final int gramCount = grams.length;
+        final int[][] lists = new int[gramCount][];
+        int known = 0;
+        for (long gram : grams) {
+            final int gramId = gramIds.get(gram);
+            if (gramId >= 0) {
+                lists[known++] = postings[gramId];
+            }
+        }
+        Arrays.sort(lists, 0, known, Comparator.comparingInt(list -> list.length));
+
+        // a segment with b trigrams of which s are shared scores 200s / (a + b), and s <= b
+        final int minShared = Math.max(1, (minScore * gramCount + 199 - minScore) / (200 - minScore));
+        final int prefix = known - minShared + 1;
+        if (prefix <= 0) {
+            return;
+        }
+
+        final Scratch s = SCRATCH.get();
+        s.ensureCapacity(sources.length);
+        try {
+            for (int i = 0; i < prefix; i++) {
+                for (int segment : lists[i]) {
+                    if (s.counts[segment]++ == 0) {
+                        s.touch(segment);
+                    }
+                }
+            }
+            for (int i = prefix; i < known && s.touchedCount > 0; i++) {
+                // drop the candidates which cannot reach the minimum score with their own number of trigrams
+                final int remaining = known - i;
+                int kept = 0;
+                for (int j = 0; j < s.touchedCount; j++) {
+                    final int segment = s.touched[j];
+                    if (s.counts[segment] + remaining >= requiredShared(minScore, gramCount, gramCounts[segment])) {
+                        s.touched[kept++] = segment;
+                    } else {
+                        s.counts[segment] = 0;
+                    }
+                }
+                s.touchedCount = kept;
+
+                final int[] list = lists[i];
+                if ((long) s.touchedCount * (32 - Integer.numberOfLeadingZeros(list.length)) < list.length) {
+                    for (int j = 0; j < s.touchedCount; j++) {
+                        final int segment = s.touched[j];
+                        if (Arrays.binarySearch(list, segment) >= 0) {
+                            s.counts[segment]++;
+                        }
+                    }
+                } else {
+                    // many candidates, scanning the list is cheaper
+                    for (int segment : list) {
+                        if (s.counts[segment] > 0) {
+                            s.counts[segment]++;
+                        }
+                    }
+                }
+            }
+            for (int j = 0; j < s.touchedCount; j++) {
+                final int segment = s.touched[j];
+                if (exactId != null && segment == exactId) {
+                    continue;
+                }
+                final int shared = s.counts[segment];
+                // identical trigrams do not make identical texts
+                final int score = Math.min(99, 200 * shared / (gramCount + gramCounts[segment]));
+                if (score >= minScore && (best.size() < maxResults || score >= best.peek().getScore())
+                        && !newest.overrides(this, sources[segment])) {
+                    final FuzzyMatch match = new FuzzyMatch(sources[segment], targets[segment], score);
+                    if (best.size() < maxResults) {
+                        best.add(match);
+                    } else if (RANKING.compare(match, best.peek()) < 0) {
+                        best.poll();
+                        best.add(match);
+                    }
+                }
+            }
+        } finally {
+            s.reset();
+        }
+    }
+
+    /**
+     * @return true if a layer newer than the given one has a translation of the source text
+     */
+    private boolean overrides(final FuzzyMatcher layer, final String source) {
+        for (FuzzyMatcher newer = this; newer != layer; newer = newer.previous) {
+            if (newer.exactIds.containsKey(source)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Scores the similarity of two texts the same way as {@link #find(String, int, int)}.
+     *
+     * @param source the source text
+     * @param other the text compared with the source text
+     * @return the score from 0 to 100, where 100 is only given to texts which are equal apart from whitespace
+     */
+    static int score(final String source, final String other) {
+        final String normalized = SourceHash.normalize(source);
+        final String otherNormalized = SourceHash.normalize(other);
+        if (normalized.equals(otherNormalized)) {
+            return 100;
+        }
+        if (normalized.isEmpty() || otherNormalized.isEmpty()) {
+            return 0;
+        }
+        final long[] grams = grams(normalized);
+        final long[] otherGrams = grams(otherNormalized);
+        int shared = 0;
+        for (int i = 0, j = 0; i < grams.length && j < otherGrams.length; ) {
+            if (grams[i] < otherGrams[j]) {
+                i++;
+            } else if (grams[i] > otherGrams[j]) {
+                j++;
+            } else {
+                shared++;
+                i++;
+                j++;
+            }
+        }
+        return Math.min(99, 200 * shared / (grams.length + otherGrams.length));
+    }
+
+    /**
+     * @return the minimum number of shared trigrams for a score of at least {@code minScore}
+     */
+    private static int requiredShared(final int minScore, final int gramCount, final int segmentGramCount) {
+        return (minScore * (gramCount + segmentGramCount) + 199) / 200;
+    }
+
+    /**
+     * @return the distinct trigrams of the lower-case text padded with spaces, in ascending order
+     */
+    private static long[] grams(final String normalized) {
+        final String text = ' ' + normalized.toLowerCase(Locale.ROOT) + ' ';
+        final long[] grams = new long[Math.max(0, text.length() - 2)];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = (long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Maps trigrams to consecutive IDs by open addressing, without boxing the trigrams.
+     */
+    private static final class GramTable {
+
+        private long[] grams = new long[1024];
+        private int[] ids = new int[1024];
+        private int size;
+
+        /**
+         * @return the ID of the trigram, or -1 if it is unknown
+         */
+        int get(final long gram) {
+            final int mask = grams.length - 1;
+            for (int slot = slot(gram, mask); ; slot = (slot + 1) & mask) {
+                if (ids[slot] == 0) {
+                    return -1;
+                }
+                if (grams[slot] == gram) {
+                    return ids[slot] - 1;
+                }
+            }
+        }
+
+        /**
+         * Adds an unknown trigram.
+         *
+         * @return the ID of the trigram
+         */
+        int add(final long gram) {
+            if (size + 1 > grams.length >>> 1) {
+                final long[] oldGrams = grams;
+                final int[] oldIds = ids;
+                grams = new long[oldGrams.length * 2];
+                ids = new int[oldIds.length * 2];
+                for (int i = 0; i < oldGrams.length; i++) {
+                    if (oldIds[i] != 0) {
+                        insert(oldGrams[i], oldIds[i]);
+                    }
+                }
+            }
+            insert(gram, ++size);
+            return size - 1;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void insert(final long gram, final int id) {
+            final int mask = grams.length - 1;
+            int slot = slot(gram, mask);
+            while (ids[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            grams[slot] = gram;
+            ids[slot] = id;
+        }
+
+        private static int slot(final long gram, final int mask) {
+            final long h = gram * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 32) & mask;
+        }
+    }
+
+    /**
+     * Shared trigram counters of one thread, which are reset after every lookup and grow with the largest layer.
+     */
+    private static final class Scratch {
+
+        private int[] counts = new int[0];
+        private int[] touched = new int[64];
+        private int touchedCount;
+
+        void ensureCapacity(final int size) {
+            if (counts.length < size) {
+                counts = new int[Math.max(size, counts.length * 2)];
+            }
+        }
+
+        void touch(final int segment) {
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = segment;
+        }
+
+        void reset() {
+            for (int j = 0; j < touchedCount; j++) {
+                counts[touched[j]] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import eu.smesec.cysec.platform.bridge.generated.DictionaryEntry;
+import eu.smesec.cysec.platform.bridge.generated.Option;
+import eu.smesec.cysec.platform.bridge.generated.Question;
+import eu.smesec.cysec.platform.bridge.generated.Questionnaire;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Read-only view of a coach in one target language, which overlays the translations on a shared base coach.
+ * <p>
+ * Texts are resolved when they are accessed: the translation of a text unit is returned if there is one, otherwise
+ * the text of the base coach, just like a merge leaves untranslated texts in the source language. Since only the
+ * translations are held, any number of languages can be served from one base coach without copying it.
+ * <p>
+ * Questions and dictionary entries are looked up by ID in a {@link CoachIndex} of the base coach, which views of
+ * several languages can share. Instances are immutable and can be shared between threads, as long as the base coach
+ * is not modified.
+ *
+ * @author Matthias Luppi
+ * @see TranslationEngine#localize(Questionnaire, java.nio.file.Path, net.sf.okapi.common.LocaleId)
+ */
+public final class LocalizedQuestionnaire {
+
+    private final Questionnaire base;
+    private final CoachIndex index;
+    private final String language;
+    private final TranslationTable translations;
+
+    LocalizedQuestionnaire(final Questionnaire base, final CoachIndex index, final String language, final TranslationTable translations) {
+        this.base = base;
+        this.index = index;
+        this.language = language;
+        this.translations = translations;
+    }
+
+    /**
+     * @return the base coach in the source language, which must not be modified
+     */
+    public Questionnaire getBase() {
+        return base;
+    }
+
+    /**
+     * @return the target language as BCP 47 tag
+     */
+    public String getLanguage() {
+        return language;
+    }
+
+    /**
+     * @return the number of translated texts held by this view
+     */
+    public int getTranslationCount() {
+        return translations.size();
+    }
+
+    public String getReadableName() {
+        return translate(TextUnitId.attr(TextUnitId.COACH_READABLE_NAME), base.getReadableName());
+    }
+
+    public String getDescription() {
+        return translate(TextUnitId.attr(TextUnitId.COACH_DESCRIPTION), base.getDescription());
+    }
+
+    /**
+     * @param questionId the ID of a question of the base coach
+     * @return the question or {@code null} if there is no such question
+     */
+    public Question getQuestion(final String questionId) {
+        if (questionId == null) {
+            return null;
+        }
+        // every question has a text field
+        final int position = index.find(TextUnitId.attr(TextUnitId.QST_TEXT).qst(questionId));
+        return position >= 0 ? base.getQuestions().getQuestion().get(index.getQuestion(position)) : null;
+    }
+
+    public String getText(final Question question) {
+        return translate(TextUnitId.attr(TextUnitId.QST_TEXT).qst(question), question.getText());
+    }
+
+    public String getIntroduction(final Question question) {
+        return translate(TextUnitId.attr(TextUnitId.QST_INTRODUCTION).qst(question), question.getIntroduction());
+    }
+
+    public String getInfotext(final Question question) {
+        return translateNonBlank(TextUnitId.attr(TextUnitId.QST_INFOTEXT).qst(question), question.getInfotext());
+    }
+
+    public String getReadMore(final Question question) {
+        return translateNonBlank(TextUnitId.attr(TextUnitId.QST_READ_MORE).qst(question), question.getReadMore());
+    }
+
+    /**
+     * @param question a question of the base coach
+     * @return the text of the instruction or {@code null} if the question has no instruction
+     */
+    public String getInstruction(final Question question) {
+        if (question.getInstruction() == null) {
+            return null;
+        }
+        return translateNonBlank(TextUnitId.attr(TextUnitId.QST_INSTRUCTION).qst(question), question.getInstruction().getText());
+    }
+
+    public String getText(final Question question, final Option option) {
+        return translateNonBlank(TextUnitId.attr(TextUnitId.OPT_TEXT).qst(question).opt(option), option.getText());
+    }
+
+    public String getComment(final Question question, final Option option) {
+        return translateNonBlank(TextUnitId.attr(TextUnitId.OPT_COMMENT).qst(question).opt(option), option.getComment());
+    }
+
+    public String getValue(final DictionaryEntry entry) {
+        return translate(TextUnitId.attr(TextUnitId.DK_TEXT).dkey(entry.getKey()), entry.getValue());
+    }
+
+    /**
+     * @param key the key of a dictionary entry
+     * @return the translated value or the value of the base coach, {@code null} if there is no such entry
+     */
+    public String getDictionaryValue(final String key) {
+        final TextUnitId id = TextUnitId.attr(TextUnitId.DK_TEXT).dkey(key);
+        final int position = index.find(id);
+        return position >= 0 ? translate(id, index.get(base, position)) : null;
+    }
+
+    private String translate(final TextUnitId id, final String baseText) {
+        final String target = translations.get(id);
+        return target != null ? target : baseText;
+    }
+
+    /**
+     * Translates texts which are only extracted if they are not blank, see {@link TranslationEngine}
+     */
+    private String translateNonBlank(final TextUnitId id, final String baseText) {
+        return StringUtils.isNotBlank(baseText) ? translate(id, baseText) : baseText;
+    }
+
+    @Override
+    public String toString() {
+        return "LocalizedQuestionnaire{id=" + base.getId() + ", language=" + language + ", translations=" + translations.size() + "}";
+    }
+}
@@ -0,0 +1,66 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Receives the metrics of merge operations, e.g. to forward them to a monitoring system.
+ * <p>
+ * Listeners are registered with {@link TranslationEngine#addMergeListener(MergeListener)} and are called on the
+ * thread running the merge. Since the languages of a batch are merged in parallel, implementations must be
+ * thread-safe. They are only called once per phase and merge, never per text unit. An exception thrown by a listener
+ * is logged and does not affect the merge.
+ *
+ * @author Matthias Luppi
+ */
+public interface MergeListener {
+
+    /**
+     * Called when a phase of a merge operation has been completed. Only the phases a merge runs through are
+     * reported, e.g. a streaming merge has no marshal phase.
+     *
+     * @param targetLang the target language of the merge operation
+     * @param phase the completed phase
+     * @param duration the time spent in the phase
+     */
+    default void phaseCompleted(String targetLang, MergeReport.Phase phase, Duration duration) {
+    }
+
+    /**
+     * Called when a merge operation has been completed successfully, also if nothing was written, like for a loaded
+     * coach, or if the translated coach was served from a {@link BuildCache}.
+     *
+     * @param report the report of the merge operation
+     */
+    default void mergeCompleted(MergeReport report) {
+    }
+
+    /**
+     * Called when a merge operation failed.
+     *
+     * @param inputFile path of the original coach, or null if the coach was not read from a file
+     * @param targetLang the target language of the merge operation
+     * @param error the cause of the failure
+     */
+    default void mergeFailed(Path inputFile, String targetLang, Exception error) {
+    }
+}
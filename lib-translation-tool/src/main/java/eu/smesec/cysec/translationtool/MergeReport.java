@@ -0,0 +1,172 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of merging a coach with the translations of one target language.
+ *
+ * @author Matthias Luppi
+ */
+public class MergeReport {
+
+    /**
+     * Phases of a merge operation, see {@link #getDuration(Phase)}.
+     */
+    public enum Phase {
+        /** Reading the coach, including the copy for one language of a batch, for a streaming merge only up to the root element */
+        UNMARSHAL,
+        /** Reading the translations from the XLIFF file */
+        XLIFF_READ,
+        /** Applying the translations to the coach, for a streaming merge this includes reading and writing the coach */
+        APPLY,
+        /** Writing the translated coach */
+        MARSHAL
+    }
+
+    private final String targetLang;
+    private final Path outputFile;
+    private final long appliedCount;
+    private final List<TextUnitId> missingIds;
+    private final List<TextUnitId> staleIds;
+    private final List<TextUnitId> outdatedIds;
+    private final List<QualityIssue> qualityIssues;
+    private final Map<Phase, Duration> durations;
+
+    MergeReport(final String targetLang, final Path outputFile, final long appliedCount, final List<TextUnitId> missingIds,
+                final List<TextUnitId> staleIds, final List<TextUnitId> outdatedIds, final List<QualityIssue> qualityIssues,
+                final Map<Phase, Duration> durations) {
+        this.targetLang = targetLang;
+        this.outputFile = outputFile;
+        this.appliedCount = appliedCount;
+        this.missingIds = Collections.unmodifiableList(missingIds);
+        this.staleIds = Collections.unmodifiableList(staleIds);
+        this.outdatedIds = Collections.unmodifiableList(outdatedIds);
+        this.qualityIssues = Collections.unmodifiableList(qualityIssues);
+        this.durations = Collections.unmodifiableMap(new EnumMap<>(durations));
+    }
+
+    public String getTargetLang() {
+        return targetLang;
+    }
+
+    /**
+     * @return path of the translated coach, or null if the coach was translated in memory
+     */
+    public Path getOutputFile() {
+        return outputFile;
+    }
+
+    public long getAppliedCount() {
+        return appliedCount;
+    }
+
+    public long getMissingCount() {
+        return missingIds.size();
+    }
+
+    /**
+     * @return the IDs of the text units of the coach without translation, in the order of the coach
+     */
+    public List<TextUnitId> getMissingIds() {
+        return missingIds;
+    }
+
+    /**
+     * @return the number of translations in the XLIFF file which did not match any text unit of the coach
+     */
+    public long getStaleCount() {
+        return staleIds.size();
+    }
+
+    /**
+     * @return the IDs of the translations in the XLIFF file which did not match any text unit of the coach, e.g.
+     * because the question or option was removed, in no particular order
+     */
+    public List<TextUnitId> getStaleIds() {
+        return staleIds;
+    }
+
+    /**
+     * @return the number of translations in the XLIFF file which were made for a former source text of the coach
+     */
+    public long getOutdatedCount() {
+        return outdatedIds.size();
+    }
+
+    /**
+     * @return the IDs of the translations in the XLIFF file whose source text changed in the coach since the
+     * extraction, in the order of the coach; they are missing as well if the engine skips outdated translations, see
+     * {@link TranslationEngine#setSkipOutdated(boolean)}
+     */
+    public List<TextUnitId> getOutdatedIds() {
+        return outdatedIds;
+    }
+
+    /**
+     * @return the findings of the quality checks of the translations, in the order of the XLIFF file, empty if the
+     * checks are disabled, see {@link TranslationEngine#setQualityChecks(boolean)}
+     */
+    public List<QualityIssue> getQualityIssues() {
+        return qualityIssues;
+    }
+
+    /**
+     * @param phase the phase of the merge operation
+     * @return the time spent in the phase, zero if the phase was not part of the merge operation
+     */
+    public Duration getDuration(final Phase phase) {
+        return durations.getOrDefault(phase, Duration.ZERO);
+    }
+
+    /**
+     * @return the time spent in all phases
+     */
+    public Duration getTotalDuration() {
+        return durations.values().stream().reduce(Duration.ZERO, Duration::plus);
+    }
+
+    /**
+     * @return true if all translations found, false if there were missing translations
+     */
+    public boolean isComplete() {
+        return missingIds.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "MergeReport{" +
+                "targetLang='" + targetLang + '\'' +
+                ", outputFile=" + outputFile +
+                ", appliedCount=" + appliedCount +
+                ", missingCount=" + missingIds.size() +
+                ", staleCount=" + staleIds.size() +
+                ", outdatedCount=" + outdatedIds.size() +
+                ", qualityIssueCount=" + qualityIssues.size() +
+                ", durations=" + durations +
+                '}';
+    }
+}
@@ -19,32 +19,12 @@
  */
 package eu.smesec.cysec.translationtool;
 
-import eu.smesec.cysec.platform.bridge.generated.DictionaryEntry;
-import eu.smesec.cysec.platform.bridge.generated.Option;
-import eu.smesec.cysec.platform.bridge.generated.Question;
-import eu.smesec.cysec.platform.bridge.generated.Questionnaire;
-import net.sf.okapi.common.Event;
-import net.sf.okapi.common.EventType;
 import net.sf.okapi.common.LocaleId;
-import net.sf.okapi.common.filters.IFilter;
-import net.sf.okapi.common.resource.ITextUnit;
-import net.sf.okapi.common.resource.RawDocument;
-import net.sf.okapi.filters.xliff.XLIFFFilter;
-import org.apache.commons.lang3.StringUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.function.Consumer;
 
 /**
  * Merges an original coach with translations in XLIFF format.
@@ -53,14 +33,27 @@ import java.util.function.Consumer;
  */
 public class Merger {
 
-    private static final Logger log = LoggerFactory.getLogger(Merger.class);
-
+    private final TranslationEngine engine;
     private final Path inputFile;
     private final Path xlfFile;
     private final Path outputFile;
     private final LocaleId trgLocale;
 
     public Merger(final Path inputFile, final Path xlfFile, final String targetLang, final Path outputFile) {
+        this(null, inputFile, xlfFile, targetLang, outputFile);
+    }
+
+    /**
+     * Creates a merger running on the given engine.
+     *
+     * @param engine the engine to be used, or null to use {@link TranslationEngine#getDefault()}
+     * @param inputFile path of the original coach
+     * @param xlfFile path of the XLIFF file containing the translations
+     * @param targetLang the target language
+     * @param outputFile path of the translated coach to be written
+     */
+    public Merger(final TranslationEngine engine, final Path inputFile, final Path xlfFile, final String targetLang, final Path outputFile) {
+        this.engine = engine;
         this.inputFile = inputFile;
         this.xlfFile = xlfFile;
         this.trgLocale = new LocaleId(targetLang);
@@ -70,155 +63,40 @@ public class Merger {
     /**
      * Executes the merge operation.
      *
-     * @return true if all translations found, false if there were missing translations
+     * @return the report of the merge operation, see {@link MergeReport#isComplete()}
      * @throws IOException if an I/O error occurs
      * @throws JAXBException if an error occurred while handling the XML files
      */
-    public boolean merge() throws IOException, JAXBException {
-        if (inputFile == null) {
-            throw new IllegalArgumentException("Invalid input file");
-        }
-        if (xlfFile == null) {
-            throw new IllegalArgumentException("Invalid XLF file");
-        }
-        if (outputFile == null) {
-            throw new IllegalArgumentException("Invalid output file");
-        }
-        if (Files.notExists(outputFile.getParent())) {
-            Files.createDirectories(outputFile.getParent());
-        }
-
-        log.info("Base coach for translations is '{}'", inputFile);
-
-        final JAXBContext context = JAXBContext.newInstance(Questionnaire.class);
-        final Unmarshaller unmarshaller = context.createUnmarshaller();
-        final Questionnaire questionnaire = (Questionnaire) unmarshaller.unmarshal(inputFile.toFile());
-
-        // get source language from XML or use English as fallback
-        final LocaleId srcLocale;
-        if (StringUtils.isNotBlank(questionnaire.getLanguage())) {
-            srcLocale = new LocaleId(questionnaire.getLanguage());
-            log.info("Detected source language is '{}'", srcLocale.getLanguage());
-        } else {
-            srcLocale = new LocaleId("en");
-            log.info("No source language set, falling back to '{}'", srcLocale.getLanguage());
-        }
-
-        final TranslationApplier ta = new TranslationApplier(trgLocale);
-
-        // load all available translations
-        log.info("Reading translation entries from '{}'", xlfFile);
-        try (IFilter filter = new XLIFFFilter()) {
-            filter.open(new RawDocument(xlfFile.toUri(), StandardCharsets.UTF_8.name(), srcLocale, trgLocale));
-            while (filter.hasNext()) {
-                Event event = filter.next();
-                if (event.getEventType() == EventType.TEXT_UNIT) {
-                    final ITextUnit textUnit = event.getTextUnit();
-                    if (!textUnit.getTargetLocales().isEmpty()) {
-                        if (textUnit.getTargetLocales().size() > 1) {
-                            throw new IllegalArgumentException("More than one target language in XLIFF file for id=" + textUnit.getId());
-                        }
-                        final LocaleId localeId = textUnit.getTargetLocales().iterator().next();
-                        if (trgLocale != localeId) {
-                            throw new IllegalArgumentException("Requested target languages does not match translation (id=" + textUnit.getId() + ")");
-                        }
-                    } else {
-                        log.debug("Translation entry contains no target element -> {}", textUnit.getId());
-                    }
-                    ta.learn(textUnit);
-                }
-            }
-        }
-        log.info("Loaded {} translation entries", ta.memoryCount());
-
-        // update general attributes with translations
-        ta.apply(TextUnitId.attr(TextUnitId.COACH_READABLE_NAME), questionnaire::setReadableName);
-        ta.apply(TextUnitId.attr(TextUnitId.COACH_DESCRIPTION), questionnaire::setDescription);
-
-        // update content of questions with translations
-        if (questionnaire.getQuestions() != null) {
-            for (Question question : questionnaire.getQuestions().getQuestion()) {
-                ta.apply(TextUnitId.attr(TextUnitId.QST_TEXT).qst(question), question::setText);
-                ta.apply(TextUnitId.attr(TextUnitId.QST_INTRODUCTION).qst(question), question::setIntroduction);
-                if (question.getOptions() != null) {
-                    for (Option option : question.getOptions().getOption()) {
-                        if (StringUtils.isNotBlank(option.getText())) {
-                            ta.apply(TextUnitId.attr(TextUnitId.OPT_TEXT).qst(question).opt(option), option::setText);
-                        }
-                        if (StringUtils.isNotBlank(option.getComment())) {
-                            ta.apply(TextUnitId.attr(TextUnitId.OPT_COMMENT).qst(question).opt(option), option::setComment);
-                        }
-                    }
-                }
-                if (StringUtils.isNotBlank(question.getInfotext())) {
-                    ta.apply(TextUnitId.attr(TextUnitId.QST_INFOTEXT).qst(question), question::setInfotext);
-                }
-                if (StringUtils.isNotBlank(question.getReadMore())) {
-                    ta.apply(TextUnitId.attr(TextUnitId.QST_READ_MORE).qst(question), question::setReadMore);
-                }
-                if (question.getInstruction() != null && StringUtils.isNotBlank(question.getInstruction().getText())) {
-                    ta.apply(TextUnitId.attr(TextUnitId.QST_INSTRUCTION).qst(question), s -> question.getInstruction().setText(s));
-                }
-            }
-        }
-
-        // update dictionary with translations
-        if (questionnaire.getDictionary() != null) {
-            for (DictionaryEntry entry : questionnaire.getDictionary().getEntry()) {
-                ta.apply(TextUnitId.attr(TextUnitId.DK_TEXT).dkey(entry.getKey()), entry::setValue);
-            }
-        }
-
-        log.info("Applied {} translations", ta.getApplyCount());
-        log.warn("Could not find {} translations", ta.getNotFoundCount());
-
-        final Marshaller marshaller = context.createMarshaller();
-        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-        marshaller.marshal(questionnaire, outputFile.toFile());
-
-        log.info("Translated coach written to '{}'", outputFile);
-
-        return (ta.getNotFoundCount() == 0);
+    public MergeReport merge() throws IOException, JAXBException {
+        final TranslationEngine e = engine != null ? engine : TranslationEngine.getDefault();
+        return e.merge(inputFile, xlfFile, trgLocale, outputFile);
     }
 
-    private static class TranslationApplier {
-
-        private final LocaleId trgLocale;
-        private final Map<TextUnitId, ITextUnit> textUnitById = new HashMap<>();
-        private long applyCount = 0;
-        private long notFoundCount = 0;
-
-        public TranslationApplier(final LocaleId trgLocale) {
-            this.trgLocale = trgLocale;
-        }
-
-        public void learn(ITextUnit textUnit) {
-            textUnitById.put(TextUnitId.parse(textUnit.getId()), textUnit);
-        }
-
-        public void apply(TextUnitId id, Consumer<String> fieldSetter) {
-            ITextUnit textUnit = textUnitById.get(id);
-            if (textUnit != null && textUnit.getTarget(trgLocale) != null && !textUnit.getTarget(trgLocale).isEmpty()) {
-                fieldSetter.accept(textUnit.getTarget(trgLocale).toString());
-                log.info("Translation applied -> {} ", id);
-                applyCount++;
-            } else {
-                log.warn("Translation not found -> {}", id);
-                notFoundCount++;
-            }
-        }
-
-        public int memoryCount() {
-            return textUnitById.size();
-        }
-
-        public long getApplyCount() {
-            return applyCount;
-        }
-
-        public long getNotFoundCount() {
-            return notFoundCount;
-        }
+    /**
+     * Executes the merge operation by streaming the coach, which keeps its formatting and comments.
+     *
+     * @return the report of the merge operation
+     * @throws IOException if an I/O error occurs
+     * @throws JAXBException if the JAXB context of the default engine could not be created
+     * @throws XMLStreamException if an error occurred while handling the coach
+     * @see TranslationEngine#mergeStreaming(Path, Path, LocaleId, Path)
+     */
+    public MergeReport mergeStreaming() throws IOException, JAXBException, XMLStreamException {
+        final TranslationEngine e = engine != null ? engine : TranslationEngine.getDefault();
+        return e.mergeStreaming(inputFile, xlfFile, trgLocale, outputFile);
     }
 
+    /**
+     * Executes the merge operation, but writes a {@link TranslationBundle} instead of a translated coach.
+     *
+     * @param format the format of the bundle
+     * @return the report of the merge operation
+     * @throws IOException if an I/O error occurs
+     * @throws JAXBException if an error occurred while reading the coach
+     * @see TranslationEngine#mergeBundle(Path, Path, LocaleId, Path, TranslationBundle.Format)
+     */
+    public MergeReport mergeBundle(final TranslationBundle.Format format) throws IOException, JAXBException {
+        final TranslationEngine e = engine != null ? engine : TranslationEngine.getDefault();
+        return e.mergeBundle(inputFile, xlfFile, trgLocale, outputFile, format);
+    }
 }
@@ -0,0 +1,105 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of migrating the translations of a coach to a new version of the coach, see
+ * {@link TranslationEngine#migrate(Path, Path, Path, net.sf.okapi.common.LocaleId, Path)}.
+ *
+ * @author Matthias Luppi
+ */
+public class MigrationResult {
+
+    private final Path outputFile;
+    private final List<TextUnitId> carriedIds;
+    private final List<TextUnitId> movedIds;
+    private final List<TextUnitId> changedIds;
+    private final List<TextUnitId> untranslatedIds;
+    private final List<TextUnitId> removedIds;
+
+    MigrationResult(final Path outputFile, final List<TextUnitId> carriedIds, final List<TextUnitId> movedIds,
+                    final List<TextUnitId> changedIds, final List<TextUnitId> untranslatedIds, final List<TextUnitId> removedIds) {
+        this.outputFile = outputFile;
+        this.carriedIds = Collections.unmodifiableList(carriedIds);
+        this.movedIds = Collections.unmodifiableList(movedIds);
+        this.changedIds = Collections.unmodifiableList(changedIds);
+        this.untranslatedIds = Collections.unmodifiableList(untranslatedIds);
+        this.removedIds = Collections.unmodifiableList(removedIds);
+    }
+
+    /**
+     * @return path of the written XLIFF file of the new coach
+     */
+    public Path getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * @return the IDs of the text units with the same ID and source text as before, whose targets were carried over
+     */
+    public List<TextUnitId> getCarriedIds() {
+        return carriedIds;
+    }
+
+    /**
+     * @return the IDs of the text units whose source text was translated under another ID before, e.g. because the
+     * question was renamed, and whose targets were carried over
+     */
+    public List<TextUnitId> getMovedIds() {
+        return movedIds;
+    }
+
+    /**
+     * @return the IDs of the text units whose source text changed, which have the previous translation as suggestion
+     */
+    public List<TextUnitId> getChangedIds() {
+        return changedIds;
+    }
+
+    /**
+     * @return the IDs of the text units without any previous translation
+     */
+    public List<TextUnitId> getUntranslatedIds() {
+        return untranslatedIds;
+    }
+
+    /**
+     * @return the IDs of the text units of the previous coach which no longer exist, in no particular order
+     */
+    public List<TextUnitId> getRemovedIds() {
+        return removedIds;
+    }
+
+    @Override
+    public String toString() {
+        return "MigrationResult{" +
+                "outputFile=" + outputFile +
+                ", carried=" + carriedIds.size() +
+                ", moved=" + movedIds.size() +
+                ", changed=" + changedIds.size() +
+                ", untranslated=" + untranslatedIds.size() +
+                ", removed=" + removedIds.size() +
+                '}';
+    }
+}
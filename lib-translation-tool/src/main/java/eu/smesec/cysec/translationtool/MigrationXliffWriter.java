@@ -0,0 +1,119 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import net.sf.okapi.common.LocaleId;
+import net.sf.okapi.common.annotation.AltTranslationsAnnotation;
+import net.sf.okapi.common.filterwriter.XLIFFWriter;
+import net.sf.okapi.common.query.MatchType;
+import net.sf.okapi.common.resource.ITextUnit;
+import net.sf.okapi.common.resource.Property;
+import net.sf.okapi.common.resource.TextContainer;
+import net.sf.okapi.common.resource.TextFragment;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the text units of a new version of a coach with the targets of the previous version, see
+ * {@link TranslationEngine#migrate(Path, Path, Path, LocaleId, Path)}.
+ *
+ * @author Matthias Luppi
+ */
+final class MigrationXliffWriter extends XLIFFWriter {
+
+    private static final String ORIGIN = "previous-version";
+
+    private final TranslationTable oldSources;
+    private final TranslationTable oldTargets;
+    private final Map<Long, TextUnitId> oldIdBySourceHash = new HashMap<>();
+    private final LocaleId srcLocale;
+    private final LocaleId trgLocale;
+    private final List<TextUnitId> carriedIds = new ArrayList<>();
+    private final List<TextUnitId> movedIds = new ArrayList<>();
+    private final List<TextUnitId> changedIds = new ArrayList<>();
+    private final List<TextUnitId> untranslatedIds = new ArrayList<>();
+
+    MigrationXliffWriter(final TranslationTable oldSources, final TranslationTable oldTargets, final LocaleId srcLocale,
+                         final LocaleId trgLocale) {
+        this.oldSources = oldSources;
+        this.oldTargets = oldTargets;
+        this.srcLocale = srcLocale;
+        this.trgLocale = trgLocale;
+        oldTargets.forEach((id, target) -> {
+            final String oldSource = oldSources.get(id);
+            if (StringUtils.isNotBlank(oldSource)) {
+                oldIdBySourceHash.putIfAbsent(SourceHash.of(oldSource), id);
+            }
+        });
+    }
+
+    @Override
+    public void writeTextUnit(final ITextUnit textUnit) {
+        final TextUnitId id = TextUnitId.parse(textUnit.getId());
+        final String source = textUnit.getSource().toString();
+        final long hash = SourceHash.of(source);
+        // marks the ID as still existing
+        final String oldSource = oldSources.use(id);
+        final String oldTarget = oldTargets.get(id);
+
+        if (oldSource != null && oldTarget != null && SourceHash.of(oldSource) == hash) {
+            setTarget(textUnit, oldTarget, "translated");
+            carriedIds.add(id);
+        } else if (oldIdBySourceHash.containsKey(hash)) {
+            setTarget(textUnit, oldTargets.get(oldIdBySourceHash.get(hash)), "translated");
+            movedIds.add(id);
+        } else if (oldSource != null && oldTarget != null) {
+            final AltTranslationsAnnotation alt = new AltTranslationsAnnotation();
+            alt.add(srcLocale, trgLocale, textUnit.getSource().getFirstContent(), new TextFragment(oldSource),
+                    new TextFragment(oldTarget), MatchType.FUZZY_PREVIOUS_VERSION, FuzzyMatcher.score(source, oldSource), ORIGIN);
+            setTarget(textUnit, "", "needs-translation").setAnnotation(alt);
+            changedIds.add(id);
+        } else {
+            untranslatedIds.add(id);
+        }
+        super.writeTextUnit(textUnit);
+    }
+
+    private TextContainer setTarget(final ITextUnit textUnit, final String target, final String state) {
+        final TextContainer container = textUnit.setTarget(trgLocale, new TextContainer(target));
+        container.setProperty(new Property("state", state));
+        return container;
+    }
+
+    List<TextUnitId> getCarriedIds() {
+        return carriedIds;
+    }
+
+    List<TextUnitId> getMovedIds() {
+        return movedIds;
+    }
+
+    List<TextUnitId> getChangedIds() {
+        return changedIds;
+    }
+
+    List<TextUnitId> getUntranslatedIds() {
+        return untranslatedIds;
+    }
+}
@@ -0,0 +1,81 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import org.apache.commons.lang3.StringUtils;
+
+import javax.xml.bind.JAXBException;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Merges an original coach with all target languages of one multilingual XLIFF file, which is read only once.
+ * <p>
+ * The translated coaches are written to the output directory as {@code <name>-<lang>.xml}, like by the
+ * {@link BatchMerger}.
+ *
+ * @author Matthias Luppi
+ */
+public class MultilingualMerger {
+
+    private final TranslationEngine engine;
+    private final Path inputFile;
+    private final Path xlfFile;
+    private final Path outputDir;
+
+    public MultilingualMerger(final Path inputFile, final Path xlfFile, final Path outputDir) {
+        this(null, inputFile, xlfFile, outputDir);
+    }
+
+    /**
+     * Creates a multilingual merger running on the given engine.
+     *
+     * @param engine the engine to be used, or null to use {@link TranslationEngine#getDefault()}
+     * @param inputFile path of the original coach
+     * @param xlfFile path of the XLIFF file with a {@code <file>} element per target language
+     * @param outputDir directory of the translated coaches
+     */
+    public MultilingualMerger(final TranslationEngine engine, final Path inputFile, final Path xlfFile, final Path outputDir) {
+        this.engine = engine;
+        this.inputFile = inputFile;
+        this.xlfFile = xlfFile;
+        this.outputDir = outputDir;
+    }
+
+    /**
+     * Executes the merge operation for all target languages of the XLIFF file.
+     *
+     * @return the reports and failures of the merge operations by target language
+     * @throws IOException if an I/O error occurs
+     * @throws JAXBException if an error occurred while handling the XML files
+     * @see TranslationEngine#mergeMultilingual(Path, Path, java.util.function.Function)
+     */
+    public BatchMergeResult merge() throws IOException, JAXBException {
+        if (inputFile == null) {
+            throw new IllegalArgumentException("Invalid input file");
+        }
+        if (outputDir == null) {
+            throw new IllegalArgumentException("Invalid output directory");
+        }
+        final String baseName = StringUtils.substringBeforeLast(inputFile.getFileName().toString(), ".");
+        final TranslationEngine e = engine != null ? engine : TranslationEngine.getDefault();
+        return e.mergeMultilingual(inputFile, xlfFile, lang -> outputDir.resolve(baseName + "-" + lang + ".xml"));
+    }
+}
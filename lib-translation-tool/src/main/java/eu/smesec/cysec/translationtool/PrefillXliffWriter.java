@@ -0,0 +1,135 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import net.sf.okapi.common.LocaleId;
+import net.sf.okapi.common.annotation.AltTranslationsAnnotation;
+import net.sf.okapi.common.filterwriter.XLIFFWriter;
+import net.sf.okapi.common.query.MatchType;
+import net.sf.okapi.common.resource.ITextUnit;
+import net.sf.okapi.common.resource.Property;
+import net.sf.okapi.common.resource.TextContainer;
+import net.sf.okapi.common.resource.TextFragment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Prefills the targets of the text units whose source text is found in a translation memory, and adds the
+ * suggestions of a fuzzy matcher. The text units are buffered and looked up in parallel when the writer is closed.
+ *
+ * @author Matthias Luppi
+ */
+final class PrefillXliffWriter extends XLIFFWriter {
+
+    private static final String ORIGIN = "translation-memory";
+
+    private final TranslationMemory memory;
+    private final FuzzyMatcher matcher;
+    private final int maxSuggestions;
+    private final int minScore;
+    private final LocaleId srcLocale;
+    private final LocaleId trgLocale;
+    private final List<ITextUnit> textUnits = new ArrayList<>();
+    private int prefillCount = 0;
+    private int suggestionCount = 0;
+
+    PrefillXliffWriter(final TranslationMemory memory, final FuzzyMatcher matcher, final int maxSuggestions,
+                       final int minScore, final LocaleId srcLocale, final LocaleId trgLocale) {
+        this.memory = memory;
+        this.matcher = matcher;
+        this.maxSuggestions = maxSuggestions;
+        this.minScore = minScore;
+        this.srcLocale = srcLocale;
+        this.trgLocale = trgLocale;
+    }
+
+    @Override
+    public void writeTextUnit(final ITextUnit textUnit) {
+        textUnits.add(textUnit);
+    }
+
+    @Override
+    public void close() {
+        try {
+            textUnits.parallelStream().forEach(this::prefill);
+            for (ITextUnit textUnit : textUnits) {
+                final TextContainer target = textUnit.getTarget(trgLocale);
+                if (target != null) {
+                    if (!target.isEmpty()) {
+                        prefillCount++;
+                    }
+                    final AltTranslationsAnnotation alt = target.getAnnotation(AltTranslationsAnnotation.class);
+                    suggestionCount += alt.size() - (target.isEmpty() ? 0 : 1);
+                }
+                super.writeTextUnit(textUnit);
+            }
+            textUnits.clear();
+        } finally {
+            super.close();
+        }
+    }
+
+    private void prefill(final ITextUnit textUnit) {
+        final String source = textUnit.getSource().toString();
+        final List<FuzzyMatch> matches;
+        if (matcher != null) {
+            matches = matcher.find(source, maxSuggestions, minScore);
+        } else {
+            final String target = memory.get(source, trgLocale);
+            matches = target != null
+                    ? Collections.singletonList(new FuzzyMatch(source, target, 100)) : Collections.emptyList();
+        }
+        if (matches.isEmpty()) {
+            return;
+        }
+
+        final AltTranslationsAnnotation alt = new AltTranslationsAnnotation();
+        for (FuzzyMatch match : matches) {
+            // the source of a fuzzy match differs from the text unit, so it is written as well
+            final boolean exact = match.getScore() == 100;
+            alt.add(srcLocale, trgLocale, textUnit.getSource().getFirstContent(),
+                    exact ? null : new TextFragment(match.getSource()), new TextFragment(match.getTarget()),
+                    exact ? MatchType.EXACT : MatchType.FUZZY, match.getScore(), ORIGIN);
+        }
+        final FuzzyMatch best = matches.get(0);
+        final TextContainer container = textUnit.setTarget(trgLocale,
+                best.getScore() == 100 ? new TextContainer(best.getTarget()) : new TextContainer());
+        if (best.getScore() == 100) {
+            container.setProperty(new Property("state", "needs-review-translation"));
+        }
+        container.setAnnotation(alt);
+    }
+
+    /**
+     * @return the number of targets prefilled with an exact match, once the writer is closed
+     */
+    int getPrefillCount() {
+        return prefillCount;
+    }
+
+    /**
+     * @return the number of fuzzy matches suggested in addition to the prefilled targets, once the writer is closed
+     */
+    int getSuggestionCount() {
+        return suggestionCount;
+    }
+}
@@ -0,0 +1,158 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks whether the target of a text unit keeps the markup of its source: the HTML tags, which the coaches contain
+ * escaped in texts such as infotexts, the HTML entities and the placeholders. The order of tags, entities and
+ * placeholders may change in a translation, so only their occurrences are compared. The lengths of source and target
+ * must not differ by more than a factor, unless the source is short.
+ * <p>
+ * The checks are stateless and thread-safe.
+ *
+ * @author Matthias Luppi
+ */
+final class QualityChecker {
+
+    private static final Pattern TAG = Pattern.compile("<(/?)([a-zA-Z][a-zA-Z0-9]*)\\b[^<>]*?(/?)>");
+    private static final Pattern ENTITY = Pattern.compile("&(?:#[0-9]+|#[xX][0-9a-fA-F]+|[a-zA-Z][a-zA-Z0-9]*);");
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{[^{}]*}|\\{\\{[^{}]*}}|\\{[^{}\\s]*}|%(?:[0-9]+\\$)?[sdf]");
+    private static final Set<String> VOID_ELEMENTS = new HashSet<>(Arrays.asList(
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "source", "track", "wbr"));
+
+    private static final int MIN_RATIO_LENGTH = 20;
+    private static final double MIN_RATIO = 1 / 3.0;
+    private static final double MAX_RATIO = 3.0;
+
+    private QualityChecker() {
+    }
+
+    /**
+     * @param id the ID of the text unit
+     * @param source the source text
+     * @param target the target text
+     * @return the findings, empty if the target passed all checks
+     */
+    static List<QualityIssue> check(final TextUnitId id, final String source, final String target) {
+        List<QualityIssue> issues = Collections.emptyList();
+
+        // texts without any markup character are only checked for their length
+        if (source.indexOf('<') >= 0 || target.indexOf('<') >= 0) {
+            final List<String> sourceTags = tags(source);
+            final List<String> targetTags = tags(target);
+            final List<String> sortedSourceTags = sorted(sourceTags);
+            final List<String> sortedTargetTags = sorted(targetTags);
+            if (!sortedSourceTags.equals(sortedTargetTags)) {
+                issues = add(issues, new QualityIssue(id, QualityIssue.Type.TAG_MISMATCH,
+                        "source has " + sortedSourceTags + ", target has " + sortedTargetTags));
+            } else if (isNested(sourceTags) && !isNested(targetTags)) {
+                issues = add(issues, new QualityIssue(id, QualityIssue.Type.MALFORMED_TAGS, "target has " + targetTags));
+            }
+        }
+        if (source.indexOf('&') >= 0 || target.indexOf('&') >= 0) {
+            issues = compare(issues, id, QualityIssue.Type.ENTITY_MISMATCH, ENTITY, source, target);
+        }
+        if (source.indexOf('{') >= 0 || target.indexOf('{') >= 0 || source.indexOf('%') >= 0 || target.indexOf('%') >= 0) {
+            issues = compare(issues, id, QualityIssue.Type.PLACEHOLDER_MISMATCH, PLACEHOLDER, source, target);
+        }
+
+        final int sourceLength = source.trim().length();
+        final int targetLength = target.trim().length();
+        if (sourceLength >= MIN_RATIO_LENGTH) {
+            final double ratio = targetLength / (double) sourceLength;
+            if (ratio < MIN_RATIO || ratio > MAX_RATIO) {
+                issues = add(issues, new QualityIssue(id, QualityIssue.Type.LENGTH_RATIO,
+                        String.format(Locale.ROOT, "target has %.2f times the length of source", ratio)));
+            }
+        }
+        return issues;
+    }
+
+    private static List<QualityIssue> compare(final List<QualityIssue> issues, final TextUnitId id, final QualityIssue.Type type,
+                                              final Pattern pattern, final String source, final String target) {
+        final List<String> sourceMatches = sorted(matches(pattern, source));
+        final List<String> targetMatches = sorted(matches(pattern, target));
+        if (sourceMatches.equals(targetMatches)) {
+            return issues;
+        }
+        return add(issues, new QualityIssue(id, type, "source has " + sourceMatches + ", target has " + targetMatches));
+    }
+
+    /**
+     * @return the tags as lower-case name, prefixed by {@code /} for closing tags, without void and self-closing tags
+     */
+    private static List<String> tags(final String text) {
+        final List<String> tags = new ArrayList<>();
+        final Matcher matcher = TAG.matcher(text);
+        while (matcher.find()) {
+            final String name = matcher.group(2).toLowerCase(Locale.ROOT);
+            if (!matcher.group(3).isEmpty() || VOID_ELEMENTS.contains(name)) {
+                continue;
+            }
+            tags.add(matcher.group(1) + name);
+        }
+        return tags;
+    }
+
+    private static boolean isNested(final List<String> tags) {
+        final List<String> open = new ArrayList<>();
+        for (String tag : tags) {
+            if (tag.startsWith("/")) {
+                if (open.isEmpty() || !open.remove(open.size() - 1).equals(tag.substring(1))) {
+                    return false;
+                }
+            } else {
+                open.add(tag);
+            }
+        }
+        return open.isEmpty();
+    }
+
+    private static List<String> matches(final Pattern pattern, final String text) {
+        final List<String> matches = new ArrayList<>();
+        final Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            matches.add(matcher.group());
+        }
+        return matches;
+    }
+
+    private static List<String> sorted(final List<String> list) {
+        final List<String> sorted = new ArrayList<>(list);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private static List<QualityIssue> add(final List<QualityIssue> issues, final QualityIssue issue) {
+        final List<QualityIssue> result = issues.isEmpty() ? new ArrayList<>(2) : issues;
+        result.add(issue);
+        return result;
+    }
+}
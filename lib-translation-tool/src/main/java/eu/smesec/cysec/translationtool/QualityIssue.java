@@ -0,0 +1,74 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+/**
+ * Finding of the quality checks of a translation, see {@link MergeReport#getQualityIssues()}.
+ *
+ * @author Matthias Luppi
+ */
+public final class QualityIssue {
+
+    /**
+     * Kinds of findings
+     */
+    public enum Type {
+        /** The target does not contain the same HTML tags as the source */
+        TAG_MISMATCH,
+        /** The HTML tags of the target are not properly nested, while the ones of the source are */
+        MALFORMED_TAGS,
+        /** The target does not contain the same HTML entities as the source */
+        ENTITY_MISMATCH,
+        /** The target does not contain the same placeholders as the source */
+        PLACEHOLDER_MISMATCH,
+        /** The target is much shorter or longer than the source */
+        LENGTH_RATIO
+    }
+
+    private final TextUnitId id;
+    private final Type type;
+    private final String message;
+
+    QualityIssue(final TextUnitId id, final Type type, final String message) {
+        this.id = id;
+        this.type = type;
+        this.message = message;
+    }
+
+    public TextUnitId getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return a description of the finding, e.g. the tags which differ
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return id + ": " + type + " (" + message + ")";
+    }
+}
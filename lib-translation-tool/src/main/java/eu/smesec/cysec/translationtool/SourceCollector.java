@@ -0,0 +1,45 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import net.sf.okapi.common.filterwriter.XLIFFWriter;
+import net.sf.okapi.common.resource.ITextUnit;
+
+/**
+ * Collects the source texts of the text units of a coach by ID, without writing anything.
+ *
+ * @author Matthias Luppi
+ */
+final class SourceCollector extends XLIFFWriter {
+
+    private final TranslationTable sources = new TranslationTable();
+
+    @Override
+    public void writeTextUnit(final ITextUnit textUnit) {
+        sources.put(TextUnitId.parse(textUnit.getId()), textUnit.getSource().toString());
+    }
+
+    /**
+     * @return the source texts by ID
+     */
+    TranslationTable getSources() {
+        return sources;
+    }
+}
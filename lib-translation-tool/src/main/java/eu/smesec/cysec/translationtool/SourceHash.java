@@ -0,0 +1,179 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import net.sf.okapi.common.annotation.Note;
+import net.sf.okapi.common.annotation.NoteAnnotation;
+import net.sf.okapi.common.resource.ITextUnit;
+import net.sf.okapi.common.resource.TextUnit;
+
+/**
+ * 64-bit FNV-1a hash of the source text of a text unit, used to detect changed sources between extractions.
+ *
+ * @author Matthias Luppi
+ */
+final class SourceHash {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    /**
+     * Value of the {@code from} attribute of the XLIFF note holding the hash of the source text.
+     */
+    static final String NOTE_FROM = "source-hash";
+
+    private SourceHash() {
+    }
+
+    /**
+     * Hashes the UTF-16 code units of a text, a {@code null} text has the same hash as the empty text.
+     * <p>
+     * Leading and trailing whitespace is ignored and every other run of whitespace counts as a single space. The XLIFF
+     * filter reads sources the same way, so a coach and the XLIFF extracted from it have the same hashes.
+     *
+     * @param text the source text
+     * @return the hash of the text
+     */
+    static long of(final String text) {
+        long hash = OFFSET_BASIS;
+        if (text == null) {
+            return hash;
+        }
+        boolean started = false;
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (isWhitespace(c)) {
+                space = started;
+                continue;
+            }
+            if (space) {
+                hash = add(hash, ' ');
+                space = false;
+            }
+            hash = add(hash, c);
+            started = true;
+        }
+        return hash;
+    }
+
+    /**
+     * Normalizes the whitespace of a text the same way as {@link #of(String)}, a {@code null} text becomes empty.
+     *
+     * @param text the source text
+     * @return the text without leading and trailing whitespace and with single spaces
+     */
+    static String normalize(final String text) {
+        if (text == null) {
+            return "";
+        }
+        final StringBuilder sb = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (isWhitespace(c)) {
+                space = sb.length() > 0;
+                continue;
+            }
+            if (space) {
+                sb.append(' ');
+                space = false;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private static long add(long hash, final char c) {
+        hash ^= c & 0xff;
+        hash *= PRIME;
+        hash ^= c >>> 8;
+        hash *= PRIME;
+        return hash;
+    }
+
+    static String toHex(final long hash) {
+        final String hex = Long.toHexString(hash);
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    static long fromHex(final String hex) {
+        return Long.parseUnsignedLong(hex, 16);
+    }
+
+    /**
+     * Creates a text unit to be extracted, with the hash of its source text as
+     * {@code <note from="source-hash" annotates="source">}. The note tells a merge whether the text of the coach
+     * changed since the extraction, without comparing the texts.
+     *
+     * @param id the ID of the text unit
+     * @param text the source text
+     * @return the text unit
+     */
+    static TextUnit textUnit(final String id, final String text) {
+        final TextUnit textUnit = new TextUnit(id, text);
+        final Note note = new Note(toHex(of(text)));
+        note.setFrom(NOTE_FROM);
+        note.setAnnotates(Note.Annotates.SOURCE);
+        final NoteAnnotation notes = new NoteAnnotation();
+        notes.add(note);
+        textUnit.setAnnotation(notes);
+        return textUnit;
+    }
+
+    /**
+     * Reads the hash note of a text unit read from XLIFF, see {@link #textUnit(String, String)}.
+     *
+     * @param textUnit the text unit read by the XLIFF filter
+     * @return the hash of the source text at the time of the extraction, or null if the text unit has no valid note
+     */
+    static Long fromNote(final ITextUnit textUnit) {
+        final String hex = findNote(textUnit);
+        return hex != null ? fromHex(hex) : null;
+    }
+
+    private static String findNote(final ITextUnit textUnit) {
+        // the XLIFF filter attaches notes annotating the source to the source container
+        final NoteAnnotation notes = textUnit.getSource().getAnnotation(NoteAnnotation.class);
+        if (notes == null) {
+            return null;
+        }
+        for (Note note : notes) {
+            final String hex = note.getNoteText() != null ? note.getNoteText().trim() : "";
+            if (NOTE_FROM.equals(note.getFrom()) && hex.length() == 16 && isHex(hex)) {
+                return hex;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isHex(final String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.digit(text.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,248 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import net.sf.okapi.common.LocaleId;
+import net.sf.okapi.common.filterwriter.XLIFFWriter;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extracts translatable content from a coach to XLIFF by reading the coach with StAX.
+ * <p>
+ * Only the content of the current question is kept in memory. The text units are written in the
+ * same order and with the same IDs as by {@link TranslationEngine#extract(Path, Path)}.
+ *
+ * @author Matthias Luppi
+ */
+class StreamingExtractor {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingExtractor.class);
+
+    private final Path inputFile;
+    private final Path outputFile;
+
+    StreamingExtractor(final Path inputFile, final Path outputFile) {
+        this.inputFile = inputFile;
+        this.outputFile = outputFile;
+    }
+
+    void extract() throws IOException, XMLStreamException {
+        try (InputStream in = Files.newInputStream(inputFile)) {
+            final XMLStreamReader reader = createInputFactory().createXMLStreamReader(inputFile.toUri().toString(), in);
+            try {
+                reader.nextTag();
+                extractQuestionnaire(reader);
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Creates a factory for coalescing readers which do not resolve DTDs or external entities.
+     *
+     * @return the configured factory
+     */
+    static XMLInputFactory createInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Skips the current element including all its children.
+     *
+     * @param reader reader positioned on a start element, positioned on the matching end element afterwards
+     * @throws XMLStreamException if the XML could not be read
+     */
+    static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private void extractQuestionnaire(final XMLStreamReader reader) throws IOException, XMLStreamException {
+        final LocaleId srcLocale = TranslationEngine.detectSourceLocale(reader.getAttributeValue(null, "language"));
+        final String readableName = reader.getAttributeValue(null, "readableName");
+
+        try (XLIFFWriter writer = TranslationEngine.createXliffWriter(inputFile, outputFile, srcLocale)) {
+            log.info("Starting streaming extraction of translatable content from '{}'", inputFile);
+
+            writer.writeTextUnit(SourceHash.textUnit(TextUnitId.attr(TextUnitId.COACH_READABLE_NAME).toString(), readableName));
+            boolean descriptionWritten = false;
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                final String name = reader.getLocalName();
+                if ("description".equals(name)) {
+                    writer.writeTextUnit(SourceHash.textUnit(TextUnitId.attr(TextUnitId.COACH_DESCRIPTION).toString(), reader.getElementText()));
+                    descriptionWritten = true;
+                } else if ("questions".equals(name) || "dictionary".equals(name)) {
+                    if (!descriptionWritten) {
+                        writer.writeTextUnit(SourceHash.textUnit(TextUnitId.attr(TextUnitId.COACH_DESCRIPTION).toString(), null));
+                        descriptionWritten = true;
+                    }
+                    if ("questions".equals(name)) {
+                        extractQuestions(reader, writer);
+                    } else {
+                        extractDictionary(reader, writer);
+                    }
+                } else {
+                    skipElement(reader);
+                }
+            }
+            if (!descriptionWritten) {
+                writer.writeTextUnit(SourceHash.textUnit(TextUnitId.attr(TextUnitId.COACH_DESCRIPTION).toString(), null));
+            }
+
+            log.info("Translatable content extracted to '{}'", outputFile);
+        }
+    }
+
+    private void extractQuestions(final XMLStreamReader reader, final XLIFFWriter writer) throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if ("question".equals(reader.getLocalName())) {
+                extractQuestion(reader, writer);
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private void extractQuestion(final XMLStreamReader reader, final XLIFFWriter writer) throws XMLStreamException {
+        final String questionId = reader.getAttributeValue(null, "id");
+        String text = null;
+        String introduction = null;
+        String readMore = null;
+        String infotext = null;
+        String instruction = null;
+        final List<String[]> options = new ArrayList<>();
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "text":
+                    text = reader.getElementText();
+                    break;
+                case "introduction":
+                    introduction = reader.getElementText();
+                    break;
+                case "readMore":
+                    readMore = reader.getElementText();
+                    break;
+                case "infotext":
+                    infotext = reader.getElementText();
+                    break;
+                case "instruction":
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        if ("text".equals(reader.getLocalName())) {
+                            instruction = reader.getElementText();
+                        } else {
+                            skipElement(reader);
+                        }
+                    }
+                    break;
+                case "options":
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        if ("option".equals(reader.getLocalName())) {
+                            options.add(readOption(reader));
+                        } else {
+                            skipElement(reader);
+                        }
+                    }
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+
+        writer.writeTextUnit(SourceHash.textUnit(TextUnitId.attr(TextUnitId.QST_TEXT).qst(questionId).toString(), text));
+        if (StringUtils.isNotBlank(introduction)) {
+            writer.writeTextUnit(SourceHash.textUnit(TextUnitId.attr(TextUnitId.QST_INTRODUCTION).qst(questionId).toString(), introduction));
+        }
+        for (String[] option : options) {
+            if (StringUtils.isNotBlank(option[1])) {
+                writer.writeTextUnit(SourceHash.textUnit(TextUnitId.attr(TextUnitId.OPT_TEXT).qst(questionId).opt(option[0]).toString(), option[1]));
+            }
+            if (StringUtils.isNotBlank(option[2])) {
+                writer.writeTextUnit(SourceHash.textUnit(TextUnitId.attr(TextUnitId.OPT_COMMENT).qst(questionId).opt(option[0]).toString(), option[2]));
+            }
+        }
+        if (StringUtils.isNotBlank(infotext)) {
+            writer.writeTextUnit(SourceHash.textUnit(TextUnitId.attr(TextUnitId.QST_INFOTEXT).qst(questionId).toString(), infotext));
+        }
+        if (StringUtils.isNotBlank(readMore)) {
+            writer.writeTextUnit(SourceHash.textUnit(TextUnitId.attr(TextUnitId.QST_READ_MORE).qst(questionId).toString(), readMore));
+        }
+        if (StringUtils.isNotBlank(instruction)) {
+            writer.writeTextUnit(SourceHash.textUnit(TextUnitId.attr(TextUnitId.QST_INSTRUCTION).qst(questionId).toString(), instruction));
+        }
+    }
+
+    /**
+     * Reads an option element.
+     *
+     * @param reader reader positioned on the start of an option
+     * @return the option-id, the text and the comment of the option
+     * @throws XMLStreamException if the XML could not be read
+     */
+    private String[] readOption(final XMLStreamReader reader) throws XMLStreamException {
+        final String[] option = new String[]{reader.getAttributeValue(null, "id"), null, null};
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if ("text".equals(reader.getLocalName())) {
+                option[1] = reader.getElementText();
+            } else if ("comment".equals(reader.getLocalName())) {
+                option[2] = reader.getElementText();
+            } else {
+                skipElement(reader);
+            }
+        }
+        return option;
+    }
+
+    private void extractDictionary(final XMLStreamReader reader, final XLIFFWriter writer) throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if ("entry".equals(reader.getLocalName())) {
+                final String key = reader.getAttributeValue(null, "key");
+                writer.writeTextUnit(SourceHash.textUnit(TextUnitId.attr(TextUnitId.DK_TEXT).dkey(key).toString(), reader.getElementText()));
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+}
@@ -0,0 +1,436 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import net.sf.okapi.common.LocaleId;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartDocument;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Merges a coach with translations by passing the coach XML through as StAX events.
+ * <p>
+ * The coach is copied character by character, in its declared encoding. Only the text of the translatable
+ * elements and the {@code readableName} attribute are replaced, so the prolog, the tags, comments, whitespace and
+ * the escaping of untranslated text stay as they are. The positions of the replacements are taken from the
+ * character offsets of the events, which the StAX implementation must report (Woodstox, which comes with Okapi,
+ * does). Elements which are missing in the coach are not created; they are counted as missing translations.
+ *
+ * @author Matthias Luppi
+ */
+class StreamingMerger {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingMerger.class);
+
+    private final Path inputFile;
+    private final Path outputFile;
+    private final char[] buffer = new char[8192];
+    private BufferedReader source;
+    private Writer out;
+    // characters of the coach copied or skipped so far, without a byte order mark
+    private long position;
+
+    StreamingMerger(final Path inputFile, final Path outputFile) {
+        this.inputFile = inputFile;
+        this.outputFile = outputFile;
+    }
+
+    /**
+     * Executes the merge operation.
+     *
+     * @param translationsFor provides the translations for the source language declared by the coach
+     * @return the applier containing the statistics of the merge
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if an error occurred while handling the coach
+     */
+    TranslationApplier merge(final Function<LocaleId, TranslationApplier> translationsFor) throws IOException, XMLStreamException {
+        try (InputStream in = Files.newInputStream(inputFile)) {
+            final XMLEventReader reader = StreamingExtractor.createInputFactory().createXMLEventReader(inputFile.toUri().toString(), in);
+            try {
+                final StartDocument document = (StartDocument) reader.nextEvent();
+                final Charset charset = document.encodingSet()
+                        ? Charset.forName(document.getCharacterEncodingScheme()) : StandardCharsets.UTF_8;
+                try (BufferedReader sourceReader = Files.newBufferedReader(inputFile, charset);
+                     Writer bufferedOut = Files.newBufferedWriter(outputFile, charset)) {
+                    source = sourceReader;
+                    out = bufferedOut;
+                    position = 0;
+                    // the offsets of the reader do not count a byte order mark
+                    source.mark(1);
+                    if (source.read() == '\uFEFF') {
+                        out.write('\uFEFF');
+                    } else {
+                        source.reset();
+                    }
+
+                    while (reader.hasNext() && !reader.peek().isStartElement()) {
+                        reader.nextEvent();
+                    }
+                    if (!reader.hasNext()) {
+                        throw new XMLStreamException("Missing root element in '" + inputFile + "'");
+                    }
+
+                    // get source language from XML or use English as fallback
+                    final StartElement root = reader.peek().asStartElement();
+                    final Attribute language = root.getAttributeByName(new QName("language"));
+                    final LocaleId srcLocale = new LocaleId(language != null && StringUtils.isNotBlank(language.getValue()) ? language.getValue() : "en");
+                    final TranslationApplier ta = translationsFor.apply(srcLocale);
+
+                    new Pass(reader, ta).run();
+                    transfer(Long.MAX_VALUE, true);
+                    return ta;
+                }
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Copies or skips the coach up to an offset, or up to its end for {@link Long#MAX_VALUE}.
+     */
+    private void transfer(final long offset, final boolean copy) throws IOException {
+        while (position < offset) {
+            final int n = source.read(buffer, 0, (int) Math.min(buffer.length, offset - position));
+            if (n < 0) {
+                if (offset != Long.MAX_VALUE) {
+                    throw new EOFException("Unexpected end of '" + inputFile + "'");
+                }
+                return;
+            }
+            if (copy) {
+                out.write(buffer, 0, n);
+            }
+            position += n;
+        }
+    }
+
+    /**
+     * Reads the tag starting at the current position of the coach.
+     */
+    private String readTag() throws IOException {
+        final StringBuilder tag = new StringBuilder();
+        char quote = 0;
+        while (true) {
+            final int c = source.read();
+            if (c < 0) {
+                throw new EOFException("Unexpected end of '" + inputFile + "'");
+            }
+            position++;
+            tag.append((char) c);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = (char) c;
+            } else if (c == '>') {
+                return tag.toString();
+            }
+        }
+    }
+
+    /**
+     * @return the offset of an event in the coach
+     */
+    private static long offset(final XMLEvent event) throws XMLStreamException {
+        final int offset = event.getLocation().getCharacterOffset();
+        if (offset < 0) {
+            throw new XMLStreamException("Missing character offset of the XML reader", event.getLocation());
+        }
+        return offset;
+    }
+
+    /**
+     * Replaces the value of an attribute without namespace in a start tag, or adds the attribute.
+     *
+     * @param tag the start tag
+     * @param name the local name of the attribute
+     * @param value the new value of the attribute
+     * @return the start tag with the new value
+     */
+    static String replaceAttribute(final String tag, final String name, final String value) {
+        final int end = tag.length() - (tag.endsWith("/>") ? 2 : 1);
+        int i = 1;
+        while (i < end && !Character.isWhitespace(tag.charAt(i))) {
+            i++;
+        }
+        while (true) {
+            while (i < end && Character.isWhitespace(tag.charAt(i))) {
+                i++;
+            }
+            if (i >= end) {
+                break;
+            }
+            final int nameStart = i;
+            while (tag.charAt(i) != '=' && !Character.isWhitespace(tag.charAt(i))) {
+                i++;
+            }
+            final String attribute = tag.substring(nameStart, i);
+            i = tag.indexOf('=', i) + 1;
+            while (Character.isWhitespace(tag.charAt(i))) {
+                i++;
+            }
+            final char quote = tag.charAt(i);
+            final int valueEnd = tag.indexOf(quote, i + 1);
+            if (attribute.equals(name)) {
+                return tag.substring(0, i + 1) + escape(value, quote) + tag.substring(valueEnd);
+            }
+            i = valueEnd + 1;
+        }
+        int insert = end;
+        while (Character.isWhitespace(tag.charAt(insert - 1))) {
+            insert--;
+        }
+        return tag.substring(0, insert) + ' ' + name + "=\"" + escape(value, '"') + '"' + tag.substring(insert);
+    }
+
+    /**
+     * Escapes text content, or an attribute value if a quote is given. The character {@code >} is escaped too, as
+     * in coaches written by JAXB.
+     *
+     * @param text the text to escape
+     * @param quote the quote of the attribute value, or 0 for text content
+     * @return the escaped text
+     */
+    static String escape(final String text, final char quote) {
+        final StringBuilder escaped = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    escaped.append("&amp;");
+                    break;
+                case '<':
+                    escaped.append("&lt;");
+                    break;
+                case '>':
+                    escaped.append("&gt;");
+                    break;
+                case '"':
+                    escaped.append(quote == '"' ? "&quot;" : "\"");
+                    break;
+                case '\'':
+                    escaped.append(quote == '\'' ? "&apos;" : "'");
+                    break;
+                case '\t':
+                case '\n':
+                case '\r':
+                    // attribute values would be normalized to spaces
+                    if (quote != 0) {
+                        escaped.append("&#").append((int) c).append(';');
+                    } else {
+                        escaped.append(c);
+                    }
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * A single pass over the elements of a coach, keeping track of the current question and option.
+     */
+    private class Pass {
+
+        private final XMLEventReader reader;
+        private final TranslationApplier ta;
+        private final Deque<String> path = new ArrayDeque<>();
+        private final List<String> seenQuestionFields = new ArrayList<>();
+        private String questionId;
+        private String optionId;
+        private boolean descriptionSeen;
+
+        Pass(final XMLEventReader reader, final TranslationApplier ta) {
+            this.reader = reader;
+            this.ta = ta;
+        }
+
+        void run() throws IOException, XMLStreamException {
+            // everything else is copied from the coach on the next replacement
+            while (reader.hasNext()) {
+                final XMLEvent event = reader.nextEvent();
+                if (event.isStartElement()) {
+                    startElement(event.asStartElement());
+                } else if (event.isEndElement()) {
+                    endElement();
+                }
+            }
+        }
+
+        private void startElement(final StartElement element) throws IOException, XMLStreamException {
+            final String name = element.getName().getLocalPart();
+            final String parent = path.peek();
+            final int depth = path.size();
+
+            if (depth == 0) {
+                final String[] translation = new String[1];
+                ta.apply(TextUnitId.attr(TextUnitId.COACH_READABLE_NAME), attribute(element, "readableName"), s -> translation[0] = s);
+                pushElement(element, name, "readableName", translation[0]);
+            } else if (depth == 1 && "description".equals(name)) {
+                descriptionSeen = true;
+                replaceText(element, TextUnitId.attr(TextUnitId.COACH_DESCRIPTION), false);
+            } else if ("question".equals(name) && "questions".equals(parent) && depth == 2) {
+                questionId = attribute(element, "id");
+                seenQuestionFields.clear();
+                pushElement(element, name, null, null);
+            } else if ("question".equals(parent) && questionId != null) {
+                seenQuestionFields.add(name);
+                switch (name) {
+                    case "text":
+                        replaceText(element, TextUnitId.attr(TextUnitId.QST_TEXT).qst(questionId), false);
+                        break;
+                    case "introduction":
+                        replaceText(element, TextUnitId.attr(TextUnitId.QST_INTRODUCTION).qst(questionId), false);
+                        break;
+                    case "infotext":
+                        replaceText(element, TextUnitId.attr(TextUnitId.QST_INFOTEXT).qst(questionId), true);
+                        break;
+                    case "readMore":
+                        replaceText(element, TextUnitId.attr(TextUnitId.QST_READ_MORE).qst(questionId), true);
+                        break;
+                    default:
+                        pushElement(element, name, null, null);
+                }
+            } else if ("text".equals(name) && "instruction".equals(parent) && questionId != null && depth == 4) {
+                replaceText(element, TextUnitId.attr(TextUnitId.QST_INSTRUCTION).qst(questionId), true);
+            } else if ("option".equals(name) && "options".equals(parent) && questionId != null) {
+                optionId = attribute(element, "id");
+                pushElement(element, name, null, null);
+            } else if ("option".equals(parent) && optionId != null && ("text".equals(name) || "comment".equals(name))) {
+                final String attr = "text".equals(name) ? TextUnitId.OPT_TEXT : TextUnitId.OPT_COMMENT;
+                replaceText(element, TextUnitId.attr(attr).qst(questionId).opt(optionId), true);
+            } else if ("entry".equals(name) && "dictionary".equals(parent) && depth == 2) {
+                replaceText(element, TextUnitId.attr(TextUnitId.DK_TEXT).dkey(attribute(element, "key")), false);
+            } else {
+                pushElement(element, name, null, null);
+            }
+        }
+
+        private void endElement() {
+            final String name = path.pop();
+            if ("question".equals(name) && questionId != null && path.size() == 2) {
+                // text and introduction are translated even if empty, but missing elements cannot be translated
+                if (!seenQuestionFields.contains("text")) {
+                    ta.missing(TextUnitId.attr(TextUnitId.QST_TEXT).qst(questionId));
+                }
+                if (!seenQuestionFields.contains("introduction")) {
+                    ta.missing(TextUnitId.attr(TextUnitId.QST_INTRODUCTION).qst(questionId));
+                }
+                questionId = null;
+            } else if ("option".equals(name)) {
+                optionId = null;
+            } else if (path.isEmpty() && !descriptionSeen) {
+                ta.missing(TextUnitId.attr(TextUnitId.COACH_DESCRIPTION));
+            }
+        }
+
+        private void pushElement(final StartElement element, final String name, final String replacedAttribute,
+                                 final String replacement) throws IOException, XMLStreamException {
+            if (replacement != null) {
+                transfer(offset(element), true);
+                out.write(replaceAttribute(readTag(), replacedAttribute, replacement));
+            }
+            path.push(name);
+        }
+
+        /**
+         * Replaces the text content of a translatable element if a translation is available.
+         *
+         * @param element the start of the translatable element
+         * @param id the ID of the text unit
+         * @param skipBlank true if blank elements are not translated at all
+         */
+        private void replaceText(final StartElement element, final TextUnitId id, final boolean skipBlank) throws IOException, XMLStreamException {
+            // collect the content of the element, which normally consists of a single text event
+            final StringBuilder text = new StringBuilder();
+            boolean simple = true;
+            int depth = 0;
+            XMLEvent end;
+            while (true) {
+                end = reader.nextEvent();
+                if (end.isEndElement() && depth == 0) {
+                    break;
+                }
+                if (end.isStartElement()) {
+                    depth++;
+                    simple = false;
+                } else if (end.isEndElement()) {
+                    depth--;
+                } else if (end.isCharacters()) {
+                    text.append(end.asCharacters().getData());
+                }
+            }
+
+            String translation = null;
+            if (simple && !(skipBlank && StringUtils.isBlank(text))) {
+                final String[] result = new String[1];
+                ta.apply(id, text.toString(), s -> result[0] = s);
+                translation = result[0];
+            }
+
+            if (translation != null) {
+                transfer(offset(element), true);
+                final String tag = readTag();
+                if (tag.endsWith("/>")) {
+                    final QName name = element.getName();
+                    out.write(tag, 0, tag.length() - 2);
+                    out.write('>');
+                    out.write(escape(translation, (char) 0));
+                    out.write("</" + (name.getPrefix().isEmpty() ? "" : name.getPrefix() + ':') + name.getLocalPart() + '>');
+                } else {
+                    out.write(tag);
+                    out.write(escape(translation, (char) 0));
+                    // the end tag is copied with the rest of the coach
+                    transfer(offset(end), false);
+                }
+            }
+        }
+
+        private String attribute(final StartElement element, final String name) {
+            final Attribute attribute = element.getAttributeByName(new QName(name));
+            return attribute != null ? attribute.getValue() : null;
+        }
+    }
+}
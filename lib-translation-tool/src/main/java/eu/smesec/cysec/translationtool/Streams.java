@@ -0,0 +1,66 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Wrappers for streams of the caller, which Okapi and JAXB must not close.
+ *
+ * @author Matthias Luppi
+ */
+final class Streams {
+
+    private Streams() {
+    }
+
+    /**
+     * @return a stream which ignores {@link InputStream#close()}
+     */
+    static InputStream nonClosing(final InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public void close() {
+                // the stream is closed by its owner
+            }
+        };
+    }
+
+    /**
+     * @return a stream which only flushes on {@link OutputStream#close()}
+     */
+    static OutputStream nonClosing(final OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.flush();
+            }
+        };
+    }
+}
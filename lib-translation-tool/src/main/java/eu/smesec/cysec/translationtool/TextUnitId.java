@@ -26,11 +26,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Model for a distinctive ID for translatable content in coaches
+ * <p>
+ * Instances are immutable: the methods setting a property return a new {@link TextUnitId}. The hash code
+ * is computed on construction and the attribute names of the coach model are interned to the constants
+ * of this class, so IDs can be used as keys of hash tables without further allocations.
  *
  * @author Matthias Luppi
  */
@@ -49,18 +51,28 @@ public class TextUnitId {
     public static final String OPT_COMMENT = "comment";
     public static final String DK_TEXT = "text";
 
-    /**
-     * Pattern to parse an ID to question-id, option-id, dictionary-key and attribute
-     */
-    private static final Pattern idPattern = Pattern.compile("^(?:QST:(?<qid>.*?)\\|\\|(?:OPT:(?<oid>.*?)\\|\\|)?)?(?:DK:(?<dkey>.*?)\\|\\|)?(?<attr>.*)$");
+    private static final String QST_PREFIX = "QST:";
+    private static final String OPT_PREFIX = "OPT:";
+    private static final String DK_PREFIX = "DK:";
+    private static final String SEPARATOR = "||";
 
     private final String attribute;
-    private String questionId;
-    private String optionId;
-    private String dictionaryKey;
+    private final String questionId;
+    private final String optionId;
+    private final String dictionaryKey;
+    private final int hash;
+    private String id;
 
-    private TextUnitId(String attribute) {
+    private TextUnitId(String attribute, String questionId, String optionId, String dictionaryKey) {
         this.attribute = attribute;
+        this.questionId = questionId;
+        this.optionId = optionId;
+        this.dictionaryKey = dictionaryKey;
+        int result = attribute.hashCode();
+        result = 31 * result + (questionId != null ? questionId.hashCode() : 0);
+        result = 31 * result + (optionId != null ? optionId.hashCode() : 0);
+        result = 31 * result + (dictionaryKey != null ? dictionaryKey.hashCode() : 0);
+        this.hash = result;
     }
 
     /**
@@ -70,7 +82,7 @@ public class TextUnitId {
      * @return the {@link TextUnitId} with the attribute-name set
      */
     public static TextUnitId attr(String attribute) {
-        return new TextUnitId(attribute);
+        return new TextUnitId(intern(attribute), null, null, null);
     }
 
     /**
@@ -80,8 +92,7 @@ public class TextUnitId {
      * @return the {@link TextUnitId} with the question-id set
      */
     public TextUnitId qst(Question question) {
-        this.questionId = question.getId();
-        return this;
+        return qst(question.getId());
     }
 
     /**
@@ -91,8 +102,7 @@ public class TextUnitId {
      * @return the {@link TextUnitId} with the question-id set
      */
     public TextUnitId qst(String questionId) {
-        this.questionId = questionId;
-        return this;
+        return new TextUnitId(attribute, questionId, optionId, dictionaryKey);
     }
 
     /**
@@ -102,8 +112,7 @@ public class TextUnitId {
      * @return the {@link TextUnitId} with the option-id set
      */
     public TextUnitId opt(Option option) {
-        this.optionId = option.getId();
-        return this;
+        return opt(option.getId());
     }
 
     /**
@@ -113,8 +122,7 @@ public class TextUnitId {
      * @return the {@link TextUnitId} with the option-id set
      */
     public TextUnitId opt(String optionId) {
-        this.optionId = optionId;
-        return this;
+        return new TextUnitId(attribute, questionId, optionId, dictionaryKey);
     }
 
     /**
@@ -124,8 +132,7 @@ public class TextUnitId {
      * @return the {@link TextUnitId} with the dictionary-key set
      */
     public TextUnitId opt(DictionaryEntry entry) {
-        this.optionId = entry.getKey();
-        return this;
+        return opt(entry.getKey());
     }
 
     /**
@@ -135,31 +142,77 @@ public class TextUnitId {
      * @return the {@link TextUnitId} with the dictionary-key set
      */
     public TextUnitId dkey(String dictionaryKey) {
-        this.dictionaryKey = dictionaryKey;
-        return this;
+        return new TextUnitId(attribute, questionId, optionId, dictionaryKey);
     }
 
     /**
      * Parses an ID according to the set properties
+     * <p>
+     * The grammar is {@code [QST:<qid>||[OPT:<oid>||]][DK:<dkey>||]<attr>}, where every ID and key ends at
+     * the first following {@code ||}.
      *
      * @param input an ID used as 'trans-id' in an XLIFF file
      * @return a {@link TextUnitId} with attributes according to the input
      */
     public static TextUnitId parse(String input) {
-        final Matcher m = idPattern.matcher(input);
-        if (!m.matches()) {
-            log.error("Could not parse '{}'", input);
-            throw new IllegalArgumentException("Could not parse '" + input + "'");
+        for (int i = 0; i < input.length(); i++) {
+            final char c = input.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                log.error("Could not parse '{}'", input);
+                throw new IllegalArgumentException("Could not parse '" + input + "'");
+            }
         }
-        try {
-            return TextUnitId
-                    .attr(m.group("attr"))
-                    .qst(m.group("qid"))
-                    .opt(m.group("oid"))
-                    .dkey(m.group("dkey"));
-        } catch (IllegalStateException e) {
-            log.error("Could not parse '{}'", input);
-            throw new IllegalArgumentException("Could not parse '" + input + "'", e);
+        int pos = 0;
+        String questionId = null;
+        String optionId = null;
+        String dictionaryKey = null;
+        if (input.startsWith(QST_PREFIX)) {
+            final int end = input.indexOf(SEPARATOR, QST_PREFIX.length());
+            if (end >= 0) {
+                questionId = input.substring(QST_PREFIX.length(), end);
+                pos = end + SEPARATOR.length();
+                if (input.startsWith(OPT_PREFIX, pos)) {
+                    final int optEnd = input.indexOf(SEPARATOR, pos + OPT_PREFIX.length());
+                    if (optEnd >= 0) {
+                        optionId = input.substring(pos + OPT_PREFIX.length(), optEnd);
+                        pos = optEnd + SEPARATOR.length();
+                    }
+                }
+            }
+        }
+        if (input.startsWith(DK_PREFIX, pos)) {
+            final int end = input.indexOf(SEPARATOR, pos + DK_PREFIX.length());
+            if (end >= 0) {
+                dictionaryKey = input.substring(pos + DK_PREFIX.length(), end);
+                pos = end + SEPARATOR.length();
+            }
+        }
+        return new TextUnitId(intern(input.substring(pos)), questionId, optionId, dictionaryKey);
+    }
+
+    /**
+     * Maps known attribute names to the constants of this class.
+     */
+    private static String intern(String attribute) {
+        switch (attribute) {
+            case COACH_READABLE_NAME:
+                return COACH_READABLE_NAME;
+            case COACH_DESCRIPTION:
+                return COACH_DESCRIPTION;
+            case QST_TEXT:
+                return QST_TEXT;
+            case QST_INTRODUCTION:
+                return QST_INTRODUCTION;
+            case QST_READ_MORE:
+                return QST_READ_MORE;
+            case QST_INFOTEXT:
+                return QST_INFOTEXT;
+            case QST_INSTRUCTION:
+                return QST_INSTRUCTION;
+            case OPT_COMMENT:
+                return OPT_COMMENT;
+            default:
+                return attribute;
         }
     }
 
@@ -170,23 +223,28 @@ public class TextUnitId {
      */
     @Override
     public String toString() {
-        final StringBuilder sb = new StringBuilder();
-        if (questionId != null) {
-            sb.append("QST:");
-            sb.append(questionId);
-            sb.append("||");
-            if (optionId != null) {
-                sb.append("OPT:");
-                sb.append(optionId);
-                sb.append("||");
+        String result = id;
+        if (result == null) {
+            final StringBuilder sb = new StringBuilder();
+            if (questionId != null) {
+                sb.append(QST_PREFIX);
+                sb.append(questionId);
+                sb.append(SEPARATOR);
+                if (optionId != null) {
+                    sb.append(OPT_PREFIX);
+                    sb.append(optionId);
+                    sb.append(SEPARATOR);
+                }
+            } else if (dictionaryKey != null) {
+                sb.append(DK_PREFIX);
+                sb.append(dictionaryKey);
+                sb.append(SEPARATOR);
             }
-        } else if (dictionaryKey != null) {
-            sb.append("DK:");
-            sb.append(dictionaryKey);
-            sb.append("||");
+            sb.append(attribute);
+            result = sb.toString();
+            id = result;
         }
-        sb.append(attribute);
-        return sb.toString();
+        return result;
     }
 
     public String getQuestionId() {
@@ -210,6 +268,7 @@ public class TextUnitId {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         final TextUnitId that = (TextUnitId) o;
+        if (hash != that.hash) return false;
         if (!attribute.equals(that.attribute)) return false;
         if (!Objects.equals(questionId, that.questionId)) return false;
         if (!Objects.equals(optionId, that.optionId)) return false;
@@ -218,10 +277,6 @@ public class TextUnitId {
 
     @Override
     public int hashCode() {
-        int result = attribute.hashCode();
-        result = 31 * result + (questionId != null ? questionId.hashCode() : 0);
-        result = 31 * result + (optionId != null ? optionId.hashCode() : 0);
-        result = 31 * result + (dictionaryKey != null ? dictionaryKey.hashCode() : 0);
-        return result;
+        return hash;
     }
 }
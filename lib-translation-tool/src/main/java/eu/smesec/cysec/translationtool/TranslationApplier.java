@@ -0,0 +1,324 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import eu.smesec.cysec.platform.bridge.generated.Questionnaire;
+import net.sf.okapi.common.LocaleId;
+import net.sf.okapi.common.resource.ITextUnit;
+import net.sf.okapi.common.resource.TextContainer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Collects the translations of one target language and applies them to the fields of a coach.
+ * <p>
+ * Nothing is logged per text unit, the outcome is available from the counters and {@link #getMissingIds()}.
+ * <p>
+ * The quality checks of the learned translations, see {@link QualityChecker}, run in batches on an executor while the
+ * XLIFF file is still being read, and are collected by {@link #getQualityIssues()}, which runs the batches not yet
+ * started itself. Thus the checks complete even if the executor is busy with the merge operation waiting for them.
+ * <p>
+ * A translation is outdated if the XLIFF file has the hash of its source text, see {@link SourceHash#fromNote}, and the
+ * text of the coach has a different hash. Only the hashes are compared, the texts of the XLIFF file are not retained.
+ * <p>
+ * Instances are not thread-safe and are meant to be used for a single merge operation.
+ *
+ * @author Matthias Luppi
+ */
+class TranslationApplier {
+
+    private static final int CHECK_BATCH_SIZE = 256;
+
+    private final LocaleId trgLocale;
+    private final TranslationTable targetById = new TranslationTable();
+    private final List<TextUnitId> missingIds = new ArrayList<>();
+    private final List<TextUnitId> outdatedIds = new ArrayList<>();
+    private final boolean skipOutdated;
+    private final List<Map.Entry<String, String>> sourceTargets;
+    private final Executor checkExecutor;
+    private final List<CheckBatch> qualityChecks;
+    private List<String[]> pendingChecks;
+    private List<TextUnitId> pendingCheckIds;
+    private long applyCount = 0;
+
+    public TranslationApplier(final LocaleId trgLocale) {
+        this(trgLocale, false, null, false);
+    }
+
+    /**
+     * @param trgLocale the target language
+     * @param keepSources whether the source texts of the translations are kept, see {@link #getSourceTargets()}
+     * @param checkExecutor the executor running the checks of the learned translations, see
+     *                      {@link #getQualityIssues()}, or null if the translations are not checked
+     * @param skipOutdated whether outdated translations are not applied, see {@link #getOutdatedIds()}
+     */
+    public TranslationApplier(final LocaleId trgLocale, final boolean keepSources, final Executor checkExecutor,
+                              final boolean skipOutdated) {
+        this.trgLocale = trgLocale;
+        this.skipOutdated = skipOutdated;
+        this.sourceTargets = keepSources ? new ArrayList<>() : null;
+        this.checkExecutor = checkExecutor;
+        this.qualityChecks = checkExecutor != null ? new ArrayList<>() : null;
+    }
+
+    /**
+     * Remembers the target text of a text unit, the text unit itself is not retained.
+     *
+     * @param textUnit the text unit read from the XLIFF file
+     */
+    public void learn(ITextUnit textUnit) {
+        final TextContainer target = textUnit.getTarget(trgLocale);
+        final String targetText = target != null && !target.isEmpty() ? target.toString() : null;
+        final TextUnitId id = TextUnitId.parse(textUnit.getId());
+        targetById.put(id, targetText);
+        if (targetText == null) {
+            return;
+        }
+        final Long sourceHash = SourceHash.fromNote(textUnit);
+        if (sourceHash != null) {
+            targetById.putSourceHash(id, sourceHash);
+        }
+        if (sourceTargets == null && qualityChecks == null) {
+            return;
+        }
+        final String sourceText = textUnit.getSource().toString();
+        if (sourceTargets != null) {
+            sourceTargets.add(new AbstractMap.SimpleImmutableEntry<>(sourceText, targetText));
+        }
+        if (qualityChecks != null) {
+            if (pendingChecks == null) {
+                pendingChecks = new ArrayList<>(CHECK_BATCH_SIZE);
+                pendingCheckIds = new ArrayList<>(CHECK_BATCH_SIZE);
+            }
+            pendingChecks.add(new String[]{sourceText, targetText});
+            pendingCheckIds.add(id);
+            if (pendingChecks.size() == CHECK_BATCH_SIZE) {
+                submitChecks();
+            }
+        }
+    }
+
+    private void submitChecks() {
+        final CheckBatch batch = new CheckBatch(pendingCheckIds, pendingChecks);
+        pendingChecks = null;
+        pendingCheckIds = null;
+        qualityChecks.add(batch);
+        checkExecutor.execute(batch);
+    }
+
+    public void apply(TextUnitId id, Consumer<String> fieldSetter) {
+        apply(id, null, fieldSetter);
+    }
+
+    /**
+     * Applies the translation of a text unit and checks whether it is outdated.
+     *
+     * @param id the ID of the text unit
+     * @param source the current source text of the coach, or null to skip the check
+     * @param fieldSetter receives the translation
+     */
+    public void apply(TextUnitId id, String source, Consumer<String> fieldSetter) {
+        final String target = targetById.use(id);
+        if (target != null && source != null && isOutdated(id, source)) {
+            outdatedIds.add(id);
+            if (skipOutdated) {
+                missingIds.add(id);
+                return;
+            }
+        }
+        if (target != null) {
+            fieldSetter.accept(target);
+            applyCount++;
+        } else {
+            missingIds.add(id);
+        }
+    }
+
+    /**
+     * Applies all learned translations to the indexed fields of a coach. The work depends on the number of
+     * translations, the fields of the coach are only visited to collect the ones without translation.
+     *
+     * @param questionnaire the indexed coach or a copy of it, with the source texts
+     * @param index the index of the coach
+     */
+    public void apply(Questionnaire questionnaire, CoachIndex index) {
+        final BitSet applied = new BitSet(index.size());
+        final BitSet outdated = new BitSet(index.size());
+        targetById.useWhere((id, target) -> {
+            int position = index.find(id);
+            if (position < 0) {
+                return false;
+            }
+            if (target != null && isOutdated(id, index.get(questionnaire, position))) {
+                outdated.set(position);
+                if (skipOutdated) {
+                    return true;
+                }
+            }
+            if (target != null) {
+                for (; position >= 0; position = index.next(position)) {
+                    index.set(questionnaire, position, target);
+                    applied.set(position);
+                    applyCount++;
+                }
+            }
+            return true;
+        });
+        for (int position = applied.nextClearBit(0); position < index.size(); position = applied.nextClearBit(position + 1)) {
+            missingIds.add(index.getId(position));
+        }
+        for (int position = outdated.nextSetBit(0); position >= 0; position = outdated.nextSetBit(position + 1)) {
+            outdatedIds.add(index.getId(position));
+        }
+    }
+
+    /**
+     * @return true if the translation was made for another source text, the hashes are only computed if the
+     * XLIFF file has the hash of the source text
+     */
+    private boolean isOutdated(TextUnitId id, String source) {
+        return targetById.hasSourceHash(id) && targetById.getSourceHash(id) != SourceHash.of(source);
+    }
+
+    /**
+     * Counts a text unit as not found without applying it, e.g. because the field does not exist.
+     *
+     * @param id the ID of the text unit
+     */
+    public void missing(TextUnitId id) {
+        targetById.use(id);
+        missingIds.add(id);
+    }
+
+    /**
+     * @return the learned translations which have a target, independent of this applier
+     */
+    TranslationTable getTranslations() {
+        return targetById.withTargetsOnly();
+    }
+
+    public int memoryCount() {
+        return targetById.size();
+    }
+
+    public long getApplyCount() {
+        return applyCount;
+    }
+
+    public long getNotFoundCount() {
+        return missingIds.size();
+    }
+
+    /**
+     * @return the IDs of the text units without translation, in the order they were applied
+     */
+    public List<TextUnitId> getMissingIds() {
+        return missingIds;
+    }
+
+    /**
+     * @return the IDs of the text units whose translation was made for another source text, in the order they were
+     * applied; these are also missing if outdated translations are skipped
+     */
+    public List<TextUnitId> getOutdatedIds() {
+        return outdatedIds;
+    }
+
+    /**
+     * @return the number of learned translations which did not match any text unit
+     */
+    public long getStaleCount() {
+        return targetById.unusedCount();
+    }
+
+    /**
+     * @return the IDs of the learned translations which did not match any text unit, in no particular order
+     */
+    public List<TextUnitId> getStaleIds() {
+        return targetById.unusedKeys();
+    }
+
+    /**
+     * Waits for the quality checks of the learned translations.
+     *
+     * @return the findings in the order of the learned translations, empty unless the translations are checked
+     */
+    public List<QualityIssue> getQualityIssues() {
+        if (qualityChecks == null) {
+            return Collections.emptyList();
+        }
+        if (pendingChecks != null) {
+            submitChecks();
+        }
+        final List<QualityIssue> issues = new ArrayList<>();
+        for (CheckBatch batch : qualityChecks) {
+            batch.run();
+            issues.addAll(batch.issues.join());
+        }
+        return issues;
+    }
+
+    /**
+     * @return the pairs of source and target text of the learned translations, empty unless the sources are kept
+     */
+    public List<Map.Entry<String, String>> getSourceTargets() {
+        return sourceTargets != null ? sourceTargets : Collections.emptyList();
+    }
+
+    /**
+     * Checks a batch of translations once, on the executor or on the thread waiting for the result, whichever is first.
+     */
+    private static final class CheckBatch implements Runnable {
+
+        private final List<TextUnitId> ids;
+        private final List<String[]> checks;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CompletableFuture<List<QualityIssue>> issues = new CompletableFuture<>();
+
+        CheckBatch(final List<TextUnitId> ids, final List<String[]> checks) {
+            this.ids = ids;
+            this.checks = checks;
+        }
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                final List<QualityIssue> found = new ArrayList<>();
+                for (int i = 0; i < checks.size(); i++) {
+                    found.addAll(QualityChecker.check(ids.get(i), checks.get(i)[0], checks.get(i)[1]));
+                }
+                issues.complete(found);
+            } catch (RuntimeException e) {
+                issues.completeExceptionally(e);
+            }
+        }
+    }
+}
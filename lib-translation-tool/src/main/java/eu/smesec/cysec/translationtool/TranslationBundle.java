@@ -0,0 +1,310 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact runtime bundle of the texts of a coach in one language, an alternative to a translated coach.
+ * <p>
+ * The binary format starts with a header and an index of the text unit IDs sorted by their UTF-8 bytes, followed
+ * by the UTF-8 strings, each prefixed by its length:
+ * <pre>
+ * int magic, int version, int count, int dataOffset, short languageLength, byte[] language,
+ * count * (int keyOffset, int valueOffset), count * 2 * (int length, byte[] utf8)
+ * </pre>
+ * A bundle is opened by memory-mapping the file without decoding it, and a text is looked up by a binary search
+ * over the index. The JSON format holds the same texts as {@code {"language": ..., "texts": {id: text, ...}}} and
+ * can only be written.
+ * <p>
+ * Instances are immutable and thread-safe.
+ *
+ * @author Matthias Luppi
+ */
+public final class TranslationBundle {
+
+    /**
+     * Output formats of a bundle
+     */
+    public enum Format {
+        /** Memory-mappable binary format, see {@link TranslationBundle#open(Path)} */
+        BINARY,
+        /** JSON object, e.g. for web clients */
+        JSON
+    }
+
+    private static final int MAGIC = 0x43544242;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 18;
+
+    private final ByteBuffer buffer;
+    private final String language;
+    private final int count;
+    private final int indexOffset;
+
+    private TranslationBundle(final ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a translation bundle");
+        }
+        this.buffer = buffer;
+        this.count = buffer.getInt(8);
+        final int dataOffset = buffer.getInt(12);
+        final int languageLength = buffer.getShort(16);
+        this.indexOffset = HEADER_SIZE + languageLength;
+        // a truncated or corrupt bundle must fail here instead of in a lookup
+        if (count < 0 || languageLength < 0 || dataOffset != indexOffset + (long) count * 8 || dataOffset > buffer.capacity()) {
+            throw new IOException("Not a translation bundle");
+        }
+        this.language = decode(HEADER_SIZE, languageLength);
+    }
+
+    /**
+     * Opens a binary bundle by memory-mapping it. The file must not be modified while the bundle is used.
+     *
+     * @param bundleFile path of the bundle
+     * @return the bundle
+     * @throws IOException if the file could not be read or is not a bundle
+     */
+    public static TranslationBundle open(final Path bundleFile) throws IOException {
+        if (bundleFile == null) {
+            throw new IllegalArgumentException("Invalid bundle file");
+        }
+        try (FileChannel channel = FileChannel.open(bundleFile, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new TranslationBundle(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads a binary bundle from a stream, e.g. a resource of a coach package, which is read to its end, but not closed.
+     *
+     * @param inputStream the stream of the bundle
+     * @return the bundle
+     * @throws IOException if the stream could not be read or is not a bundle
+     */
+    public static TranslationBundle read(final InputStream inputStream) throws IOException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Invalid input stream");
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] chunk = new byte[8192];
+        int read;
+        while ((read = inputStream.read(chunk)) >= 0) {
+            bytes.write(chunk, 0, read);
+        }
+        return new TranslationBundle(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    /**
+     * @return the language of the texts as BCP 47 tag
+     */
+    public String getLanguage() {
+        return language;
+    }
+
+    /**
+     * @return the number of texts
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param id the ID of a text unit
+     * @return the text or {@code null} if the bundle has no text for the ID
+     */
+    public String get(final TextUnitId id) {
+        return get(id.toString());
+    }
+
+    /**
+     * @param id the ID of a text unit as used in XLIFF files
+     * @return the text or {@code null} if the bundle has no text for the ID
+     */
+    public String get(final String id) {
+        final byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int entry = indexOffset + mid * 8;
+            final int cmp = compareKey(buffer.getInt(entry), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                final int valueOffset = buffer.getInt(entry + 4);
+                return decode(valueOffset + 4, buffer.getInt(valueOffset));
+            }
+        }
+        return null;
+    }
+
+    private int compareKey(final int keyOffset, final byte[] key) {
+        final int length = buffer.getInt(keyOffset);
+        final int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            final int cmp = (buffer.get(keyOffset + 4 + i) & 0xff) - (key[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - key.length;
+    }
+
+    private String decode(final int offset, final int length) {
+        final ByteBuffer slice = buffer.duplicate();
+        slice.position(offset);
+        final byte[] bytes = new byte[length];
+        slice.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a bundle
+     *
+     * @param language the language of the texts as BCP 47 tag
+     * @param texts the texts by text unit ID, in any order
+     * @param format the format of the bundle
+     * @param outputStream the stream to write to, which is not closed
+     * @throws IOException if an I/O error occurs
+     */
+    static void write(final String language, final Map<String, String> texts, final Format format,
+                      final OutputStream outputStream) throws IOException {
+        final List<byte[][]> entries = new ArrayList<>(texts.size());
+        for (Map.Entry<String, String> text : texts.entrySet()) {
+            entries.add(new byte[][]{text.getKey().getBytes(StandardCharsets.UTF_8), text.getValue().getBytes(StandardCharsets.UTF_8)});
+        }
+        entries.sort((a, b) -> compareBytes(a[0], b[0]));
+        if (format == Format.JSON) {
+            writeJson(language, entries, outputStream);
+        } else {
+            writeBinary(language, entries, outputStream);
+        }
+    }
+
+    private static void writeBinary(final String language, final List<byte[][]> entries, final OutputStream outputStream) throws IOException {
+        final byte[] languageBytes = language.getBytes(StandardCharsets.UTF_8);
+        final int dataOffset = HEADER_SIZE + languageBytes.length + entries.size() * 8;
+
+        final DataOutputStream out = new DataOutputStream(Streams.nonClosing(outputStream));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(entries.size());
+        out.writeInt(dataOffset);
+        out.writeShort(languageBytes.length);
+        out.write(languageBytes);
+        long offset = dataOffset;
+        for (byte[][] entry : entries) {
+            out.writeInt((int) offset);
+            offset += 4 + entry[0].length;
+            out.writeInt((int) offset);
+            offset += 4 + entry[1].length;
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("Translation bundle exceeds 2 GB");
+            }
+        }
+        for (byte[][] entry : entries) {
+            out.writeInt(entry[0].length);
+            out.write(entry[0]);
+            out.writeInt(entry[1].length);
+            out.write(entry[1]);
+        }
+        out.flush();
+    }
+
+    private static void writeJson(final String language, final List<byte[][]> entries, final OutputStream outputStream) throws IOException {
+        final Writer out = new OutputStreamWriter(Streams.nonClosing(outputStream), StandardCharsets.UTF_8);
+        out.write("{\n  \"language\": ");
+        writeJsonString(out, language);
+        out.write(",\n  \"texts\": {");
+        for (int i = 0; i < entries.size(); i++) {
+            out.write(i == 0 ? "\n    " : ",\n    ");
+            writeJsonString(out, new String(entries.get(i)[0], StandardCharsets.UTF_8));
+            out.write(": ");
+            writeJsonString(out, new String(entries.get(i)[1], StandardCharsets.UTF_8));
+        }
+        out.write(entries.isEmpty() ? "}\n}\n" : "\n  }\n}\n");
+        out.flush();
+    }
+
+    private static void writeJsonString(final Writer out, final String text) throws IOException {
+        out.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    // line separators are escaped as well, since they are not allowed in JavaScript strings
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+
+    private static int compareBytes(final byte[] a, final byte[] b) {
+        final int common = Math.min(a.length, b.length);
+        for (int i = 0; i < common; i++) {
+            final int cmp = (a[i] & 0xff) - (b[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    @Override
+    public String toString() {
+        return "TranslationBundle{language=" + language + ", size=" + count + "}";
+    }
+}
@@ -0,0 +1,1495 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import eu.smesec.cysec.platform.bridge.generated.DictionaryEntry;
+import eu.smesec.cysec.platform.bridge.generated.Option;
+import eu.smesec.cysec.platform.bridge.generated.Question;
+import eu.smesec.cysec.platform.bridge.generated.Questionnaire;
+import net.sf.okapi.common.Event;
+import net.sf.okapi.common.EventType;
+import net.sf.okapi.common.LocaleId;
+import net.sf.okapi.common.filters.IFilter;
+import net.sf.okapi.common.filterwriter.XLIFFWriter;
+import net.sf.okapi.common.filterwriter.XLIFFWriterParameters;
+import net.sf.okapi.common.resource.ITextUnit;
+import net.sf.okapi.common.resource.Property;
+import net.sf.okapi.common.resource.RawDocument;
+import net.sf.okapi.filters.xliff.XLIFFFilter;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.util.JAXBSource;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Long-lived and thread-safe engine for the extraction and merge operations.
+ * <p>
+ * The {@link JAXBContext} for coaches is created only once per engine. Since {@link Unmarshaller} and
+ * {@link Marshaller} instances must not be shared between threads, they are kept in pools: a caller
+ * borrows an instance for the duration of one operation and returns it afterwards. The pools never
+ * hold more instances than there were concurrent callers.
+ *
+ * @author Matthias Luppi
+ */
+public class TranslationEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(TranslationEngine.class);
+
+    private static volatile TranslationEngine defaultEngine;
+
+    private final JAXBContext context;
+    private final Queue<Unmarshaller> unmarshallerPool = new ConcurrentLinkedQueue<>();
+    private final Queue<Marshaller> marshallerPool = new ConcurrentLinkedQueue<>();
+    private final List<MergeListener> mergeListeners = new CopyOnWriteArrayList<>();
+    private volatile TranslationMemory translationMemory;
+    private volatile int fuzzyMaxSuggestions = 0;
+    private volatile int fuzzyMinScore = 75;
+    // fuzzy matchers of the translation memory by target language, guarded by the map
+    private final Map<LocaleId, CachedMatcher> fuzzyMatchers = new HashMap<>();
+    private volatile boolean qualityChecks = true;
+    private volatile boolean skipOutdated = false;
+    // runs the languages of batch merges and the quality checks, the threads end when idle
+    private final ThreadPoolExecutor workers;
+
+    /**
+     * Creates a new engine with its own {@link JAXBContext}.
+     *
+     * @throws JAXBException if the JAXB context could not be created
+     */
+    public TranslationEngine() throws JAXBException {
+        this.context = JAXBContext.newInstance(Questionnaire.class);
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, "translation-engine-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the engine shared by all {@link Extractor} and {@link Merger} instances which were created
+     * without an explicit engine.
+     *
+     * @return the shared engine, created on first use
+     * @throws JAXBException if the JAXB context could not be created
+     */
+    public static TranslationEngine getDefault() throws JAXBException {
+        TranslationEngine engine = defaultEngine;
+        if (engine == null) {
+            synchronized (TranslationEngine.class) {
+                engine = defaultEngine;
+                if (engine == null) {
+                    engine = new TranslationEngine();
+                    defaultEngine = engine;
+                }
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * Registers a listener which is notified about every merge operation of this engine.
+     *
+     * @param listener the listener to add
+     */
+    public void addMergeListener(final MergeListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Invalid listener");
+        }
+        mergeListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener registered with {@link #addMergeListener(MergeListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeMergeListener(final MergeListener listener) {
+        mergeListeners.remove(listener);
+    }
+
+    /**
+     * Sets the translation memory of this engine. Every successful merge adds its translations to the memory,
+     * and an extraction for a target language prefills the targets found in the memory.
+     * <p>
+     * The memory is not closed by the engine.
+     *
+     * @param translationMemory the translation memory, or null to use none
+     */
+    public void setTranslationMemory(final TranslationMemory translationMemory) {
+        this.translationMemory = translationMemory;
+        synchronized (fuzzyMatchers) {
+            fuzzyMatchers.clear();
+        }
+    }
+
+    /**
+     * @return the translation memory of this engine, or null if there is none
+     */
+    public TranslationMemory getTranslationMemory() {
+        return translationMemory;
+    }
+
+    /**
+     * Enables fuzzy matches from the translation memory. An extraction for a target language then adds the
+     * translations of the most similar source texts as {@code alt-trans} suggestions, see {@link FuzzyMatcher}.
+     *
+     * @param maxSuggestions the maximum number of suggestions per text unit, or 0 to disable fuzzy matches
+     * @param minScore the minimum score of a suggestion, from 1 to 100
+     */
+    public void setFuzzyMatching(final int maxSuggestions, final int minScore) {
+        if (maxSuggestions < 0) {
+            throw new IllegalArgumentException("Invalid maximum number of suggestions");
+        }
+        if (minScore < 1 || minScore > 100) {
+            throw new IllegalArgumentException("Invalid minimum score");
+        }
+        this.fuzzyMaxSuggestions = maxSuggestions;
+        this.fuzzyMinScore = minScore;
+    }
+
+    /**
+     * Enables or disables the quality checks of the translations of a merge, which are enabled by default. The checks
+     * compare the HTML tags, HTML entities and placeholders of the source and target of every translation, as well
+     * as their lengths, and run in parallel while the XLIFF file is read, see {@link MergeReport#getQualityIssues()}.
+     *
+     * @param enabled whether the translations of a merge are checked
+     */
+    public void setQualityChecks(final boolean enabled) {
+        this.qualityChecks = enabled;
+    }
+
+    /**
+     * Sets whether a merge skips outdated translations, which it applies by default. A translation is outdated if
+     * the source text of the coach changed since the extraction, which is detected from the hash of the source text
+     * written by every extraction, see {@link MergeReport#getOutdatedIds()}. Skipped translations count as missing.
+     *
+     * @param skip whether outdated translations are not applied
+     */
+    public void setSkipOutdated(final boolean skip) {
+        this.skipOutdated = skip;
+    }
+
+    /**
+     * Reads a coach using a pooled {@link Unmarshaller}. The path may be on any file system, e.g. in a zip file.
+     *
+     * @param inputFile path of the coach XML
+     * @return the unmarshalled coach
+     * @throws JAXBException if the coach could not be read
+     */
+    public Questionnaire unmarshal(final Path inputFile) throws JAXBException {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(inputFile))) {
+            return unmarshal(inputStream);
+        } catch (IOException e) {
+            throw new JAXBException("Could not read '" + inputFile + "'", e);
+        }
+    }
+
+    /**
+     * Reads a coach from a stream using a pooled {@link Unmarshaller}. The stream is not closed.
+     *
+     * @param inputStream the coach XML
+     * @return the unmarshalled coach
+     * @throws JAXBException if the coach could not be read
+     */
+    public Questionnaire unmarshal(final InputStream inputStream) throws JAXBException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Invalid input stream");
+        }
+        final Unmarshaller unmarshaller = borrowUnmarshaller();
+        try {
+            return (Questionnaire) unmarshaller.unmarshal(Streams.nonClosing(inputStream));
+        } finally {
+            unmarshallerPool.offer(unmarshaller);
+        }
+    }
+
+    /**
+     * Reads a coach from a reader using a pooled {@link Unmarshaller}. The reader is not closed.
+     *
+     * @param reader the coach XML
+     * @return the unmarshalled coach
+     * @throws JAXBException if the coach could not be read
+     */
+    public Questionnaire unmarshal(final Reader reader) throws JAXBException {
+        if (reader == null) {
+            throw new IllegalArgumentException("Invalid reader");
+        }
+        final Unmarshaller unmarshaller = borrowUnmarshaller();
+        try {
+            return (Questionnaire) unmarshaller.unmarshal(reader);
+        } finally {
+            unmarshallerPool.offer(unmarshaller);
+        }
+    }
+
+    /**
+     * Writes a coach using a pooled {@link Marshaller} with formatted output. The path may be on any file system,
+     * e.g. in a zip file, see {@link CoachPackage}.
+     *
+     * @param questionnaire the coach to write
+     * @param outputFile path of the coach XML to be written
+     * @throws JAXBException if the coach could not be written
+     */
+    public void marshal(final Questionnaire questionnaire, final Path outputFile) throws JAXBException {
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(outputFile))) {
+            marshal(questionnaire, outputStream);
+        } catch (IOException e) {
+            throw new JAXBException("Could not write '" + outputFile + "'", e);
+        }
+    }
+
+    /**
+     * Writes a coach to a stream using a pooled {@link Marshaller} with formatted output. The stream is not closed.
+     *
+     * @param questionnaire the coach to write
+     * @param outputStream the stream of the coach XML
+     * @throws JAXBException if the coach could not be written
+     */
+    public void marshal(final Questionnaire questionnaire, final OutputStream outputStream) throws JAXBException {
+        if (outputStream == null) {
+            throw new IllegalArgumentException("Invalid output stream");
+        }
+        final Marshaller marshaller = borrowMarshaller();
+        try {
+            marshaller.marshal(questionnaire, outputStream);
+        } finally {
+            marshallerPool.offer(marshaller);
+        }
+    }
+
+    /**
+     * Writes a coach to a writer using a pooled {@link Marshaller} with formatted output. The writer is not closed.
+     *
+     * @param questionnaire the coach to write
+     * @param writer the writer of the coach XML
+     * @throws JAXBException if the coach could not be written
+     */
+    public void marshal(final Questionnaire questionnaire, final Writer writer) throws JAXBException {
+        if (writer == null) {
+            throw new IllegalArgumentException("Invalid writer");
+        }
+        final Marshaller marshaller = borrowMarshaller();
+        try {
+            marshaller.marshal(questionnaire, writer);
+        } finally {
+            marshallerPool.offer(marshaller);
+        }
+    }
+
+    /**
+     * Extracts the translatable content of a coach to XLIFF.
+     *
+     * @param inputFile path of the original coach
+     * @param outputFile path of the XLIFF file to be written
+     * @throws IOException if an I/O error occurs
+     * @throws JAXBException if an error occurred while reading the coach
+     */
+    public void extract(final Path inputFile, final Path outputFile) throws IOException, JAXBException {
+        extract(inputFile, outputFile, null);
+    }
+
+    /**
+     * Extracts the translatable content of a coach to XLIFF for a target language.
+     * <p>
+     * If a {@link TranslationMemory} is set, the target of every text unit whose source text is in the memory
+     * is prefilled with state {@code needs-review-translation}, and the match is added as {@code alt-trans}.
+     * With {@link #setFuzzyMatching(int, int)}, the translations of similar source texts are added as
+     * {@code alt-trans} as well. The text units are then looked up in parallel before they are written.
+     *
+     * @param inputFile path of the original coach
+     * @param outputFile path of the XLIFF file to be written
+     * @param trgLocale the target language, or null to write no targets
+     * @throws IOException if an I/O error occurs
+     * @throws JAXBException if an error occurred while reading the coach
+     */
+    public void extract(final Path inputFile, final Path outputFile, final LocaleId trgLocale) throws IOException, JAXBException {
+        if (inputFile == null) {
+            throw new IllegalArgumentException("Invalid input file");
+        }
+        if (outputFile == null) {
+            throw new IllegalArgumentException("Invalid output file");
+        }
+        createParentDirectories(outputFile);
+
+        final Questionnaire questionnaire = unmarshal(inputFile);
+
+        log.info("Starting extraction of translatable content from '{}'", inputFile);
+        try (OutputStream outputStream = Files.newOutputStream(outputFile)) {
+            extract(questionnaire, inputFile.getFileName().toString(), outputStream, trgLocale);
+        }
+        log.info("Translatable content extracted to '{}'", outputFile);
+    }
+
+    /**
+     * Extracts the translatable content of a loaded coach to an XLIFF stream, which is not closed.
+     *
+     * @param questionnaire the original coach
+     * @param originalFileName the file name of the coach in the XLIFF file
+     * @param outputStream the stream of the XLIFF file
+     * @param trgLocale the target language, or null to write no targets
+     * @see #extract(Path, Path, LocaleId)
+     */
+    public void extract(final Questionnaire questionnaire, final String originalFileName, final OutputStream outputStream,
+                        final LocaleId trgLocale) {
+        if (questionnaire == null) {
+            throw new IllegalArgumentException("Invalid questionnaire");
+        }
+        if (StringUtils.isBlank(originalFileName)) {
+            throw new IllegalArgumentException("Invalid original file name");
+        }
+        if (outputStream == null) {
+            throw new IllegalArgumentException("Invalid output stream");
+        }
+
+        final LocaleId srcLocale = detectSourceLocale(questionnaire);
+
+        final TranslationMemory memory = translationMemory;
+        final PrefillXliffWriter prefillWriter;
+        if (trgLocale != null && memory != null) {
+            final int maxSuggestions = fuzzyMaxSuggestions;
+            final FuzzyMatcher matcher = maxSuggestions > 0 ? fuzzyMatcher(memory, trgLocale) : null;
+            prefillWriter = new PrefillXliffWriter(memory, matcher, maxSuggestions, fuzzyMinScore, srcLocale, trgLocale);
+        } else {
+            prefillWriter = null;
+        }
+        try (XLIFFWriter writer = initXliffWriter(prefillWriter != null ? prefillWriter : new XLIFFWriter(),
+                originalFileName, Streams.nonClosing(outputStream), srcLocale, trgLocale)) {
+            extractGeneralAttributes(questionnaire, writer);
+            extractQuestions(questionnaire, writer);
+            extractDictionary(questionnaire, writer);
+        }
+        if (prefillWriter != null) {
+            log.info("Prefilled {} targets and suggested {} fuzzy matches from translation memory",
+                    prefillWriter.getPrefillCount(), prefillWriter.getSuggestionCount());
+        }
+    }
+
+    /**
+     * Extracts only the text units of a coach which were added or whose source text changed since a previous
+     * extraction.
+     * <p>
+     * The written XLIFF file contains the new and changed text units in the order of a full extraction. The IDs of
+     * the text units which no longer exist, and the manifest to be used as baseline of the next incremental
+     * extraction, are part of the result.
+     *
+     * @param inputFile path of the original coach
+     * @param outputFile path of the delta XLIFF file to be written
+     * @param previous the manifest of the previous extraction, see {@link ExtractionManifest#fromXliff(Path)}
+     * @return the result of the extraction
+     * @throws IOException if an I/O error occurs
+     * @throws JAXBException if an error occurred while reading the coach
+     */
+    public DeltaExtractionResult extractDelta(final Path inputFile, final Path outputFile, final ExtractionManifest previous) throws IOException, JAXBException {
+        if (inputFile == null) {
+            throw new IllegalArgumentException("Invalid input file");
+        }
+        if (outputFile == null) {
+            throw new IllegalArgumentException("Invalid output file");
+        }
+        if (previous == null) {
+            throw new IllegalArgumentException("Invalid manifest");
+        }
+        createParentDirectories(outputFile);
+
+        final Questionnaire questionnaire = unmarshal(inputFile);
+        final LocaleId srcLocale = detectSourceLocale(questionnaire);
+
+        final DeltaXliffWriter writer = new DeltaXliffWriter(previous);
+        try {
+            initXliffWriter(writer, inputFile, outputFile, srcLocale, null);
+            log.info("Starting incremental extraction of translatable content from '{}'", inputFile);
+
+            extractGeneralAttributes(questionnaire, writer);
+            extractQuestions(questionnaire, writer);
+            extractDictionary(questionnaire, writer);
+        } finally {
+            writer.close();
+        }
+
+        final List<TextUnitId> removedIds = new ArrayList<>();
+        for (TextUnitId id : previous.getIds()) {
+            if (writer.getManifest().getHash(id) == null) {
+                removedIds.add(id);
+            }
+        }
+        log.info("Delta of {} added and {} changed text units extracted to '{}', {} removed",
+                writer.getAddedIds().size(), writer.getChangedIds().size(), outputFile, removedIds.size());
+        return new DeltaExtractionResult(outputFile, writer.getManifest(), writer.getAddedIds(), writer.getChangedIds(), removedIds);
+    }
+
+    /**
+     * Extracts a new version of a coach to XLIFF and carries over the translations of the previous version.
+     * <p>
+     * The text units of both versions are compared by ID and by the hash of their source text:
+     * <ul>
+     *     <li>a text unit with the same ID and source text keeps its target with state {@code translated}</li>
+     *     <li>a text unit whose source text was translated under another ID, e.g. of a renamed question, gets that
+     *     target with state {@code translated}</li>
+     *     <li>a text unit whose source text changed gets an empty target with state {@code needs-translation}, and
+     *     the previous source and target as {@code alt-trans}</li>
+     * </ul>
+     * Every text unit is looked up in constant time, so the migration is linear in the size of the coaches.
+     *
+     * @param oldInputFile path of the previous version of the coach
+     * @param oldXlfFile path of the XLIFF file containing the translations of the previous version
+     * @param newInputFile path of the new version of the coach
+     * @param trgLocale the target language
+     * @param outputFile path of the XLIFF file of the new version to be written
+     * @return the result of the migration
+     * @throws IOException if an I/O error occurs
+     * @throws JAXBException if an error occurred while reading the coaches
+     */
+    public MigrationResult migrate(final Path oldInputFile, final Path oldXlfFile, final Path newInputFile, final LocaleId trgLocale,
+                                   final Path outputFile) throws IOException, JAXBException {
+        if (oldInputFile == null) {
+            throw new IllegalArgumentException("Invalid previous input file");
+        }
+        if (oldXlfFile == null) {
+            throw new IllegalArgumentException("Invalid XLF file");
+        }
+        if (newInputFile == null) {
+            throw new IllegalArgumentException("Invalid input file");
+        }
+        if (trgLocale == null) {
+            throw new IllegalArgumentException("Invalid target language");
+        }
+        if (outputFile == null) {
+            throw new IllegalArgumentException("Invalid output file");
+        }
+        createParentDirectories(outputFile);
+
+        // the source texts of the previous version, the XLIFF file may have been extracted from an older one
+        final Questionnaire oldQuestionnaire = unmarshal(oldInputFile);
+        final SourceCollector oldSources = new SourceCollector();
+        extractGeneralAttributes(oldQuestionnaire, oldSources);
+        extractQuestions(oldQuestionnaire, oldSources);
+        extractDictionary(oldQuestionnaire, oldSources);
+        final TranslationTable oldTargets = readTranslations(oldXlfFile, detectSourceLocale(oldQuestionnaire), trgLocale, false).getTranslations();
+
+        final Questionnaire questionnaire = unmarshal(newInputFile);
+        final LocaleId srcLocale = detectSourceLocale(questionnaire);
+
+        final MigrationXliffWriter writer = new MigrationXliffWriter(oldSources.getSources(), oldTargets, srcLocale, trgLocale);
+        try {
+            initXliffWriter(writer, newInputFile, outputFile, srcLocale, trgLocale);
+            log.info("Starting migration of translations from '{}' to '{}'", oldInputFile, newInputFile);
+
+            extractGeneralAttributes(questionnaire, writer);
+            extractQuestions(questionnaire, writer);
+            extractDictionary(questionnaire, writer);
+        } finally {
+            writer.close();
+        }
+
+        final List<TextUnitId> removedIds = oldSources.getSources().unusedKeys();
+        log.info("Migrated translations to '{}': {} carried over, {} moved, {} changed, {} untranslated, {} removed",
+                outputFile, writer.getCarriedIds().size(), writer.getMovedIds().size(), writer.getChangedIds().size(),
+                writer.getUntranslatedIds().size(), removedIds.size());
+        return new MigrationResult(outputFile, writer.getCarriedIds(), writer.getMovedIds(), writer.getChangedIds(),
+                writer.getUntranslatedIds(), removedIds);
+    }
+
+    /**
+     * Extracts the translatable content of a coach to XLIFF without unmarshalling the coach.
+     * <p>
+     * The coach is read with StAX and every text unit is written as soon as the surrounding question or
+     * dictionary entry has been read, so the memory usage does not depend on the size of the coach.
+     * The produced XLIFF is identical to the one of {@link #extract(Path, Path)}.
+     *
+     * @param inputFile path of the original coach
+     * @param outputFile path of the XLIFF file to be written
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if an error occurred while reading the coach
+     */
+    public void extractStreaming(final Path inputFile, final Path outputFile) throws IOException, XMLStreamException {
+        if (inputFile == null) {
+            throw new IllegalArgumentException("Invalid input file");
+        }
+        if (outputFile == null) {
+            throw new IllegalArgumentException("Invalid output file");
+        }
+        createParentDirectories(outputFile);
+        new StreamingExtractor(inputFile, outputFile).extract();
+    }
+
+    /**
+     * Merges a coach with the translations of one target language.
+     *
+     * @param inputFile path of the original coach
+     * @param xlfFile path of the XLIFF file containing the translations
+     * @param trgLocale the target language
+     * @param outputFile path of the translated coach to be written
+     * @return the report of the merge operation
+     * @throws IOException if an I/O error occurs
+     * @throws JAXBException if an error occurred while handling the XML files
+     */
+    public MergeReport merge(final Path inputFile, final Path xlfFile, final LocaleId trgLocale, final Path outputFile) throws IOException, JAXBException {
+        if (inputFile == null) {
+            throw new IllegalArgumentException("Invalid input file");
+        }
+        if (xlfFile == null) {
+            throw new IllegalArgumentException("Invalid XLF file");
+        }
+        if (outputFile == null) {
+            throw new IllegalArgumentException("Invalid output file");
+        }
+        createParentDirectories(outputFile);
+
+        log.info("Base coach for translations is '{}'", inputFile);
+
+        final PhaseTimer timer = new PhaseTimer(System.nanoTime(), trgLocale, mergeListeners);
+        try {
+            final Questionnaire questionnaire = unmarshal(inputFile);
+            timer.completed(MergeReport.Phase.UNMARSHAL);
+            final LocaleId srcLocale = detectSourceLocale(questionnaire);
+
+            return mergeLocale(questionnaire, CoachIndex.of(questionnaire), srcLocale, xlfFile, trgLocale, outputFile, timer);
+        } catch (IOException | JAXBException | RuntimeException e) {
+            fireMergeFailed(inputFile, trgLocale, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Applies the translations of one target language from an XLIFF stream to a loaded coach.
+     * <p>
+     * The coach is modified in place, so a coach which is used for several languages must be copied first, see
+     * {@link #copy(Questionnaire)}. The stream is read to its end, but not closed. The report has no output file.
+     *
+     * @param questionnaire the coach to translate
+     * @param xlfStream the stream of the XLIFF file containing the translations
+     * @param trgLocale the target language
+     * @return the report of the merge operation
+     */
+    public MergeReport merge(final Questionnaire questionnaire, final InputStream xlfStream, final LocaleId trgLocale) {
+        if (questionnaire == null) {
+            throw new IllegalArgumentException("Invalid questionnaire");
+        }
+        if (xlfStream == null) {
+            throw new IllegalArgumentException("Invalid XLF stream");
+        }
+        if (trgLocale == null) {
+            throw new IllegalArgumentException("Invalid target language");
+        }
+
+        final PhaseTimer timer = new PhaseTimer(System.nanoTime(), trgLocale, mergeListeners);
+        try {
+            final LocaleId srcLocale = detectSourceLocale(questionnaire);
+            log.info("Reading translation entries from stream");
+            final TranslationApplier ta = readTranslations(new RawDocument(Streams.nonClosing(xlfStream),
+                    StandardCharsets.UTF_8.name(), srcLocale, trgLocale), trgLocale, true);
+            timer.completed(MergeReport.Phase.XLIFF_READ);
+
+            ta.apply(questionnaire, CoachIndex.of(questionnaire));
+            timer.completed(MergeReport.Phase.APPLY);
+
+            remember(trgLocale, ta);
+            return report(trgLocale, null, ta, timer);
+        } catch (RuntimeException e) {
+            fireMergeFailed(null, trgLocale, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Merges a coach with the translations of one target language into a {@link TranslationBundle} instead of a
+     * translated coach.
+     * <p>
+     * The bundle holds the text of every text unit of the coach, which is the translation or, if there is none, the
+     * text of the original coach, just like in a translated coach. Writing the bundle is the marshal phase of the report.
+     *
+     * @param inputFile path of the original coach
+     * @param xlfFile path of the XLIFF file containing the translations
+     * @param trgLocale the target language
+     * @param outputFile path of the bundle to be written
+     * @param format the format of the bundle
+     * @return the report of the merge operation
+     * @throws IOException if an I/O error occurs
+     * @throws JAXBException if an error occurred while reading the coach
+     */
+    public MergeReport mergeBundle(final Path inputFile, final Path xlfFile, final LocaleId trgLocale, final Path outputFile,
+                                   final TranslationBundle.Format format) throws IOException, JAXBException {
+        if (inputFile == null) {
+            throw new IllegalArgumentException("Invalid input file");
+        }
+        if (xlfFile == null) {
+            throw new IllegalArgumentException("Invalid XLF file");
+        }
+        if (outputFile == null) {
+            throw new IllegalArgumentException("Invalid output file");
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("Invalid bundle format");
+        }
+        createParentDirectories(outputFile);
+
+        log.info("Base coach for translation bundle is '{}'", inputFile);
+
+        final PhaseTimer timer = new PhaseTimer(System.nanoTime(), trgLocale, mergeListeners);
+        try {
+            final Questionnaire questionnaire = unmarshal(inputFile);
+            timer.completed(MergeReport.Phase.UNMARSHAL);
+
+            final TranslationApplier ta = readTranslations(xlfFile, detectSourceLocale(questionnaire), trgLocale, true);
+            timer.completed(MergeReport.Phase.XLIFF_READ);
+
+            final CoachIndex index = CoachIndex.of(questionnaire);
+            ta.apply(questionnaire, index);
+            timer.completed(MergeReport.Phase.APPLY);
+
+            try (OutputStream outputStream = Files.newOutputStream(outputFile)) {
+                writeBundle(questionnaire, index, trgLocale, format, outputStream);
+            }
+            timer.completed(MergeReport.Phase.MARSHAL);
+
+            log.info("Translation bundle written to '{}'", outputFile);
+
+            remember(trgLocale, ta);
+            return report(trgLocale, outputFile, ta, timer);
+        } catch (IOException | JAXBException | RuntimeException e) {
+            fireMergeFailed(inputFile, trgLocale, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Merges a coach with the translations of one target language without unmarshalling the coach.
+     * <p>
+     * The coach is passed through as StAX events and only the translatable texts are replaced. Thus the
+     * structure, comments and whitespace of the original coach are kept, and the memory usage only
+     * depends on the size of the translations.
+     *
+     * @param inputFile path of the original coach
+     * @param xlfFile path of the XLIFF file containing the translations
+     * @param trgLocale the target language
+     * @param outputFile path of the translated coach to be written
+     * @return the report of the merge operation
+     * @throws IOException if an I/O error occurs
+     * @throws XMLStreamException if an error occurred while handling the coach
+     */
+    public MergeReport mergeStreaming(final Path inputFile, final Path xlfFile, final LocaleId trgLocale, final Path outputFile) throws IOException, XMLStreamException {
+        if (inputFile == null) {
+            throw new IllegalArgumentException("Invalid input file");
+        }
+        if (xlfFile == null) {
+            throw new IllegalArgumentException("Invalid XLF file");
+        }
+        if (outputFile == null) {
+            throw new IllegalArgumentException("Invalid output file");
+        }
+        createParentDirectories(outputFile);
+
+        log.info("Base coach for streaming translation is '{}'", inputFile);
+
+        final PhaseTimer timer = new PhaseTimer(System.nanoTime(), trgLocale, mergeListeners);
+        try {
+            final TranslationApplier ta = new StreamingMerger(inputFile, outputFile).merge(srcLocale -> {
+                // only the prolog of the coach has been read so far, the rest is read while applying
+                timer.completed(MergeReport.Phase.UNMARSHAL);
+                final TranslationApplier translations = readTranslations(xlfFile, srcLocale, trgLocale, true);
+                timer.completed(MergeReport.Phase.XLIFF_READ);
+                return translations;
+            });
+            timer.completed(MergeReport.Phase.APPLY);
+
+            log.info("Translated coach written to '{}'", outputFile);
+
+            remember(trgLocale, ta);
+            return report(trgLocale, outputFile, ta, timer);
+        } catch (IOException | XMLStreamException | RuntimeException e) {
+            fireMergeFailed(inputFile, trgLocale, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Merges a coach with the translations of several target languages in one pass.
+     * <p>
+     * The coach is read only once. Each language is then processed as a separate task on the worker
+     * threads of the engine: its XLIFF file is read, the translations are applied to a private copy of the
+     * coach and the translated coach is written. A failing language does not abort the others, its error
+     * is collected in the {@link BatchMergeResult} instead.
+     *
+     * @param inputFile path of the original coach
+     * @param xlfFiles paths of the XLIFF files by target language
+     * @param outputFileFor provides the path of the translated coach for a target language
+     * @return the reports and failures of the merge operations by target language, in the order of {@code xlfFiles}
+     * @throws IOException if the coach could not be read
+     * @throws JAXBException if the coach could not be unmarshalled
+     */
+    public BatchMergeResult mergeAll(final Path inputFile, final Map<String, Path> xlfFiles,
+                                     final Function<String, Path> outputFileFor) throws IOException, JAXBException {
+        return mergeAll(inputFile, xlfFiles, outputFileFor, workers);
+    }
+
+    /**
+     * Merges a coach with the translations of several target languages in one pass.
+     *
+     * @param inputFile path of the original coach
+     * @param xlfFiles paths of the XLIFF files by target language
+     * @param outputFileFor provides the path of the translated coach for a target language
+     * @param executor executor running the merge of the individual languages
+     * @return the reports and failures of the merge operations by target language, in the order of {@code xlfFiles}
+     * @throws IOException if the coach could not be read
+     * @throws JAXBException if the coach could not be unmarshalled
+     * @see #mergeAll(Path, Map, Function)
+     */
+    public BatchMergeResult mergeAll(final Path inputFile, final Map<String, Path> xlfFiles,
+                                     final Function<String, Path> outputFileFor, final Executor executor) throws IOException, JAXBException {
+        if (inputFile == null) {
+            throw new IllegalArgumentException("Invalid input file");
+        }
+        if (xlfFiles == null || xlfFiles.isEmpty() || xlfFiles.containsValue(null)) {
+            throw new IllegalArgumentException("Invalid XLF files");
+        }
+        if (outputFileFor == null) {
+            throw new IllegalArgumentException("Invalid output files");
+        }
+        final Map<String, Path> outputFiles = new LinkedHashMap<>();
+        for (String targetLang : xlfFiles.keySet()) {
+            final Path outputFile = outputFileFor.apply(targetLang);
+            if (outputFile == null) {
+                throw new IllegalArgumentException("Invalid output file for '" + targetLang + "'");
+            }
+            createParentDirectories(outputFile);
+            outputFiles.put(targetLang, outputFile);
+        }
+
+        log.info("Base coach for translations of {} languages is '{}'", xlfFiles.size(), inputFile);
+
+        final long start = System.nanoTime();
+        final Questionnaire questionnaire = unmarshal(inputFile);
+        // the index of the fields is valid for every copy of the coach
+        final CoachIndex index = CoachIndex.of(questionnaire);
+        final long unmarshalNanos = System.nanoTime() - start;
+        final LocaleId srcLocale = detectSourceLocale(questionnaire);
+
+        final Map<String, CompletableFuture<MergeReport>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, Path> entry : xlfFiles.entrySet()) {
+            final String targetLang = entry.getKey();
+            futures.put(targetLang, CompletableFuture.supplyAsync(() -> {
+                final LocaleId trgLocale = LocaleId.fromString(targetLang);
+                // the shared read of the coach is part of every report
+                final PhaseTimer timer = new PhaseTimer(System.nanoTime() - unmarshalNanos, trgLocale, mergeListeners);
+                try {
+                    final Questionnaire translated = copy(questionnaire);
+                    timer.completed(MergeReport.Phase.UNMARSHAL);
+                    return mergeLocale(translated, index, srcLocale, entry.getValue(), trgLocale, outputFiles.get(targetLang), timer);
+                } catch (IOException | JAXBException e) {
+                    fireMergeFailed(inputFile, trgLocale, e);
+                    throw new CompletionException(e);
+                } catch (RuntimeException e) {
+                    fireMergeFailed(inputFile, trgLocale, e);
+                    throw e;
+                }
+            }, executor));
+        }
+        return collect(inputFile, futures);
+    }
+
+    /**
+     * Merges a coach with all target languages of a multilingual XLIFF file.
+     * <p>
+     * The coach and the XLIFF file are read only once. The translations are spread into one table per target
+     * language, which is declared by the {@code target-language} of every {@code <file>} element. Then every language
+     * is applied to a private copy of the coach and written as a separate task on the worker threads of the engine.
+     * A failing language does not abort the others, its error is collected in the {@link BatchMergeResult} instead.
+     *
+     * @param inputFile path of the original coach
+     * @param xlfFile path of the XLIFF file containing the translations of several languages
+     * @param outputFileFor provides the path of the translated coach for a target language
+     * @return the reports and failures of the merge operations by target language, in the order of the XLIFF file
+     * @throws IOException if the coach could not be read
+     * @throws JAXBException if the coach could not be unmarshalled
+     */
+    public BatchMergeResult mergeMultilingual(final Path inputFile, final Path xlfFile,
+                                              final Function<String, Path> outputFileFor) throws IOException, JAXBException {
+        if (inputFile == null) {
+            throw new IllegalArgumentException("Invalid input file");
+        }
+        if (xlfFile == null) {
+            throw new IllegalArgumentException("Invalid XLF file");
+        }
+        if (outputFileFor == null) {
+            throw new IllegalArgumentException("Invalid output files");
+        }
+
+        log.info("Base coach for multilingual translations is '{}'", inputFile);
+
+        final long start = System.nanoTime();
+        final Questionnaire questionnaire = unmarshal(inputFile);
+        // the index of the fields is valid for every copy of the coach
+        final CoachIndex index = CoachIndex.of(questionnaire);
+        final long unmarshalNanos = System.nanoTime() - start;
+        final LocaleId srcLocale = detectSourceLocale(questionnaire);
+        final Map<LocaleId, TranslationApplier> appliers = readMultilingualTranslations(xlfFile, srcLocale, true);
+        final long readNanos = System.nanoTime() - start - unmarshalNanos;
+
+        final Map<String, Path> outputFiles = new LinkedHashMap<>();
+        for (LocaleId trgLocale : appliers.keySet()) {
+            final Path outputFile = outputFileFor.apply(trgLocale.toBCP47());
+            if (outputFile == null) {
+                throw new IllegalArgumentException("Invalid output file for '" + trgLocale + "'");
+            }
+            createParentDirectories(outputFile);
+            outputFiles.put(trgLocale.toBCP47(), outputFile);
+        }
+
+        final Map<String, CompletableFuture<MergeReport>> futures = new LinkedHashMap<>();
+        for (Map.Entry<LocaleId, TranslationApplier> entry : appliers.entrySet()) {
+            final LocaleId trgLocale = entry.getKey();
+            final String targetLang = trgLocale.toBCP47();
+            futures.put(targetLang, CompletableFuture.supplyAsync(() -> {
+                // the shared reads of the coach and the translations are part of every report
+                final PhaseTimer timer = new PhaseTimer(System.nanoTime() - unmarshalNanos, trgLocale, mergeListeners);
+                try {
+                    final Questionnaire translated = copy(questionnaire);
+                    timer.completed(MergeReport.Phase.UNMARSHAL);
+                    timer.shared(MergeReport.Phase.XLIFF_READ, readNanos);
+                    return applyAndMarshal(translated, index, trgLocale, entry.getValue(), outputFiles.get(targetLang), timer);
+                } catch (JAXBException e) {
+                    fireMergeFailed(inputFile, trgLocale, e);
+                    throw new CompletionException(e);
+                } catch (RuntimeException e) {
+                    fireMergeFailed(inputFile, trgLocale, e);
+                    throw e;
+                }
+            }, workers));
+        }
+        return collect(inputFile, futures);
+    }
+
+    /**
+     * Waits for the merge operations of several languages and collects their reports and failures.
+     */
+    private static BatchMergeResult collect(final Path inputFile, final Map<String, CompletableFuture<MergeReport>> futures) {
+        final BatchMergeResult result = new BatchMergeResult();
+        for (Map.Entry<String, CompletableFuture<MergeReport>> entry : futures.entrySet()) {
+            try {
+                result.addReport(entry.getKey(), entry.getValue().join());
+            } catch (CompletionException e) {
+                if (!(e.getCause() instanceof Exception)) {
+                    throw e;
+                }
+                log.error("Could not merge '{}' for '{}'", inputFile, entry.getKey(), e.getCause());
+                result.addFailure(entry.getKey(), (Exception) e.getCause());
+            }
+        }
+        log.info("Merged {} of {} languages", result.getReports().size(), futures.size());
+        return result;
+    }
+
+    /**
+     * Creates a deep copy of a coach. The copy is produced directly from the object graph by JAXB, so no
+     * XML document is serialized or parsed.
+     *
+     * @param questionnaire the coach to copy, which must not be modified during the copy
+     * @return an independent copy of the coach
+     * @throws JAXBException if the coach could not be copied
+     */
+    public Questionnaire copy(final Questionnaire questionnaire) throws JAXBException {
+        final Unmarshaller unmarshaller = borrowUnmarshaller();
+        try {
+            return (Questionnaire) unmarshaller.unmarshal(new JAXBSource(context, questionnaire));
+        } finally {
+            unmarshallerPool.offer(unmarshaller);
+        }
+    }
+
+    /**
+     * Creates a read-only view of a coach in one target language, without copying or modifying the coach.
+     * <p>
+     * Only the translations are read and kept, so several languages can share one loaded coach. Unlike a merge,
+     * no report is created and the translations are not added to the translation memory.
+     *
+     * @param questionnaire the base coach, which must not be modified while the view is used
+     * @param xlfFile path of the XLIFF file containing the translations
+     * @param trgLocale the target language
+     * @return the localized view of the coach
+     */
+    public LocalizedQuestionnaire localize(final Questionnaire questionnaire, final Path xlfFile, final LocaleId trgLocale) {
+        if (xlfFile == null) {
+            throw new IllegalArgumentException("Invalid XLF file");
+        }
+        checkLocalizeArguments(questionnaire, trgLocale);
+        final TranslationApplier ta = readTranslations(xlfFile, detectSourceLocale(questionnaire), trgLocale, false);
+        return new LocalizedQuestionnaire(questionnaire, CoachIndex.of(questionnaire), trgLocale.toBCP47(), ta.getTranslations());
+    }
+
+    /**
+     * Creates a read-only view of a coach in one target language from an XLIFF stream, which is read to its end,
+     * but not closed.
+     *
+     * @param questionnaire the base coach, which must not be modified while the view is used
+     * @param xlfStream the stream of the XLIFF file containing the translations
+     * @param trgLocale the target language
+     * @return the localized view of the coach
+     * @see #localize(Questionnaire, Path, LocaleId)
+     */
+    public LocalizedQuestionnaire localize(final Questionnaire questionnaire, final InputStream xlfStream, final LocaleId trgLocale) {
+        if (xlfStream == null) {
+            throw new IllegalArgumentException("Invalid XLF stream");
+        }
+        checkLocalizeArguments(questionnaire, trgLocale);
+        log.info("Reading translation entries from stream");
+        final TranslationApplier ta = readTranslations(new RawDocument(Streams.nonClosing(xlfStream),
+                StandardCharsets.UTF_8.name(), detectSourceLocale(questionnaire), trgLocale), trgLocale, false);
+        return new LocalizedQuestionnaire(questionnaire, CoachIndex.of(questionnaire), trgLocale.toBCP47(), ta.getTranslations());
+    }
+
+    /**
+     * Creates read-only views of a coach for all target languages of a multilingual XLIFF file, which is read
+     * only once.
+     *
+     * @param questionnaire the base coach, which must not be modified while the views are used
+     * @param xlfFile path of the XLIFF file containing the translations of several languages
+     * @return the localized views by target language, in the order of the XLIFF file
+     * @see #mergeMultilingual(Path, Path, Function)
+     */
+    public Map<String, LocalizedQuestionnaire> localizeMultilingual(final Questionnaire questionnaire, final Path xlfFile) {
+        if (questionnaire == null) {
+            throw new IllegalArgumentException("Invalid questionnaire");
+        }
+        if (xlfFile == null) {
+            throw new IllegalArgumentException("Invalid XLF file");
+        }
+        final Map<String, LocalizedQuestionnaire> views = new LinkedHashMap<>();
+        final CoachIndex index = CoachIndex.of(questionnaire);
+        for (Map.Entry<LocaleId, TranslationApplier> entry : readMultilingualTranslations(xlfFile, detectSourceLocale(questionnaire), false).entrySet()) {
+            final String targetLang = entry.getKey().toBCP47();
+            views.put(targetLang, new LocalizedQuestionnaire(questionnaire, index, targetLang, entry.getValue().getTranslations()));
+        }
+        return views;
+    }
+
+    private static void checkLocalizeArguments(final Questionnaire questionnaire, final LocaleId trgLocale) {
+        if (questionnaire == null) {
+            throw new IllegalArgumentException("Invalid questionnaire");
+        }
+        if (trgLocale == null) {
+            throw new IllegalArgumentException("Invalid target language");
+        }
+    }
+
+    private MergeReport mergeLocale(final Questionnaire questionnaire, final CoachIndex index, final LocaleId srcLocale, final Path xlfFile,
+                                    final LocaleId trgLocale, final Path outputFile, final PhaseTimer timer) throws IOException, JAXBException {
+        final TranslationApplier ta = readTranslations(xlfFile, srcLocale, trgLocale, true);
+        timer.completed(MergeReport.Phase.XLIFF_READ);
+        return applyAndMarshal(questionnaire, index, trgLocale, ta, outputFile, timer);
+    }
+
+    private MergeReport applyAndMarshal(final Questionnaire questionnaire, final CoachIndex index, final LocaleId trgLocale,
+                                        final TranslationApplier ta, final Path outputFile, final PhaseTimer timer) throws JAXBException {
+        ta.apply(questionnaire, index);
+        timer.completed(MergeReport.Phase.APPLY);
+
+        marshal(questionnaire, outputFile);
+        timer.completed(MergeReport.Phase.MARSHAL);
+
+        log.info("Translated coach written to '{}'", outputFile);
+
+        remember(trgLocale, ta);
+        return report(trgLocale, outputFile, ta, timer);
+    }
+
+    private static void writeBundle(final Questionnaire questionnaire, final CoachIndex index, final LocaleId trgLocale,
+                                    final TranslationBundle.Format format, final OutputStream outputStream) throws IOException {
+        final Map<String, String> texts = new HashMap<>(index.size() * 2);
+        for (int position = 0; position < index.size(); position++) {
+            final String text = index.get(questionnaire, position);
+            if (text != null) {
+                texts.putIfAbsent(index.getId(position).toString(), text);
+            }
+        }
+        TranslationBundle.write(trgLocale.toBCP47(), texts, format, outputStream);
+    }
+
+    /**
+     * @return the settings of the engine which affect the outputs or the reports of an operation, as part of the
+     * keys of a {@link BuildCache}
+     */
+    String getConfiguration() {
+        final TranslationMemory memory = translationMemory;
+        return "qualityChecks=" + qualityChecks
+                + ";skipOutdated=" + skipOutdated
+                + ";translationMemory=" + (memory != null ? memory.getDirectory().toAbsolutePath().normalize() : "")
+                + ";fuzzy=" + fuzzyMaxSuggestions + "/" + fuzzyMinScore;
+    }
+
+    /**
+     * Completes a merge whose translated coach was served from a cache instead of being written: the translations
+     * are added to the translation memory and the listeners are notified with the report of the original merge.
+     *
+     * @param inputFile path of the original coach
+     * @param xlfFile path of the XLIFF file containing the translations
+     * @param trgLocale the target language
+     * @param report the report of the original merge
+     * @throws IOException if the source language of the coach could not be read
+     */
+    void completeCachedMerge(final Path inputFile, final Path xlfFile, final LocaleId trgLocale, final MergeReport report) throws IOException {
+        if (translationMemory != null) {
+            final RawDocument xlfDocument = new RawDocument(xlfFile.toUri(), StandardCharsets.UTF_8.name(), detectSourceLocale(inputFile), trgLocale);
+            remember(trgLocale, readTranslations(xlfDocument, trgLocale, new TranslationApplier(trgLocale, true, null, false)));
+        }
+        log.info("Applied {} translations (cached)", report.getAppliedCount());
+        notifyListeners(mergeListeners, listener -> listener.mergeCompleted(report));
+    }
+
+    private MergeReport report(final LocaleId trgLocale, final Path outputFile, final TranslationApplier ta, final PhaseTimer timer) {
+        final MergeReport report = new MergeReport(trgLocale.toBCP47(), outputFile, ta.getApplyCount(), ta.getMissingIds(),
+                ta.getStaleIds(), ta.getOutdatedIds(), ta.getQualityIssues(), timer.durations);
+
+        log.info("Applied {} translations", report.getAppliedCount());
+        if (report.getMissingCount() > 0) {
+            log.warn("Could not find {} translations", report.getMissingCount());
+        }
+        if (report.getStaleCount() > 0) {
+            log.warn("{} translations do not match any text of the coach", report.getStaleCount());
+        }
+        if (report.getOutdatedCount() > 0) {
+            log.warn("{} translations were made for a former text of the coach", report.getOutdatedCount());
+        }
+        if (!report.getQualityIssues().isEmpty()) {
+            log.warn("Quality checks found {} issues in the translations", report.getQualityIssues().size());
+        }
+
+        notifyListeners(mergeListeners, listener -> listener.mergeCompleted(report));
+        return report;
+    }
+
+    /**
+     * Adds the translations of a successful merge to the translation memory. A failure to do so does not fail
+     * the merge, since the translated coach has already been written.
+     */
+    private void remember(final LocaleId trgLocale, final TranslationApplier ta) {
+        final TranslationMemory memory = translationMemory;
+        if (memory == null) {
+            return;
+        }
+        try {
+            for (Map.Entry<String, String> sourceTarget : ta.getSourceTargets()) {
+                memory.put(sourceTarget.getKey(), trgLocale, sourceTarget.getValue());
+            }
+        } catch (IOException e) {
+            log.warn("Could not add translations to translation memory", e);
+        }
+    }
+
+    private void fireMergeFailed(final Path inputFile, final LocaleId trgLocale, final Exception error) {
+        notifyListeners(mergeListeners, listener -> listener.mergeFailed(inputFile, trgLocale.toBCP47(), error));
+    }
+
+    /**
+     * Calls the listeners of a merge. A failing listener is logged and neither affects the other listeners nor
+     * the outcome of the merge.
+     */
+    private static void notifyListeners(final List<MergeListener> listeners, final Consumer<MergeListener> call) {
+        for (MergeListener listener : listeners) {
+            try {
+                call.accept(listener);
+            } catch (RuntimeException e) {
+                log.warn("Merge listener failed", e);
+            }
+        }
+    }
+
+    private TranslationApplier readTranslations(final Path xlfFile, final LocaleId srcLocale, final LocaleId trgLocale, final boolean merge) {
+        log.info("Reading translation entries from '{}'", xlfFile);
+        return readTranslations(new RawDocument(xlfFile.toUri(), StandardCharsets.UTF_8.name(), srcLocale, trgLocale), trgLocale, merge);
+    }
+
+    /**
+     * @param merge whether the translations are read for a merge, which keeps their sources for the translation
+     *              memory and checks their quality
+     */
+    private TranslationApplier readTranslations(final RawDocument xlfDocument, final LocaleId trgLocale, final boolean merge) {
+        return readTranslations(xlfDocument, trgLocale, newApplier(trgLocale, merge));
+    }
+
+    private TranslationApplier readTranslations(final RawDocument xlfDocument, final LocaleId trgLocale, final TranslationApplier ta) {
+        // load all available translations
+        try (IFilter filter = new XLIFFFilter()) {
+            filter.open(xlfDocument);
+            while (filter.hasNext()) {
+                Event event = filter.next();
+                if (event.getEventType() == EventType.TEXT_UNIT) {
+                    final ITextUnit textUnit = event.getTextUnit();
+                    if (!textUnit.getTargetLocales().isEmpty()) {
+                        if (textUnit.getTargetLocales().size() > 1) {
+                            throw new IllegalArgumentException("More than one target language in XLIFF file for id=" + textUnit.getId());
+                        }
+                        final LocaleId localeId = textUnit.getTargetLocales().iterator().next();
+                        if (trgLocale != localeId) {
+                            throw new IllegalArgumentException("Requested target languages does not match translation (id=" + textUnit.getId() + ")");
+                        }
+                    } else {
+                        log.debug("Translation entry contains no target element -> {}", textUnit.getId());
+                    }
+                    ta.learn(textUnit);
+                }
+            }
+        }
+        log.info("Loaded {} translation entries", ta.memoryCount());
+        return ta;
+    }
+
+    /**
+     * Reads the translations of all target languages of an XLIFF file at once. The target language of a text unit
+     * is the one of its {@code <file>} element, or of its targets.
+     *
+     * @return the translations by target language, in the order of their first appearance
+     */
+    private Map<LocaleId, TranslationApplier> readMultilingualTranslations(final Path xlfFile, final LocaleId srcLocale, final boolean merge) {
+        final Map<LocaleId, TranslationApplier> appliers = new LinkedHashMap<>();
+
+        log.info("Reading translation entries of all languages from '{}'", xlfFile);
+        try (IFilter filter = new XLIFFFilter()) {
+            // the filter uses the target language declared by every <file> element
+            filter.open(new RawDocument(xlfFile.toUri(), StandardCharsets.UTF_8.name(), srcLocale, LocaleId.EMPTY));
+            LocaleId fileLocale = null;
+            while (filter.hasNext()) {
+                Event event = filter.next();
+                if (event.getEventType() == EventType.START_SUBDOCUMENT) {
+                    final Property targetLanguage = event.getStartSubDocument().getProperty("targetLanguage");
+                    fileLocale = targetLanguage != null && StringUtils.isNotBlank(targetLanguage.getValue())
+                            ? LocaleId.fromString(targetLanguage.getValue()) : null;
+                } else if (event.getEventType() == EventType.TEXT_UNIT) {
+                    final ITextUnit textUnit = event.getTextUnit();
+                    final Set<LocaleId> locales = new LinkedHashSet<>(textUnit.getTargetLocales());
+                    if (fileLocale != null) {
+                        locales.add(fileLocale);
+                    }
+                    if (locales.isEmpty()) {
+                        log.debug("Translation entry contains no target language -> {}", textUnit.getId());
+                    }
+                    for (LocaleId locale : locales) {
+                        appliers.computeIfAbsent(locale, l -> newApplier(l, merge)).learn(textUnit);
+                    }
+                }
+            }
+        }
+        if (appliers.isEmpty()) {
+            throw new IllegalArgumentException("No target language in XLIFF file " + xlfFile);
+        }
+        for (Map.Entry<LocaleId, TranslationApplier> entry : appliers.entrySet()) {
+            log.info("Loaded {} translation entries for '{}'", entry.getValue().memoryCount(), entry.getKey());
+        }
+        return appliers;
+    }
+
+    private TranslationApplier newApplier(final LocaleId trgLocale, final boolean merge) {
+        return merge ? new TranslationApplier(trgLocale, translationMemory != null, qualityChecks ? workers : null, skipOutdated) : new TranslationApplier(trgLocale);
+    }
+
+    /**
+     * Returns the fuzzy matcher of a translation memory, which is built once per memory and target language. The
+     * entries added to the memory since are indexed on top of it, without reading the whole memory again.
+     */
+    private FuzzyMatcher fuzzyMatcher(final TranslationMemory memory, final LocaleId trgLocale) {
+        synchronized (fuzzyMatchers) {
+            final CachedMatcher cached = fuzzyMatchers.get(trgLocale);
+            // the position is read first, entries added meanwhile are indexed twice, which is harmless
+            final long position = memory.getPosition();
+            final CachedMatcher current;
+            if (cached == null || cached.memory != memory) {
+                current = new CachedMatcher(memory, position, FuzzyMatcher.of(memory, trgLocale));
+            } else if (cached.position != position) {
+                current = new CachedMatcher(memory, position,
+                        cached.matcher.extend(memory.getTranslationsSince(cached.position, trgLocale)));
+            } else {
+                return cached.matcher;
+            }
+            fuzzyMatchers.put(trgLocale, current);
+            return current.matcher;
+        }
+    }
+
+    private LocaleId detectSourceLocale(final Questionnaire questionnaire) {
+        return detectSourceLocale(questionnaire.getLanguage());
+    }
+
+    /**
+     * Reads the source language from the root element of a coach, without reading the rest of the coach.
+     */
+    private LocaleId detectSourceLocale(final Path inputFile) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(inputFile))) {
+            final XMLStreamReader reader = StreamingExtractor.createInputFactory().createXMLStreamReader(in);
+            try {
+                reader.nextTag();
+                return detectSourceLocale(reader.getAttributeValue(null, "language"));
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not read '" + inputFile + "'", e);
+        }
+    }
+
+    /**
+     * @param language the {@code language} attribute of a coach, which may be missing or blank
+     * @return the source language of the coach, English if the coach has none
+     */
+    static LocaleId detectSourceLocale(final String language) {
+        // get source language from XML or use English as fallback
+        final LocaleId srcLocale;
+        if (StringUtils.isNotBlank(language)) {
+            srcLocale = new LocaleId(language);
+            log.info("Detected source language is '{}'", srcLocale.getLanguage());
+        } else {
+            srcLocale = new LocaleId("en");
+            log.info("No source language set, falling back to '{}'", srcLocale.getLanguage());
+        }
+        return srcLocale;
+    }
+
+    private static final class CachedMatcher {
+
+        private final TranslationMemory memory;
+        private final long position;
+        private final FuzzyMatcher matcher;
+
+        CachedMatcher(final TranslationMemory memory, final long position, final FuzzyMatcher matcher) {
+            this.memory = memory;
+            this.position = position;
+            this.matcher = matcher;
+        }
+    }
+
+    /**
+     * Measures the time spent in the phases of one merge operation and passes every phase to the listeners.
+     */
+    private static final class PhaseTimer {
+
+        private final Map<MergeReport.Phase, Duration> durations = new EnumMap<>(MergeReport.Phase.class);
+        private final String targetLang;
+        private final List<MergeListener> listeners;
+        private long mark;
+
+        PhaseTimer(final long start, final LocaleId trgLocale, final List<MergeListener> listeners) {
+            this.mark = start;
+            this.targetLang = trgLocale.toBCP47();
+            this.listeners = listeners;
+        }
+
+        /**
+         * Adds the time since the previous call, or since the start, to a phase. The time of the listeners is not
+         * part of any phase.
+         */
+        void completed(final MergeReport.Phase phase) {
+            add(phase, Duration.ofNanos(System.nanoTime() - mark));
+            mark = System.nanoTime();
+        }
+
+        /**
+         * Adds the time of a step shared with other merge operations to a phase.
+         */
+        void shared(final MergeReport.Phase phase, final long nanos) {
+            add(phase, Duration.ofNanos(nanos));
+        }
+
+        private void add(final MergeReport.Phase phase, final Duration duration) {
+            durations.merge(phase, duration, Duration::plus);
+            notifyListeners(listeners, listener -> listener.phaseCompleted(targetLang, phase, duration));
+        }
+    }
+
+    /**
+     * Creates an XLIFF writer configured for the extraction of coaches.
+     *
+     * @param inputFile path of the original coach
+     * @param outputFile path of the XLIFF file to be written
+     * @param srcLocale the source language of the coach
+     * @return the writer, to be closed by the caller
+     * @throws IOException if the XLIFF file could not be created
+     */
+    static XLIFFWriter createXliffWriter(final Path inputFile, final Path outputFile, final LocaleId srcLocale) throws IOException {
+        return initXliffWriter(new XLIFFWriter(), inputFile, outputFile, srcLocale, null);
+    }
+
+    private static XLIFFWriter initXliffWriter(final XLIFFWriter writer, final Path inputFile, final Path outputFile,
+                                               final LocaleId srcLocale, final LocaleId trgLocale) throws IOException {
+        // the writer closes the stream, which works for paths on any file system
+        final OutputStream outputStream = Files.newOutputStream(outputFile);
+        try {
+            return initXliffWriter(writer, inputFile.getFileName().toString(), outputStream, srcLocale, trgLocale);
+        } catch (RuntimeException e) {
+            outputStream.close();
+            throw e;
+        }
+    }
+
+    private static XLIFFWriter initXliffWriter(final XLIFFWriter writer, final String originalFileName, final OutputStream outputStream,
+                                               final LocaleId srcLocale, final LocaleId trgLocale) {
+        writer.setOutput(outputStream);
+        writer.create(null, null, srcLocale, trgLocale, "xml", originalFileName, null);
+        return configureXliffWriter(writer);
+    }
+
+    private static XLIFFWriter configureXliffWriter(final XLIFFWriter writer) {
+
+        XLIFFWriterParameters paramsXliff = writer.getParameters();
+        paramsXliff.setPlaceholderMode(true);
+        paramsXliff.setCopySource(false);
+        paramsXliff.setIncludeAltTrans(true);
+        paramsXliff.setIncludeCodeAttrs(false);
+        paramsXliff.setEscapeGt(true);
+        return writer;
+    }
+
+    /**
+     * Creates the parent directories of an output file if they do not exist, a file at the root of a file system
+     * has no parent.
+     */
+    private static void createParentDirectories(final Path outputFile) throws IOException {
+        final Path parent = outputFile.getParent();
+        if (parent != null && Files.notExists(parent)) {
+            Files.createDirectories(parent);
+        }
+    }
+
+    private Unmarshaller borrowUnmarshaller() throws JAXBException {
+        final Unmarshaller unmarshaller = unmarshallerPool.poll();
+        return unmarshaller != null ? unmarshaller : context.createUnmarshaller();
+    }
+
+    private Marshaller borrowMarshaller() throws JAXBException {
+        Marshaller marshaller = marshallerPool.poll();
+        if (marshaller == null) {
+            marshaller = context.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+        }
+        return marshaller;
+    }
+
+    private void extractGeneralAttributes(final Questionnaire questionnaire, final XLIFFWriter writer) {
+        writer.writeTextUnit(SourceHash.textUnit(
+                TextUnitId.attr(TextUnitId.COACH_READABLE_NAME).toString(),
+                questionnaire.getReadableName()
+        ));
+        writer.writeTextUnit(SourceHash.textUnit(
+                TextUnitId.attr(TextUnitId.COACH_DESCRIPTION).toString(),
+                questionnaire.getDescription()));
+    }
+
+    private void extractQuestions(final Questionnaire questionnaire, final XLIFFWriter writer) {
+        if (questionnaire.getQuestions() == null) {
+            return;
+        }
+        for (Question question : questionnaire.getQuestions().getQuestion()) {
+            writer.writeTextUnit(SourceHash.textUnit(
+                    TextUnitId.attr(TextUnitId.QST_TEXT).qst(question).toString(),
+                    question.getText()
+            ));
+            if (StringUtils.isNotBlank(question.getIntroduction())) {
+                writer.writeTextUnit(SourceHash.textUnit(
+                        TextUnitId.attr(TextUnitId.QST_INTRODUCTION).qst(question).toString(),
+                        question.getIntroduction()
+                ));
+            }
+            if (question.getOptions() != null) {
+                for (Option option : question.getOptions().getOption()) {
+                    if (StringUtils.isNotBlank(option.getText())) {
+                        writer.writeTextUnit(SourceHash.textUnit(
+                                TextUnitId.attr(TextUnitId.OPT_TEXT).qst(question).opt(option).toString(),
+                                option.getText()
+                        ));
+                    }
+                    if (StringUtils.isNotBlank(option.getComment())) {
+                        writer.writeTextUnit(SourceHash.textUnit(
+                                TextUnitId.attr(TextUnitId.OPT_COMMENT).qst(question).opt(option).toString(),
+                                option.getComment()
+                        ));
+                    }
+                }
+            }
+            if (StringUtils.isNotBlank(question.getInfotext())) {
+                writer.writeTextUnit(SourceHash.textUnit(
+                        TextUnitId.attr(TextUnitId.QST_INFOTEXT).qst(question).toString(),
+                        question.getInfotext()
+                ));
+            }
+            if (StringUtils.isNotBlank(question.getReadMore())) {
+                writer.writeTextUnit(SourceHash.textUnit(
+                        TextUnitId.attr(TextUnitId.QST_READ_MORE).qst(question).toString(),
+                        question.getReadMore()
+                ));
+            }
+            if (question.getInstruction() != null && StringUtils.isNotBlank(question.getInstruction().getText())) {
+                writer.writeTextUnit(SourceHash.textUnit(
+                        TextUnitId.attr(TextUnitId.QST_INSTRUCTION).qst(question).toString(),
+                        question.getInstruction().getText()
+                ));
+            }
+        }
+    }
+
+    private void extractDictionary(final Questionnaire questionnaire, final XLIFFWriter writer) {
+        if (questionnaire.getDictionary() == null) {
+            return;
+        }
+        for (DictionaryEntry entry : questionnaire.getDictionary().getEntry()) {
+            writer.writeTextUnit(SourceHash.textUnit(
+                    TextUnitId.attr(TextUnitId.DK_TEXT).dkey(entry.getKey()).toString(),
+                    entry.getValue()
+            ));
+        }
+    }
+}
@@ -0,0 +1,522 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import net.sf.okapi.common.LocaleId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Persistent translation memory with exact matches by source text and target language.
+ * <p>
+ * The memory consists of two files in its directory: {@code memory.dat} holds the entries as appended records of
+ * target language, source and target text, and {@code memory.idx} is an open-addressing hash table from a 64-bit
+ * key to the offset of the newest record. Both files are memory-mapped, so a lookup costs a hash, usually one probe
+ * and the decoding of one record, independent of the number of entries. Source texts are compared with normalized
+ * whitespace, see {@link SourceHash#normalize(String)}.
+ * <p>
+ * The data file is mapped in chunks of doubling size, so it is usually longer than its records, whose end is stored
+ * in the header of the index together with the offset of the last record. The files are only forced to the disk on
+ * {@link #close()}, so after a crash of the system the index may refer to records which were never written. If the
+ * last record is incomplete when the memory is opened, the index is rebuilt from the complete records.
+ * <p>
+ * An instance is thread-safe and lookups run concurrently, but a directory must not be opened by several instances
+ * at the same time. Each file is limited to 2 GB.
+ *
+ * @author Matthias Luppi
+ */
+public class TranslationMemory implements Closeable {
+
+    private static final String INDEX_FILE = "memory.idx";
+    private static final String DATA_FILE = "memory.dat";
+    private static final int MAGIC = 0x43544d49;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int SLOT_SIZE = 16;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MIN_DATA_SIZE = 64 * 1024;
+
+    private static final Logger log = LoggerFactory.getLogger(TranslationMemory.class);
+
+    private final Path dir;
+    private final FileChannel indexChannel;
+    private final FileChannel dataChannel;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private MappedByteBuffer index;
+    private MappedByteBuffer data;
+    private int capacity;
+    private int count;
+    private long dataSize;
+    private long lastRecord;
+
+    private TranslationMemory(final Path dir, final FileChannel indexChannel, final FileChannel dataChannel) {
+        this.dir = dir;
+        this.indexChannel = indexChannel;
+        this.dataChannel = dataChannel;
+    }
+
+    /**
+     * Opens the translation memory in a directory, which is created if it does not exist.
+     *
+     * @param dir the directory of the translation memory
+     * @return the opened translation memory, to be closed by the caller
+     * @throws IOException if the translation memory could not be opened
+     */
+    public static TranslationMemory open(final Path dir) throws IOException {
+        if (dir == null) {
+            throw new IllegalArgumentException("Invalid translation memory directory");
+        }
+        Files.createDirectories(dir);
+        final FileChannel indexChannel = FileChannel.open(dir.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final FileChannel dataChannel;
+        try {
+            dataChannel = FileChannel.open(dir.resolve(DATA_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            indexChannel.close();
+            throw e;
+        }
+        final TranslationMemory memory = new TranslationMemory(dir, indexChannel, dataChannel);
+        try {
+            memory.load();
+        } catch (IOException e) {
+            memory.close();
+            throw e;
+        }
+        return memory;
+    }
+
+    private void load() throws IOException {
+        if (indexChannel.size() == 0) {
+            capacity = MIN_CAPACITY;
+            index = mapIndex(capacity);
+            writeHeader();
+        } else {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            indexChannel.read(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a translation memory index");
+            }
+            capacity = header.getInt();
+            count = header.getInt();
+            dataSize = header.getLong();
+            lastRecord = header.getLong();
+            if (Integer.bitCount(capacity) != 1 || dataSize > Integer.MAX_VALUE || lastRecord > dataSize) {
+                throw new IOException("Corrupt translation memory index");
+            }
+            index = mapIndex(capacity);
+        }
+        // records after the end stored in the index are incomplete and overwritten by the next entries
+        mapData(Math.max(dataSize, Math.min(dataChannel.size(), Integer.MAX_VALUE)));
+        if (dataSize > 0 && recordEnd(lastRecord, data.capacity()) != dataSize) {
+            recover();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the complete records, whose end the index is ahead of, e.g. after a power failure.
+     */
+    private void recover() throws IOException {
+        log.warn("Translation memory {} is incomplete, rebuilding the index", dir);
+        for (int slot = 0; slot < capacity; slot++) {
+            setSlot(slot, 0, 0);
+        }
+        count = 0;
+        long offset = 0;
+        long last = 0;
+        for (long end; (end = recordEnd(offset, data.capacity())) >= 0; offset = end) {
+            final String[] record = readRecord(offset);
+            final long key = key(record[1], record[0]);
+            insert(find(key, record[1], record[0]), key, offset);
+            last = offset;
+        }
+        dataSize = offset;
+        lastRecord = last;
+        writeHeader();
+        log.info("Recovered {} entries of translation memory {}", count, dir);
+    }
+
+    /**
+     * Looks up the translation of a source text.
+     *
+     * @param source the source text
+     * @param trgLocale the target language
+     * @return the target text of the newest entry, or null if there is none
+     */
+    public String get(final String source, final LocaleId trgLocale) {
+        final String normalized = SourceHash.normalize(source);
+        final String lang = trgLocale.toBCP47();
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            final int slot = find(key(normalized, lang), normalized, lang);
+            return slot >= 0 ? readRecord(offset(slot))[2] : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces the translation of a source text. Empty sources and targets are ignored.
+     *
+     * @param source the source text
+     * @param trgLocale the target language
+     * @param target the target text
+     * @throws IOException if the entry could not be written
+     */
+    public void put(final String source, final LocaleId trgLocale, final String target) throws IOException {
+        final String normalized = SourceHash.normalize(source);
+        if (normalized.isEmpty() || target == null || target.isEmpty()) {
+            return;
+        }
+        final String lang = trgLocale.toBCP47();
+        final long key = key(normalized, lang);
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            final int slot = find(key, normalized, lang);
+            if (slot >= 0 && target.equals(readRecord(offset(slot))[2])) {
+                return;
+            }
+            final long offset = appendRecord(lang, normalized, target);
+            insert(slot, key, offset);
+            lastRecord = offset;
+            writeHeader();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns all entries of a target language.
+     *
+     * @param trgLocale the target language
+     * @return pairs of normalized source and target text, in no particular order
+     */
+    public List<Map.Entry<String, String>> getTranslations(final LocaleId trgLocale) {
+        final String lang = trgLocale.toBCP47();
+        final List<Map.Entry<String, String>> translations = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            for (int slot = 0; slot < capacity; slot++) {
+                if (index.getLong(HEADER_SIZE + slot * SLOT_SIZE) != 0) {
+                    final String[] record = readRecord(offset(slot));
+                    if (record[0].equals(lang)) {
+                        translations.add(new AbstractMap.SimpleImmutableEntry<>(record[1], record[2]));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return translations;
+    }
+
+    /**
+     * @return the position after the last entry, which grows with every entry added or replaced
+     */
+    long getPosition() {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            return dataSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the entries of a target language added or replaced since a position, by reading only the records
+     * appended since then.
+     *
+     * @param position a position returned by {@link #getPosition()}
+     * @param trgLocale the target language
+     * @return pairs of normalized source and target text, from the oldest to the newest
+     */
+    List<Map.Entry<String, String>> getTranslationsSince(final long position, final LocaleId trgLocale) {
+        final String lang = trgLocale.toBCP47();
+        final List<Map.Entry<String, String>> translations = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            if (position < 0 || position > dataSize) {
+                throw new IllegalArgumentException("Invalid position " + position);
+            }
+            for (long offset = position; offset < dataSize; offset = recordEnd(offset, dataSize)) {
+                final String[] record = readRecord(offset);
+                if (record[0].equals(lang)) {
+                    translations.add(new AbstractMap.SimpleImmutableEntry<>(record[1], record[2]));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return translations;
+    }
+
+    /**
+     * @return the directory of the translation memory
+     */
+    public Path getDirectory() {
+        return dir;
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (!indexChannel.isOpen()) {
+                return;
+            }
+            try {
+                // the records first, so the index never refers to records missing on the disk
+                if (data != null) {
+                    data.force();
+                }
+                if (index != null) {
+                    index.force();
+                }
+            } finally {
+                index = null;
+                data = null;
+                try {
+                    dataChannel.close();
+                } finally {
+                    indexChannel.close();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the slot of the entry, or -1 if there is none
+     */
+    private int find(final long key, final String normalized, final String lang) {
+        final int mask = capacity - 1;
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            final long slotKey = index.getLong(HEADER_SIZE + slot * SLOT_SIZE);
+            if (slotKey == 0) {
+                return -1;
+            }
+            if (slotKey == key) {
+                // the key is a hash, so the record must match as well
+                final String[] record = readRecord(offset(slot));
+                if (record[0].equals(lang) && record[1].equals(normalized)) {
+                    return slot;
+                }
+            }
+        }
+    }
+
+    /**
+     * Points the slot of an entry to a new record, or inserts the entry if the slot is -1.
+     */
+    private void insert(final int slot, final long key, final long offset) throws IOException {
+        if (slot >= 0) {
+            setSlot(slot, key, offset);
+        } else {
+            if (count + 1 > capacity >>> 1) {
+                grow();
+            }
+            setSlot(freeSlot(key), key, offset);
+            count++;
+        }
+    }
+
+    private int freeSlot(final long key) {
+        final int mask = capacity - 1;
+        int slot = slot(key);
+        while (index.getLong(HEADER_SIZE + slot * SLOT_SIZE) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int slot(final long key) {
+        return (int) (key >>> 32 ^ key) & (capacity - 1);
+    }
+
+    private long offset(final int slot) {
+        return index.getLong(HEADER_SIZE + slot * SLOT_SIZE + 8);
+    }
+
+    private void setSlot(final int slot, final long key, final long offset) {
+        index.putLong(HEADER_SIZE + slot * SLOT_SIZE, key);
+        index.putLong(HEADER_SIZE + slot * SLOT_SIZE + 8, offset);
+    }
+
+    /**
+     * Doubles the capacity of the index and inserts all entries again.
+     */
+    private void grow() throws IOException {
+        final long[] keys = new long[count];
+        final long[] offsets = new long[count];
+        int n = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            final long key = index.getLong(HEADER_SIZE + slot * SLOT_SIZE);
+            if (key != 0) {
+                keys[n] = key;
+                offsets[n] = offset(slot);
+                n++;
+            }
+        }
+        if ((long) capacity * 2 * SLOT_SIZE + HEADER_SIZE > Integer.MAX_VALUE) {
+            throw new IOException("Translation memory index exceeds 2 GB");
+        }
+        capacity *= 2;
+        index = mapIndex(capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            setSlot(slot, 0, 0);
+        }
+        for (int i = 0; i < n; i++) {
+            setSlot(freeSlot(keys[i]), keys[i], offsets[i]);
+        }
+    }
+
+    private MappedByteBuffer mapIndex(final int capacity) throws IOException {
+        return indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+    }
+
+    /**
+     * Maps the data file with the next chunk size of at least the given size, which extends the file if necessary.
+     */
+    private void mapData(final long minSize) throws IOException {
+        long size = MIN_DATA_SIZE;
+        while (size < minSize) {
+            size *= 2;
+        }
+        data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(size, Integer.MAX_VALUE));
+    }
+
+    private void writeHeader() {
+        index.putInt(0, MAGIC);
+        index.putInt(4, VERSION);
+        index.putInt(8, capacity);
+        index.putInt(12, count);
+        index.putLong(16, dataSize);
+        index.putLong(24, lastRecord);
+    }
+
+    private long appendRecord(final String lang, final String source, final String target) throws IOException {
+        final byte[][] fields = {
+                lang.getBytes(StandardCharsets.UTF_8),
+                source.getBytes(StandardCharsets.UTF_8),
+                target.getBytes(StandardCharsets.UTF_8)
+        };
+        int size = 0;
+        for (byte[] field : fields) {
+            size += 4 + field.length;
+        }
+        if (dataSize + size > Integer.MAX_VALUE) {
+            throw new IOException("Translation memory data exceeds 2 GB");
+        }
+        if (dataSize + size > data.capacity()) {
+            mapData(dataSize + size);
+        }
+        final ByteBuffer buffer = data.duplicate();
+        buffer.position((int) dataSize);
+        for (byte[] field : fields) {
+            buffer.putInt(field.length).put(field);
+        }
+        final long offset = dataSize;
+        dataSize = buffer.position();
+        return offset;
+    }
+
+    /**
+     * @return the offset after the record at the given offset, or -1 if the record is incomplete before the limit
+     */
+    private long recordEnd(final long offset, final long limit) {
+        long position = offset;
+        for (int i = 0; i < 3; i++) {
+            if (position + 4 > limit) {
+                return -1;
+            }
+            final int length = data.getInt((int) position);
+            // the fields are never empty, unlike the zeros of an unwritten record
+            if (length < 1 || position + 4 + length > limit) {
+                return -1;
+            }
+            position += 4 + length;
+        }
+        return position;
+    }
+
+    /**
+     * @return target language, normalized source and target of the record
+     */
+    private String[] readRecord(final long offset) {
+        final ByteBuffer buffer = data.duplicate();
+        buffer.position((int) offset);
+        final String[] fields = new String[3];
+        for (int i = 0; i < fields.length; i++) {
+            final byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            fields[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return fields;
+    }
+
+    private void ensureOpen() {
+        if (!indexChannel.isOpen()) {
+            throw new IllegalStateException("Translation memory is closed");
+        }
+    }
+
+    private static long key(final String normalized, final String lang) {
+        long key = SourceHash.of(normalized) ^ lang.hashCode() * 0x9E3779B97F4A7C15L;
+        key ^= key >>> 29;
+        // zero marks a free slot
+        return key != 0 ? key : 1;
+    }
+}
@@ -0,0 +1,378 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.sf.okapi.common.LocaleId;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.bind.JAXBException;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Local HTTP server which runs extract and merge jobs on a long-lived {@link TranslationEngine}.
+ * <p>
+ * Build scripts calling the tool many times pay the start of the JVM and the creation of the JAXB context only once
+ * per server. The server is bound to the loopback address and runs the jobs of concurrent requests in parallel.
+ * Jobs are posted with their parameters in the query string or as form data:
+ * <pre>
+ * POST /extract?input=&lt;coach&gt;&amp;output=&lt;xlf&gt;[&amp;lang=&lt;target language&gt;][&amp;streaming=true]
+ * POST /merge?input=&lt;coach&gt;&amp;xlf=&lt;xlf&gt;&amp;lang=&lt;target language&gt;&amp;output=&lt;coach&gt;[&amp;streaming=true]
+ * GET  /status
+ * </pre>
+ * Paths are resolved by the server, so they should be absolute. The response is plain text with one
+ * {@code key=value} pair per line, starting with {@code status=ok} or {@code status=error}. Invalid jobs are answered
+ * with status 400 and failed jobs with status 500.
+ * <p>
+ * The server generates a random token when it is created, see {@link #getToken()}, which every request must send in
+ * the {@value #TOKEN_HEADER} header, otherwise it is answered with status 401. Requests from web pages, which carry an
+ * {@code Origin} header, and requests for a host name other than a loopback address are answered with status 403.
+ * Thus only the processes which were given the token can read and write the files the server has access to.
+ *
+ * @author Matthias Luppi
+ */
+public class TranslationServer implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(TranslationServer.class);
+
+    /**
+     * Name of the request header with the token of the server.
+     */
+    public static final String TOKEN_HEADER = "X-Translation-Token";
+
+    // minutes to wait for the running jobs when the server is stopped
+    private static final long STOP_TIMEOUT = 1;
+    private static final Pattern LOOPBACK_HOST = Pattern.compile("(localhost|127(\\.\\d{1,3}){3}|\\[::1])(:\\d+)?",
+            Pattern.CASE_INSENSITIVE);
+
+    private final TranslationEngine engine;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String token;
+    private final AtomicLong jobCount = new AtomicLong();
+    // held for reading by every request in progress and for writing once the server is stopped
+    private final ReadWriteLock requestLock = new ReentrantReadWriteLock();
+    private volatile boolean stopping = false;
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Creates a server on the loopback address, which is started with {@link #start()}.
+     *
+     * @param engine the engine to be used, or null to use {@link TranslationEngine#getDefault()}
+     * @param port the port, or 0 to use any free port
+     * @param threads the maximum number of jobs running in parallel
+     * @throws IOException if the server could not be bound to the port
+     * @throws JAXBException if the JAXB context of the default engine could not be created
+     */
+    public TranslationServer(final TranslationEngine engine, final int port, final int threads) throws IOException, JAXBException {
+        if (port < 0 || port > 0xFFFF) {
+            throw new IllegalArgumentException("Invalid port");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads");
+        }
+        this.engine = engine != null ? engine : TranslationEngine.getDefault();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.token = newToken();
+        server.setExecutor(executor);
+        server.createContext("/extract", exchange -> handle(exchange, true, this::extract));
+        server.createContext("/merge", exchange -> handle(exchange, true, this::merge));
+        server.createContext("/status", exchange -> handle(exchange, false, this::status));
+    }
+
+    /**
+     * Starts a server until the JVM is terminated.
+     *
+     * @param args the port, 0 by default, and the number of threads, the number of processors by default
+     * @throws Exception if the server could not be started
+     */
+    public static void main(final String[] args) throws Exception {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final TranslationServer server = new TranslationServer(null, port, threads);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        server.start();
+        // build scripts read the port from the first line and the token from the second line
+        System.out.println("port=" + server.getPort());
+        System.out.println("token=" + server.getToken());
+    }
+
+    public void start() {
+        server.start();
+        log.info("Translation server listening on {}", server.getAddress());
+    }
+
+    /**
+     * @return the port of the server, which is chosen by the system if the server was created with port 0
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return the token which every request must send in the {@value #TOKEN_HEADER} header
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Stops the server, jobs which are running are completed and answered first, but at most for a minute. Requests
+     * arriving in the meantime are answered with status 503.
+     */
+    @Override
+    public void close() {
+        stopping = true;
+        try {
+            // the server stops the exchanges immediately, so the requests in progress are drained before
+            if (!requestLock.writeLock().tryLock(STOP_TIMEOUT, TimeUnit.MINUTES)) {
+                log.warn("Translation server stopped with running jobs");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private Map<String, Object> extract(final Map<String, String> params) throws Exception {
+        final Path inputFile = path(params, "input");
+        final Path outputFile = path(params, "output");
+        final String lang = params.get("lang");
+        if (Boolean.parseBoolean(params.get("streaming"))) {
+            engine.extractStreaming(inputFile, outputFile);
+        } else {
+            engine.extract(inputFile, outputFile, lang != null ? LocaleId.fromString(lang) : null);
+        }
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("outputFile", outputFile);
+        return result;
+    }
+
+    private Map<String, Object> merge(final Map<String, String> params) throws Exception {
+        final Path inputFile = path(params, "input");
+        final Path xlfFile = path(params, "xlf");
+        final Path outputFile = path(params, "output");
+        final String lang = params.get("lang");
+        if (StringUtils.isBlank(lang)) {
+            throw new IllegalArgumentException("Invalid target language");
+        }
+        final LocaleId trgLocale = new LocaleId(lang);
+        final MergeReport report = Boolean.parseBoolean(params.get("streaming"))
+                ? engine.mergeStreaming(inputFile, xlfFile, trgLocale, outputFile)
+                : engine.merge(inputFile, xlfFile, trgLocale, outputFile);
+
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("outputFile", report.getOutputFile());
+        result.put("appliedCount", report.getAppliedCount());
+        result.put("missingCount", report.getMissingCount());
+        result.put("staleCount", report.getStaleCount());
+        result.put("outdatedCount", report.getOutdatedCount());
+        result.put("qualityIssueCount", report.getQualityIssues().size());
+        for (MergeReport.Phase phase : MergeReport.Phase.values()) {
+            result.put(camelCase(phase.name()) + "Millis", report.getDuration(phase).toMillis());
+        }
+        return result;
+    }
+
+    private Map<String, Object> status(final Map<String, String> params) {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jobCount", jobCount.get());
+        result.put("uptimeMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        return result;
+    }
+
+    private void handle(final HttpExchange exchange, final boolean job, final Handler handler) throws IOException {
+        final boolean accepted = !stopping && requestLock.readLock().tryLock();
+        try {
+            respond(exchange, job, handler, accepted);
+        } finally {
+            if (accepted) {
+                requestLock.readLock().unlock();
+            }
+        }
+    }
+
+    private void respond(final HttpExchange exchange, final boolean job, final Handler handler, final boolean accepted) throws IOException {
+        final long start = System.nanoTime();
+        final Map<String, Object> response = new LinkedHashMap<>();
+        int code;
+        try {
+            if (!accepted) {
+                throw new RejectedException(503, "Server is stopping");
+            }
+            checkAccess(exchange);
+            if (job && !"POST".equals(exchange.getRequestMethod())) {
+                throw new IllegalArgumentException("Invalid request method " + exchange.getRequestMethod());
+            }
+            final Map<String, String> params = params(exchange);
+            final Map<String, Object> result = handler.handle(params);
+            response.put("status", "ok");
+            response.putAll(result);
+            code = 200;
+            if (job) {
+                jobCount.incrementAndGet();
+            }
+        } catch (RejectedException e) {
+            log.warn("Request {} rejected: {}", exchange.getRequestURI(), e.getMessage());
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            code = e.code;
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            code = 400;
+        } catch (Exception e) {
+            log.error("Job {} failed", exchange.getRequestURI(), e);
+            response.put("status", "error");
+            response.put("message", e.toString());
+            code = 500;
+        }
+        response.put("durationMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        final StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Object> entry : response.entrySet()) {
+            // values must not break the line format
+            sb.append(entry.getKey()).append('=')
+                    .append(String.valueOf(entry.getValue()).replace('\n', ' ').replace('\r', ' ')).append('\n');
+        }
+        final byte[] body = sb.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void checkAccess(final HttpExchange exchange) throws RejectedException {
+        if (exchange.getRequestHeaders().containsKey("Origin")) {
+            throw new RejectedException(403, "Requests from web pages are not allowed");
+        }
+        final String host = exchange.getRequestHeaders().getFirst("Host");
+        if (host == null || !LOOPBACK_HOST.matcher(host.trim()).matches()) {
+            throw new RejectedException(403, "Invalid host " + host);
+        }
+        final String requestToken = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        if (requestToken == null || !MessageDigest.isEqual(token.getBytes(StandardCharsets.US_ASCII),
+                requestToken.getBytes(StandardCharsets.US_ASCII))) {
+            throw new RejectedException(401, "Invalid token");
+        }
+    }
+
+    private static String newToken() {
+        final byte[] bytes = new byte[24];
+        new SecureRandom().nextBytes(bytes);
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, String> params(final HttpExchange exchange) throws IOException {
+        final Map<String, String> params = new HashMap<>();
+        parse(exchange.getRequestURI().getRawQuery(), params);
+        final String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (InputStream in = exchange.getRequestBody()) {
+                final byte[] buffer = new byte[4096];
+                for (int n; (n = in.read(buffer)) > 0; ) {
+                    body.write(buffer, 0, n);
+                }
+            }
+            parse(new String(body.toByteArray(), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parse(final String query, final Map<String, String> params) throws UnsupportedEncodingException {
+        if (StringUtils.isEmpty(query)) {
+            return;
+        }
+        for (String pair : query.split("&")) {
+            final int separator = pair.indexOf('=');
+            final String key = separator < 0 ? pair : pair.substring(0, separator);
+            final String value = separator < 0 ? "" : pair.substring(separator + 1);
+            params.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+    }
+
+    /**
+     * @return the name of a constant in camel case, e.g. {@code xliffRead} for {@code XLIFF_READ}
+     */
+    private static String camelCase(final String constant) {
+        final StringBuilder sb = new StringBuilder();
+        for (String word : constant.toLowerCase(Locale.ROOT).split("_")) {
+            sb.append(sb.length() == 0 ? word : StringUtils.capitalize(word));
+        }
+        return sb.toString();
+    }
+
+    private static Path path(final Map<String, String> params, final String name) {
+        final String value = params.get(name);
+        if (StringUtils.isBlank(value)) {
+            throw new IllegalArgumentException("Invalid " + name + " file");
+        }
+        return Paths.get(value);
+    }
+
+    private static final class RejectedException extends Exception {
+        private final int code;
+
+        RejectedException(final int code, final String message) {
+            super(message);
+            this.code = code;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Map<String, Object> handle(Map<String, String> params) throws Exception;
+    }
+}
@@ -0,0 +1,277 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+/**
+ * Compact map from {@link TextUnitId} to the target text of a translation.
+ * <p>
+ * Uses open addressing with linear probing over parallel arrays, so an entry costs a few array slots instead of a
+ * map node. Keys can be stored without a target, e.g. for text units with an empty target in the XLIFF file.
+ * Entries looked up with {@link #use(TextUnitId)} are marked, so entries never asked for can be counted. An entry may
+ * also hold the hash of the source text the translation was made for, the arrays of the hashes are only allocated
+ * once the first hash is put.
+ * Instances are not thread-safe.
+ *
+ * @author Matthias Luppi
+ */
+class TranslationTable {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private TextUnitId[] keys;
+    private String[] targets;
+    private boolean[] used;
+    private long[] sourceHashes;
+    private boolean[] hashed;
+    private int size;
+    private int usedCount;
+
+    TranslationTable() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize the number of entries the table holds without resizing
+     */
+    TranslationTable(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative, got " + expectedSize);
+        }
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Adds or replaces an entry
+     *
+     * @param id     the ID of the text unit
+     * @param target the target text or {@code null} if there is none
+     */
+    void put(TextUnitId id, String target) {
+        if (size + 1 > keys.length >>> 1) {
+            resize(keys.length << 1);
+        }
+        final int slot = slot(keys, id);
+        if (keys[slot] == null) {
+            keys[slot] = id;
+            size++;
+        }
+        targets[slot] = target;
+    }
+
+    /**
+     * Sets the hash of the source text of an entry
+     *
+     * @param id   the ID of an entry already put
+     * @param hash the hash of the source text, see {@link SourceHash}
+     */
+    void putSourceHash(TextUnitId id, long hash) {
+        final int slot = slot(keys, id);
+        if (keys[slot] == null) {
+            throw new IllegalArgumentException("Invalid ID without entry: " + id);
+        }
+        if (sourceHashes == null) {
+            sourceHashes = new long[keys.length];
+            hashed = new boolean[keys.length];
+        }
+        sourceHashes[slot] = hash;
+        hashed[slot] = true;
+    }
+
+    /**
+     * @param id the ID of the text unit
+     * @return true if the entry has the hash of its source text
+     */
+    boolean hasSourceHash(TextUnitId id) {
+        return hashed != null && hashed[slot(keys, id)];
+    }
+
+    /**
+     * @param id the ID of the text unit
+     * @return the hash of the source text, only valid if {@link #hasSourceHash(TextUnitId)}
+     */
+    long getSourceHash(TextUnitId id) {
+        return sourceHashes != null ? sourceHashes[slot(keys, id)] : 0L;
+    }
+
+    /**
+     * @param id the ID of the text unit
+     * @return the target text or {@code null} if the ID is unknown or has no target
+     */
+    String get(TextUnitId id) {
+        final int slot = slot(keys, id);
+        return keys[slot] == null ? null : targets[slot];
+    }
+
+    /**
+     * Looks up an entry and marks it as used
+     *
+     * @param id the ID of the text unit
+     * @return the target text or {@code null} if the ID is unknown or has no target
+     */
+    String use(TextUnitId id) {
+        final int slot = slot(keys, id);
+        if (keys[slot] == null) {
+            return null;
+        }
+        if (!used[slot]) {
+            used[slot] = true;
+            usedCount++;
+        }
+        return targets[slot];
+    }
+
+    boolean containsKey(TextUnitId id) {
+        return keys[slot(keys, id)] != null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of entries never looked up with {@link #use(TextUnitId)}
+     */
+    int unusedCount() {
+        return size - usedCount;
+    }
+
+    /**
+     * Passes every entry to an action, in no particular order
+     *
+     * @param action receives the ID and the target text, which may be {@code null}
+     */
+    void forEach(BiConsumer<TextUnitId, String> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept(keys[i], targets[i]);
+            }
+        }
+    }
+
+    /**
+     * Passes every entry not looked up yet to a predicate and marks the entries it accepts as used
+     *
+     * @param predicate receives the ID and the target text, which may be {@code null}
+     */
+    void useWhere(BiPredicate<TextUnitId, String> predicate) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null && !used[i] && predicate.test(keys[i], targets[i])) {
+                used[i] = true;
+                usedCount++;
+            }
+        }
+    }
+
+    /**
+     * @return the IDs of the entries never looked up, in no particular order
+     */
+    List<TextUnitId> unusedKeys() {
+        final List<TextUnitId> unused = new ArrayList<>(unusedCount());
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null && !used[i]) {
+                unused.add(keys[i]);
+            }
+        }
+        return unused;
+    }
+
+    /**
+     * @return a new table holding only the entries with a target, sized for them
+     */
+    TranslationTable withTargetsOnly() {
+        int count = 0;
+        for (String target : targets) {
+            if (target != null) {
+                count++;
+            }
+        }
+        final TranslationTable table = new TranslationTable(count);
+        for (int i = 0; i < keys.length; i++) {
+            if (targets[i] != null) {
+                table.put(keys[i], targets[i]);
+            }
+        }
+        return table;
+    }
+
+    private static int slot(TextUnitId[] keys, TextUnitId id) {
+        final int mask = keys.length - 1;
+        int slot = mix(id.hashCode()) & mask;
+        while (keys[slot] != null && !keys[slot].equals(id)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Spreads the bits of the hash code, the low bits of composed string hashes are poorly distributed
+     */
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void resize(int capacity) {
+        final TextUnitId[] oldKeys = keys;
+        final String[] oldTargets = targets;
+        final boolean[] oldUsed = used;
+        final long[] oldSourceHashes = sourceHashes;
+        final boolean[] oldHashed = hashed;
+        allocate(capacity);
+        if (oldHashed != null) {
+            sourceHashes = new long[capacity];
+            hashed = new boolean[capacity];
+        }
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                final int slot = slot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                targets[slot] = oldTargets[i];
+                used[slot] = oldUsed[i];
+                if (oldHashed != null) {
+                    sourceHashes[slot] = oldSourceHashes[i];
+                    hashed[slot] = oldHashed[i];
+                }
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new TextUnitId[capacity];
+        targets = new String[capacity];
+        used = new boolean[capacity];
+        sourceHashes = null;
+        hashed = null;
+    }
+
+    /**
+     * @return the smallest power of two keeping the load factor at or below 0.5
+     */
+    private static int capacityFor(int expectedSize) {
+        final int capacity = Integer.highestOneBit(Math.max(expectedSize, 1) * 2 - 1) << 1;
+        return Math.max(MIN_CAPACITY, capacity);
+    }
+
+}
@@ -0,0 +1,265 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import net.sf.okapi.common.LocaleId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.bind.JAXBException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches coaches and XLIFF files and re-runs the extractions and merges reading a file when it changes.
+ * <p>
+ * The directories of the input files are watched with a {@link WatchService}. Editors usually write a file with
+ * several events, so the changed files are collected until no further event arrives for the debounce time. Then only
+ * the jobs reading one of the changed files are run, extractions before merges, on the long-lived engine.
+ * <p>
+ * Merges notify the {@link MergeListener}s of the engine. A failing job is logged and does not stop the watcher.
+ *
+ * @author Matthias Luppi
+ */
+public class TranslationWatcher implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(TranslationWatcher.class);
+
+    private final TranslationEngine engine;
+    private final long debounceMillis;
+    private final WatchService watchService;
+    private final Set<Path> watchedDirs = new HashSet<>();
+    private final List<Job> jobs = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+    private final Thread watchThread;
+
+    // guarded by this
+    private final Set<Path> changedFiles = new HashSet<>();
+    private boolean overflow = false;
+    private ScheduledFuture<?> scheduledRun;
+
+    /**
+     * Creates a watcher, which is started with {@link #start()}.
+     *
+     * @param engine the engine to be used, or null to use {@link TranslationEngine#getDefault()}
+     * @param debounce the time without further changes before the jobs are run
+     * @throws IOException if the file system cannot be watched
+     * @throws JAXBException if the JAXB context of the default engine could not be created
+     */
+    public TranslationWatcher(final TranslationEngine engine, final Duration debounce) throws IOException, JAXBException {
+        if (debounce == null || debounce.isNegative()) {
+            throw new IllegalArgumentException("Invalid debounce time");
+        }
+        this.engine = engine != null ? engine : TranslationEngine.getDefault();
+        this.debounceMillis = debounce.toMillis();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "translation-watcher-jobs");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchThread = new Thread(this::watch, "translation-watcher");
+        watchThread.setDaemon(true);
+    }
+
+    /**
+     * Re-extracts a coach whenever it changes.
+     *
+     * @param inputFile path of the original coach
+     * @param outputFile path of the XLIFF file to be written
+     * @throws IOException if the directory of the coach cannot be watched
+     */
+    public void watchExtraction(final Path inputFile, final Path outputFile) throws IOException {
+        if (inputFile == null) {
+            throw new IllegalArgumentException("Invalid input file");
+        }
+        if (outputFile == null) {
+            throw new IllegalArgumentException("Invalid output file");
+        }
+        addJob(new Job(true, "extraction of '" + inputFile + "'", inputFile) {
+            @Override
+            void run() throws Exception {
+                engine.extract(inputFile, outputFile);
+            }
+        });
+    }
+
+    /**
+     * Re-merges a coach whenever the coach or the XLIFF file changes.
+     *
+     * @param inputFile path of the original coach
+     * @param xlfFile path of the XLIFF file containing the translations
+     * @param targetLang the target language
+     * @param outputFile path of the translated coach to be written
+     * @throws IOException if the directories of the coach and the XLIFF file cannot be watched
+     */
+    public void watchMerge(final Path inputFile, final Path xlfFile, final String targetLang, final Path outputFile) throws IOException {
+        if (inputFile == null) {
+            throw new IllegalArgumentException("Invalid input file");
+        }
+        if (xlfFile == null) {
+            throw new IllegalArgumentException("Invalid XLF file");
+        }
+        if (targetLang == null) {
+            throw new IllegalArgumentException("Invalid target language");
+        }
+        if (outputFile == null) {
+            throw new IllegalArgumentException("Invalid output file");
+        }
+        final LocaleId trgLocale = new LocaleId(targetLang);
+        addJob(new Job(false, "merge of '" + inputFile + "' with '" + xlfFile + "'", inputFile, xlfFile) {
+            @Override
+            void run() throws Exception {
+                engine.merge(inputFile, xlfFile, trgLocale, outputFile);
+            }
+        });
+    }
+
+    public void start() {
+        watchThread.start();
+    }
+
+    /**
+     * Stops watching, a job which is running is completed first.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        scheduler.shutdown();
+        try {
+            watchThread.join(TimeUnit.SECONDS.toMillis(10));
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void addJob(final Job job) throws IOException {
+        synchronized (watchedDirs) {
+            for (Path file : job.inputFiles) {
+                final Path dir = file.getParent();
+                if (watchedDirs.add(dir)) {
+                    dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                }
+            }
+        }
+        jobs.add(job);
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                final WatchKey key = watchService.take();
+                final Path dir = (Path) key.watchable();
+                synchronized (this) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            overflow = true;
+                        } else {
+                            changedFiles.add(dir.resolve((Path) event.context()));
+                        }
+                    }
+                    // every further event postpones the run
+                    if (scheduledRun != null) {
+                        scheduledRun.cancel(false);
+                    }
+                    scheduledRun = scheduler.schedule(this::runJobs, debounceMillis, TimeUnit.MILLISECONDS);
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Watch service closed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runJobs() {
+        final Set<Path> changed;
+        final boolean all;
+        synchronized (this) {
+            changed = new HashSet<>(changedFiles);
+            all = overflow;
+            changedFiles.clear();
+            overflow = false;
+        }
+        // a merge may read the output of an extraction
+        for (boolean extractions : new boolean[]{true, false}) {
+            for (Job job : jobs) {
+                if (job.extraction == extractions && (all || job.reads(changed))) {
+                    final long start = System.nanoTime();
+                    try {
+                        job.run();
+                        log.info("Re-ran {} in {} ms", job.description, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    } catch (Exception e) {
+                        log.error("Could not re-run {}", job.description, e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * An extraction or merge with the absolute paths of the files it reads.
+     */
+    private abstract static class Job {
+
+        private final boolean extraction;
+        private final String description;
+        private final List<Path> inputFiles;
+
+        Job(final boolean extraction, final String description, final Path... inputFiles) {
+            this.extraction = extraction;
+            this.description = description;
+            this.inputFiles = new ArrayList<>();
+            for (Path inputFile : inputFiles) {
+                this.inputFiles.add(inputFile.toAbsolutePath().normalize());
+            }
+        }
+
+        boolean reads(final Set<Path> changedFiles) {
+            for (Path file : inputFiles) {
+                if (changedFiles.contains(file)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        abstract void run() throws Exception;
+    }
+}
@@ -0,0 +1,110 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link BatchExtractor}.
+ *
+ * @author Matthias Luppi
+ */
+public class BatchExtractorTest {
+
+    private static final Path COACH_FILE = Paths.get("src", "test", "resources", "fhnw", "coach.xml");
+    private static final Path INPUT_DIR = Paths.get("target", "test-input-batch-extractor");
+    private static final Path OUTPUT_DIR = Paths.get("target", "test-output-batch-extractor");
+
+    @Test
+    public void testNoArgs() {
+        final BatchExtractor extractor = new BatchExtractor(null, null);
+        assertThrows(IllegalArgumentException.class, extractor::extract);
+    }
+
+    @Test
+    public void testExtraction() throws Exception {
+        for (String coach : new String[]{"lib-a", "lib-b", "nested/lib-c"}) {
+            Files.createDirectories(INPUT_DIR.resolve(coach));
+            Files.copy(COACH_FILE, INPUT_DIR.resolve(coach).resolve(BatchExtractor.COACH_FILE_NAME), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.createDirectories(INPUT_DIR.resolve("broken"));
+        Files.write(INPUT_DIR.resolve("broken").resolve(BatchExtractor.COACH_FILE_NAME), "<questionnaire".getBytes(StandardCharsets.UTF_8));
+
+        final AtomicInteger events = new AtomicInteger();
+        final BatchExtractionResult result = new BatchExtractor(null, INPUT_DIR, OUTPUT_DIR, 2).extract(new BatchExtractor.Listener() {
+            @Override
+            public void completed(Path inputFile, Path outputFile, int done, int total) {
+                events.incrementAndGet();
+            }
+
+            @Override
+            public void failed(Path inputFile, Exception error, int done, int total) {
+                events.incrementAndGet();
+            }
+        });
+
+        assertFalse(result.isSuccessful());
+        assertEquals(3, result.getExtracted().size());
+        assertEquals(1, result.getFailures().size());
+        assertEquals(4, events.get());
+        assertTrue(Files.exists(OUTPUT_DIR.resolve("nested").resolve("lib-c").resolve(BatchExtractor.XLF_FILE_NAME)));
+    }
+
+    @Test
+    public void testFailingListener() throws Exception {
+        final Path inputDir = Paths.get("target", "test-input-batch-extractor-listener");
+        for (String coach : new String[]{"lib-a", "lib-b"}) {
+            Files.createDirectories(inputDir.resolve(coach));
+            Files.copy(COACH_FILE, inputDir.resolve(coach).resolve(BatchExtractor.COACH_FILE_NAME), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        final AtomicInteger maxDone = new AtomicInteger();
+        final BatchExtractionResult result = new BatchExtractor(null, inputDir, OUTPUT_DIR.resolve("failing-listener"), 2).extract(new BatchExtractor.Listener() {
+            @Override
+            public void completed(Path inputFile, Path outputFile, int done, int total) {
+                maxDone.accumulateAndGet(done, Math::max);
+                throw new IllegalStateException("listener failure");
+            }
+
+            @Override
+            public void failed(Path inputFile, Exception error, int done, int total) {
+                maxDone.accumulateAndGet(done, Math::max);
+            }
+        });
+
+        // a failing listener must not turn an extracted coach into a failure
+        assertTrue(result.isSuccessful());
+        assertEquals(2, result.getExtracted().size());
+        assertEquals(2, maxDone.get());
+    }
+
+}
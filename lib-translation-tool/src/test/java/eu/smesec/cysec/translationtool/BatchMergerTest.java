@@ -0,0 +1,91 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link BatchMerger}.
+ *
+ * @author Matthias Luppi
+ */
+public class BatchMergerTest {
+
+    private static final Path INPUT_FILE = Paths.get("src", "test", "resources", "fhnw", "coach.xml");
+    private static final Path XLF_FILE = Paths.get("src", "test", "resources", "fhnw", "de.xlf");
+    private static final Path OUTPUT_DIR = Paths.get("target", "test-output-batch-merger");
+
+    @Test
+    public void testNoArgs() {
+        final BatchMerger merger = new BatchMerger(null, null, null);
+        assertThrows(IllegalArgumentException.class, merger::merge);
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        final Map<String, Path> xlfFiles = new LinkedHashMap<>();
+        xlfFiles.put("de", XLF_FILE);
+        xlfFiles.put("de-CH", XLF_FILE);
+        final BatchMergeResult result = new BatchMerger(INPUT_FILE, xlfFiles, OUTPUT_DIR).merge();
+        assertTrue(result.isSuccessful());
+        final Map<String, MergeReport> reports = result.getReports();
+
+        assertEquals(Arrays.asList("de", "de-CH"), Arrays.asList(reports.keySet().toArray()));
+        for (MergeReport report : reports.values()) {
+            assertEquals(11, report.getAppliedCount());
+            assertEquals(5, report.getMissingCount());
+            assertFalse(report.isComplete());
+        }
+
+        // the result must not differ from a merge of a single language
+        final Path singleOutput = OUTPUT_DIR.resolve("single").resolve("coach-de.xml");
+        new Merger(INPUT_FILE, XLF_FILE, "de", singleOutput).merge();
+        assertArrayEquals(Files.readAllBytes(singleOutput), Files.readAllBytes(OUTPUT_DIR.resolve("coach-de.xml")));
+    }
+
+    @Test
+    public void testMergeCollectsFailures() throws Exception {
+        final Map<String, Path> xlfFiles = new LinkedHashMap<>();
+        xlfFiles.put("de", XLF_FILE);
+        xlfFiles.put("fr", OUTPUT_DIR.resolve("missing-fr.xlf"));
+        final BatchMergeResult result = new BatchMerger(INPUT_FILE, xlfFiles, OUTPUT_DIR.resolve("failures")).merge();
+
+        // a failing language must not discard the reports of the others
+        assertFalse(result.isSuccessful());
+        assertEquals(Collections.singleton("de"), result.getReports().keySet());
+        assertEquals(Collections.singleton("fr"), result.getFailures().keySet());
+        assertEquals(11, result.getReports().get("de").getAppliedCount());
+    }
+
+}
@@ -0,0 +1,152 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import net.sf.okapi.common.LocaleId;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link BuildCache}.
+ *
+ * @author Matthias Luppi
+ */
+public class BuildCacheTest {
+
+    private static final Path INPUT_FILE = Paths.get("src", "test", "resources", "fhnw", "coach.xml");
+    private static final Path XLF_FILE = Paths.get("src", "test", "resources", "fhnw", "de.xlf");
+    private static final Path OUTPUT_DIR = Paths.get("target", "test-output-build-cache");
+    private static final Path CACHE_DIR = OUTPUT_DIR.resolve("cache");
+
+    @Before
+    public void setUp() throws IOException {
+        if (Files.exists(OUTPUT_DIR)) {
+            try (Stream<Path> files = Files.walk(OUTPUT_DIR)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+        Files.createDirectories(OUTPUT_DIR);
+    }
+
+    @Test
+    public void testMergeServedFromCache() throws Exception {
+        final Path outputFile = OUTPUT_DIR.resolve("coach-de.xml");
+        final BuildCache cache = new BuildCache(CACHE_DIR, 1024 * 1024);
+        assertFalse(cache.merge(null, INPUT_FILE, XLF_FILE, LocaleId.fromString("de"), outputFile));
+        final byte[] merged = Files.readAllBytes(outputFile);
+
+        // unchanged inputs skip the merge, a lost output is restored
+        assertTrue(cache.merge(null, INPUT_FILE, XLF_FILE, LocaleId.fromString("de"), outputFile));
+        Files.delete(outputFile);
+        assertTrue(new BuildCache(CACHE_DIR, 1024 * 1024).merge(null, INPUT_FILE, XLF_FILE, LocaleId.fromString("de"), outputFile));
+        assertArrayEquals(merged, Files.readAllBytes(outputFile));
+
+        // another target language or changed translations require a merge
+        final Path xlfFile = OUTPUT_DIR.resolve("de.xlf");
+        Files.copy(XLF_FILE, xlfFile);
+        assertFalse(cache.merge(null, INPUT_FILE, xlfFile, LocaleId.fromString("de-CH"), outputFile));
+        Files.write(xlfFile, new String(Files.readAllBytes(XLF_FILE), StandardCharsets.UTF_8)
+                .replace("Ist dies eine Frage?", "Ist das eine Frage?").getBytes(StandardCharsets.UTF_8));
+        assertFalse(cache.merge(null, INPUT_FILE, xlfFile, LocaleId.fromString("de"), outputFile));
+        assertEquals(3, cache.getEntryCount());
+    }
+
+    @Test
+    public void testCachedMergeCompletesMerge() throws Exception {
+        final Path outputFile = OUTPUT_DIR.resolve("coach-de.xml");
+        final Path memoryDir = OUTPUT_DIR.resolve("memory");
+        final BuildCache cache = new BuildCache(CACHE_DIR, 1024 * 1024);
+        final TranslationEngine engine = new TranslationEngine();
+        final List<MergeReport> reports = new ArrayList<>();
+        engine.addMergeListener(new MergeListener() {
+            @Override
+            public void mergeCompleted(final MergeReport report) {
+                reports.add(report);
+            }
+        });
+        try (TranslationMemory memory = TranslationMemory.open(memoryDir)) {
+            engine.setTranslationMemory(memory);
+            assertFalse(cache.merge(engine, INPUT_FILE, XLF_FILE, LocaleId.fromString("de"), outputFile));
+        }
+        Files.delete(memoryDir.resolve("memory.idx"));
+        Files.delete(memoryDir.resolve("memory.dat"));
+
+        // the cached merge feeds the memory and reports the original merge
+        try (TranslationMemory memory = TranslationMemory.open(memoryDir)) {
+            engine.setTranslationMemory(memory);
+            assertTrue(cache.merge(engine, INPUT_FILE, XLF_FILE, LocaleId.fromString("de"), outputFile));
+            assertEquals("Ist dies eine Frage?", memory.get("Is this a question?", LocaleId.fromString("de")));
+        }
+        assertEquals(2, reports.size());
+        assertEquals(reports.get(0).getAppliedCount(), reports.get(1).getAppliedCount());
+        assertEquals(reports.get(0).getMissingIds(), reports.get(1).getMissingIds());
+        assertEquals(reports.get(0).getDuration(MergeReport.Phase.APPLY), reports.get(1).getDuration(MergeReport.Phase.APPLY));
+
+        // other settings of the engine require a merge
+        engine.setTranslationMemory(null);
+        assertFalse(cache.merge(engine, INPUT_FILE, XLF_FILE, LocaleId.fromString("de"), outputFile));
+        engine.setSkipOutdated(true);
+        assertFalse(cache.merge(engine, INPUT_FILE, XLF_FILE, LocaleId.fromString("de"), outputFile));
+        assertTrue(cache.merge(engine, INPUT_FILE, XLF_FILE, LocaleId.fromString("de"), outputFile));
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        final Path coachB = copyWithName("XYZ");
+        final Path coachC = copyWithName("RST");
+        final Path xlfFile = OUTPUT_DIR.resolve("source.xlf");
+        assertFalse(new BuildCache(CACHE_DIR, Long.MAX_VALUE).extract(null, INPUT_FILE, xlfFile));
+        final long size = Files.size(xlfFile);
+
+        // room for two outputs, the least recently used one is evicted
+        final BuildCache cache = new BuildCache(CACHE_DIR, 2 * size + size / 2);
+        assertFalse(cache.extract(null, coachB, OUTPUT_DIR.resolve("b.xlf")));
+        assertTrue(cache.extract(null, INPUT_FILE, xlfFile));
+        assertFalse(cache.extract(null, coachC, OUTPUT_DIR.resolve("c.xlf")));
+        assertEquals(2, cache.getEntryCount());
+        assertTrue(cache.getTotalBytes() <= 2 * size + size / 2);
+
+        final BuildCache reopened = new BuildCache(CACHE_DIR, 2 * size + size / 2);
+        assertTrue(reopened.extract(null, INPUT_FILE, xlfFile));
+        assertFalse(reopened.extract(null, coachB, OUTPUT_DIR.resolve("b.xlf")));
+    }
+
+    private static Path copyWithName(final String name) throws IOException {
+        final Path file = OUTPUT_DIR.resolve(name + ".xml");
+        Files.write(file, new String(Files.readAllBytes(INPUT_FILE), StandardCharsets.UTF_8)
+                .replace("UVW Coach EN", name + " Coach EN").getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,83 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import eu.smesec.cysec.platform.bridge.generated.Questionnaire;
+import net.sf.okapi.common.LocaleId;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the {@link CoachIndex}.
+ *
+ * @author Matthias Luppi
+ */
+public class CoachIndexTest {
+
+    private static final Path INPUT_FILE = Paths.get("src", "test", "resources", "fhnw", "coach.xml");
+    private static final Path XLF_FILE = Paths.get("src", "test", "resources", "fhnw", "de.xlf");
+
+    @Test
+    public void testIndexCopies() throws Exception {
+        final TranslationEngine engine = TranslationEngine.getDefault();
+        final Questionnaire questionnaire = engine.unmarshal(INPUT_FILE);
+        final CoachIndex index = CoachIndex.of(questionnaire);
+
+        // the same text units as extracted, in the order of the coach
+        assertEquals(16, index.size());
+        assertEquals(TextUnitId.parse("coach-readable-name"), index.getId(0));
+        assertEquals(TextUnitId.parse("DK:recXyz-text||text"), index.getId(15));
+        assertEquals(-1, index.find(TextUnitId.parse("QST:q3||text")));
+
+        // the index of the coach sets the fields of a copy
+        final Questionnaire copy = engine.copy(questionnaire);
+        index.set(copy, index.find(TextUnitId.parse("QST:q2||OPT:q2o2||comment")), "Kommentar 2");
+        index.set(copy, index.find(TextUnitId.parse("DK:recXyz-title||text")), "Erste Empfehlung");
+        assertEquals("Kommentar 2", copy.getQuestions().getQuestion().get(1).getOptions().getOption().get(1).getComment());
+        assertEquals("Erste Empfehlung", copy.getDictionary().getEntry().get(0).getValue());
+        assertEquals("Comment 2", questionnaire.getQuestions().getQuestion().get(1).getOptions().getOption().get(1).getComment());
+    }
+
+    @Test
+    public void testStaleIds() throws Exception {
+        final TranslationEngine engine = TranslationEngine.getDefault();
+        final String coach = new String(Files.readAllBytes(INPUT_FILE), StandardCharsets.UTF_8)
+                .replaceAll("(?s)<option id=\"q2o2\">.*?</option>", "");
+        final Questionnaire questionnaire = engine.unmarshal(new ByteArrayInputStream(coach.getBytes(StandardCharsets.UTF_8)));
+
+        final MergeReport report;
+        try (InputStream in = Files.newInputStream(XLF_FILE)) {
+            report = engine.merge(questionnaire, in, new LocaleId("de"));
+        }
+        assertEquals(2, report.getStaleCount());
+        assertEquals(new HashSet<>(Arrays.asList(TextUnitId.parse("QST:q2||OPT:q2o2||text"), TextUnitId.parse("QST:q2||OPT:q2o2||comment"))),
+                new HashSet<>(report.getStaleIds()));
+    }
+}
@@ -0,0 +1,100 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the {@link CoachPackage}.
+ *
+ * @author Matthias Luppi
+ */
+public class CoachPackageTest {
+
+    private static final Path INPUT_FILE = Paths.get("src", "test", "resources", "fhnw", "coach.xml");
+    private static final Path XLF_FILE = Paths.get("src", "test", "resources", "fhnw", "de.xlf");
+    private static final Path OUTPUT_DIR = Paths.get("target", "test-output-package");
+
+    @Test
+    public void testWriteToPackage() throws Exception {
+        final Path archive = OUTPUT_DIR.resolve("coach.jar");
+        Files.deleteIfExists(archive);
+
+        final Map<String, Path> xlfFiles = new LinkedHashMap<>();
+        xlfFiles.put("de", XLF_FILE);
+        xlfFiles.put("de-CH", XLF_FILE);
+        try (CoachPackage coachPackage = CoachPackage.open(archive)) {
+            new BatchMerger(INPUT_FILE, xlfFiles, coachPackage.resolve("coaches")).merge();
+            new Extractor(INPUT_FILE, coachPackage.resolve("xlf/source.xlf")).extractDelta(ExtractionManifest.empty());
+            new Merger(INPUT_FILE, XLF_FILE, "de", coachPackage.resolve("coach-de.bundle")).mergeBundle(TranslationBundle.Format.BINARY);
+        }
+
+        // the entries must not differ from the files written by the same operations
+        final Path single = OUTPUT_DIR.resolve("coach-de.xml");
+        new Merger(INPUT_FILE, XLF_FILE, "de", single).merge();
+        final Path source = OUTPUT_DIR.resolve("source.xlf");
+        new Extractor(INPUT_FILE, source).extract();
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            final List<String> names = new ArrayList<>();
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                if (!entry.isDirectory()) {
+                    names.add(entry.getName());
+                }
+            }
+            Collections.sort(names);
+            assertEquals(Arrays.asList("coach-de.bundle", "coaches/coach-de-CH.xml", "coaches/coach-de.xml", "xlf/source.xlf"), names);
+            assertArrayEquals(Files.readAllBytes(single), read(zip, "coaches/coach-de.xml"));
+            assertArrayEquals(Files.readAllBytes(source), read(zip, "xlf/source.xlf"));
+            try (InputStream in = zip.getInputStream(zip.getEntry("coach-de.bundle"))) {
+                assertEquals("Ist dies eine Frage?", TranslationBundle.read(in).get("QST:q1||text"));
+            }
+        }
+    }
+
+    private static byte[] read(final ZipFile zip, final String name) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = zip.getInputStream(zip.getEntry(name))) {
+            final byte[] chunk = new byte[8192];
+            int read;
+            while ((read = in.read(chunk)) >= 0) {
+                bytes.write(chunk, 0, read);
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -34,10 +34,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests for the {@link Extractor}.
@@ -80,4 +83,107 @@ public class ExtractorTest {
         assertEquals(16, testUnitList.size());
     }
 
+    @Test
+    public void testStreamingExtraction() throws Exception {
+        final Path streamingOutputFile = OUTPUT_FILE.resolveSibling("source-streaming.xlf");
+        new Extractor(INPUT_FILE, OUTPUT_FILE).extract();
+        new Extractor(INPUT_FILE, streamingOutputFile).extractStreaming();
+
+        // both modes must produce the same XLIFF
+        assertArrayEquals(Files.readAllBytes(OUTPUT_FILE), Files.readAllBytes(streamingOutputFile));
+    }
+
+    @Test
+    public void testBlankSourceLanguage() throws Exception {
+        final Path inputFile = OUTPUT_FILE.resolveSibling("coach-blank-language.xml");
+        Files.createDirectories(inputFile.getParent());
+        Files.write(inputFile, new String(Files.readAllBytes(INPUT_FILE), StandardCharsets.UTF_8)
+                .replace("language=\"en\"", "language=\"\"").getBytes(StandardCharsets.UTF_8));
+        final Path outputFile = OUTPUT_FILE.resolveSibling("source-blank-language.xlf");
+        final Path streamingOutputFile = OUTPUT_FILE.resolveSibling("source-blank-language-streaming.xlf");
+        new Extractor(inputFile, outputFile).extract();
+        new Extractor(inputFile, streamingOutputFile).extractStreaming();
+
+        // a blank language falls back to English like for a merge
+        assertTrue(new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8).contains("source-language=\"en\""));
+        assertArrayEquals(Files.readAllBytes(outputFile), Files.readAllBytes(streamingOutputFile));
+    }
+
+    @Test
+    public void testDeltaExtraction() throws Exception {
+        new Extractor(INPUT_FILE, OUTPUT_FILE).extract();
+        final ExtractionManifest previous = ExtractionManifest.fromXliff(OUTPUT_FILE);
+        assertEquals(16, previous.size());
+
+        // nothing changed since the full extraction
+        final Path deltaFile = OUTPUT_FILE.resolveSibling("delta").resolve("source.xlf");
+        final DeltaExtractionResult unchanged = new Extractor(INPUT_FILE, deltaFile).extractDelta(previous);
+        assertTrue(unchanged.isUnchanged());
+        assertEquals(16, unchanged.getManifest().size());
+
+        // change a text, add an option and remove a dictionary entry
+        final String coach = new String(Files.readAllBytes(INPUT_FILE), StandardCharsets.UTF_8)
+                .replace("Is this another question?", "Is this still another question?")
+                .replace("<option id=\"q2o2\">", "<option id=\"q2o3\"><text>Option 3</text></option><option id=\"q2o2\">")
+                .replaceAll("(?s)<entry key=\"recXyz-text\">.*?</entry>", "");
+        final Path changedFile = deltaFile.resolveSibling("coach.xml");
+        Files.write(changedFile, coach.getBytes(StandardCharsets.UTF_8));
+
+        final DeltaExtractionResult delta = new Extractor(changedFile, deltaFile).extractDelta(previous);
+        assertEquals(Collections.singletonList(TextUnitId.parse("QST:q2||OPT:q2o3||text")), delta.getAddedIds());
+        assertEquals(Collections.singletonList(TextUnitId.parse("QST:q2||text")), delta.getChangedIds());
+        assertEquals(Collections.singletonList(TextUnitId.parse("DK:recXyz-text||text")), delta.getRemovedIds());
+        assertEquals(2, ExtractionManifest.fromXliff(deltaFile).size());
+
+        // the manifest can be stored as baseline of the next extraction
+        final Path manifestFile = deltaFile.resolveSibling("source.manifest");
+        delta.getManifest().write(manifestFile);
+        assertTrue(new Extractor(changedFile, deltaFile).extractDelta(ExtractionManifest.read(manifestFile)).isUnchanged());
+    }
+
+    @Test
+    public void testTranslationMemoryPrefill() throws Exception {
+        final Path memoryDir = OUTPUT_FILE.resolveSibling("memory");
+        final Path prefilledFile = OUTPUT_FILE.resolveSibling("prefilled-de.xlf");
+        final Path fuzzyFile = OUTPUT_FILE.resolveSibling("fuzzy-de.xlf");
+        final Path xlfFile = Paths.get("src", "test", "resources", "fhnw", "de.xlf");
+        final TranslationEngine engine = new TranslationEngine();
+        try (TranslationMemory memory = TranslationMemory.open(memoryDir)) {
+            engine.setTranslationMemory(memory);
+            new Merger(engine, INPUT_FILE, xlfFile, "de", OUTPUT_FILE.resolveSibling("coach-de.xml")).merge();
+            new Extractor(engine, INPUT_FILE, prefilledFile).extract("de");
+
+            // a changed text gets the translation of the former text as suggestion
+            final String coach = new String(Files.readAllBytes(INPUT_FILE), StandardCharsets.UTF_8)
+                    .replace("Is this a question?", "Is this a real question?");
+            final Path changedFile = memoryDir.resolveSibling("coach-changed.xml");
+            Files.write(changedFile, coach.getBytes(StandardCharsets.UTF_8));
+            engine.setFuzzyMatching(3, 70);
+            new Extractor(engine, changedFile, fuzzyFile).extract("de");
+        }
+        final String fuzzy = new String(Files.readAllBytes(fuzzyFile), StandardCharsets.UTF_8);
+        assertTrue(fuzzy.matches("(?s).*<trans-unit id=\"QST:q1\\|\\|text\">\\s*<source[^>]*>Is this a real question\\?</source>\\s*"
+                + "<target[^>]*></target>\\s*<alt-trans match-quality=\"\\d\\d\" origin=\"translation-memory\" okp:matchType=\"FUZZY\">"
+                + "<source[^>]*>Is this a question\\?</source>\\s*<target[^>]*>Ist dies eine Frage\\?</target>.*"));
+
+        final List<ITextUnit> prefilled = new ArrayList<>();
+        try (IFilter filter = new XLIFFFilter()) {
+            filter.open(new RawDocument(prefilledFile.toUri(), StandardCharsets.UTF_8.name(), new LocaleId("en"), new LocaleId("de")));
+            while (filter.hasNext()) {
+                Event event = filter.next();
+                if (event.getEventType() == EventType.TEXT_UNIT && event.getTextUnit().hasTarget(new LocaleId("de"))
+                        && !event.getTextUnit().getTarget(new LocaleId("de")).isEmpty()) {
+                    prefilled.add(event.getTextUnit());
+                }
+            }
+        }
+        // the translations of the merge, which are all applied except the empty ones
+        assertEquals(11, prefilled.size());
+        final ITextUnit question = prefilled.stream()
+                .filter(textUnit -> textUnit.getId().equals("QST:q1||text"))
+                .findFirst().orElseThrow(AssertionError::new);
+        assertEquals("Ist dies eine Frage?", question.getTarget(new LocaleId("de")).toString());
+        assertTrue(new String(Files.readAllBytes(prefilledFile), StandardCharsets.UTF_8).contains("state=\"needs-review-translation\""));
+    }
+
 }
@@ -0,0 +1,125 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link FuzzyMatcher}.
+ *
+ * @author Matthias Luppi
+ */
+public class FuzzyMatcherTest {
+
+    private static final List<Map.Entry<String, String>> TRANSLATIONS = Arrays.asList(
+            new AbstractMap.SimpleImmutableEntry<>("Is this a question?", "Ist dies eine Frage?"),
+            new AbstractMap.SimpleImmutableEntry<>("Is this another question?", "Ist dies eine andere Frage?"),
+            new AbstractMap.SimpleImmutableEntry<>("Do you use a firewall?", "Verwenden Sie eine Firewall?"),
+            new AbstractMap.SimpleImmutableEntry<>("Option 1", "Option 1")
+    );
+
+    @Test
+    public void testFind() {
+        final FuzzyMatcher matcher = new FuzzyMatcher(TRANSLATIONS);
+
+        final List<FuzzyMatch> matches = matcher.find("Is this  a question?", 3, 50);
+        assertEquals(2, matches.size());
+        assertEquals(100, matches.get(0).getScore());
+        assertEquals("Ist dies eine Frage?", matches.get(0).getTarget());
+        assertEquals("Ist dies eine andere Frage?", matches.get(1).getTarget());
+        assertTrue(matches.get(1).getScore() < 100);
+
+        // case and whitespace differences are similar, but not identical
+        final List<FuzzyMatch> similar = matcher.find("is this another\nquestion", 1, 50);
+        assertEquals(1, similar.size());
+        assertEquals("Ist dies eine andere Frage?", similar.get(0).getTarget());
+        assertTrue(similar.get(0).getScore() > 80 && similar.get(0).getScore() < 100);
+
+        assertTrue(matcher.find("Do you use a firewall?", 5, 100).stream().allMatch(match -> match.getScore() == 100));
+        assertTrue(matcher.find("Completely unrelated text", 5, 50).isEmpty());
+        assertTrue(matcher.find("", 5, 50).isEmpty());
+    }
+
+    @Test
+    public void testFindMatchesExhaustiveSearch() {
+        final String[] words = {"access", "backup", "password", "network", "device", "update", "policy", "staff", "data", "cloud"};
+        final List<Map.Entry<String, String>> translations = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            final int n = i;
+            final StringBuilder sb = new StringBuilder("Do you");
+            IntStream.range(0, 4).forEach(j -> sb.append(' ').append(words[(n / (int) Math.pow(10, j) + j) % words.length]));
+            translations.add(new AbstractMap.SimpleImmutableEntry<>(sb.toString(), "T" + i));
+        }
+        final FuzzyMatcher matcher = new FuzzyMatcher(translations);
+
+        // the candidate filter must not lose any match reaching the minimum score
+        final String source = "Do you backup the network data policy";
+        final List<FuzzyMatch> matches = matcher.find(source, 2000, 60);
+        final List<FuzzyMatch> all = matcher.find(source, 2000, 1);
+        assertEquals(all.stream().filter(match -> match.getScore() >= 60).count(), matches.size());
+        assertTrue(!matches.isEmpty());
+        for (int i = 1; i < matches.size(); i++) {
+            assertTrue(matches.get(i - 1).getScore() >= matches.get(i).getScore());
+        }
+        assertEquals(matches.subList(0, 3).toString(), matcher.find(source, 3, 60).toString());
+    }
+
+    @Test
+    public void testExtend() {
+        final FuzzyMatcher matcher = new FuzzyMatcher(TRANSLATIONS).extend(Arrays.asList(
+                new AbstractMap.SimpleImmutableEntry<>("Is this a  question?", "Ist das eine Frage?"),
+                new AbstractMap.SimpleImmutableEntry<>("Do you use a backup?", "Verwenden Sie ein Backup?")));
+        assertEquals(6, matcher.size());
+
+        // the newer translation replaces the older one of the same source
+        final List<FuzzyMatch> matches = matcher.find("Is this a question?", 5, 50);
+        assertEquals(2, matches.size());
+        assertEquals("Ist das eine Frage?", matches.get(0).getTarget());
+        assertEquals(100, matches.get(0).getScore());
+        assertEquals("Ist dies eine andere Frage?", matches.get(1).getTarget());
+        assertEquals("Verwenden Sie ein Backup?", matcher.find("Do you use backups?", 1, 50).get(0).getTarget());
+
+        // layers are merged without losing translations
+        final List<Map.Entry<String, String>> translations = new ArrayList<>();
+        FuzzyMatcher layered = new FuzzyMatcher(new ArrayList<>());
+        for (int i = 0; i < 20; i++) {
+            final List<Map.Entry<String, String>> layer = new ArrayList<>();
+            for (int j = 0; j < 10; j++) {
+                layer.add(new AbstractMap.SimpleImmutableEntry<>("Question number " + (i * 10 + j), "Frage " + (i * 10 + j)));
+            }
+            translations.addAll(layer);
+            layered = layered.extend(layer);
+        }
+        assertEquals(200, layered.size());
+        assertEquals(new FuzzyMatcher(translations).find("Question number 42", 20, 50).toString(),
+                layered.find("Question number 42", 20, 50).toString());
+    }
+
+}
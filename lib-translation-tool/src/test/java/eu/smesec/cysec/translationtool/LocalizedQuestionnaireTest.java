@@ -0,0 +1,111 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import eu.smesec.cysec.platform.bridge.generated.DictionaryEntry;
+import eu.smesec.cysec.platform.bridge.generated.Option;
+import eu.smesec.cysec.platform.bridge.generated.Question;
+import eu.smesec.cysec.platform.bridge.generated.Questionnaire;
+import net.sf.okapi.common.LocaleId;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for the {@link LocalizedQuestionnaire}.
+ *
+ * @author Matthias Luppi
+ */
+public class LocalizedQuestionnaireTest {
+
+    private static final Path INPUT_FILE = Paths.get("src", "test", "resources", "fhnw", "coach.xml");
+    private static final Path XLF_FILE = Paths.get("src", "test", "resources", "fhnw", "de.xlf");
+
+    @Test
+    public void testNoArgs() throws Exception {
+        final TranslationEngine engine = TranslationEngine.getDefault();
+        final Questionnaire questionnaire = engine.unmarshal(INPUT_FILE);
+        assertThrows(IllegalArgumentException.class, () -> engine.localize(null, XLF_FILE, new LocaleId("de")));
+        assertThrows(IllegalArgumentException.class, () -> engine.localize(questionnaire, (Path) null, new LocaleId("de")));
+        assertThrows(IllegalArgumentException.class, () -> engine.localize(questionnaire, XLF_FILE, null));
+    }
+
+    @Test
+    public void testViewMatchesMerge() throws Exception {
+        final TranslationEngine engine = TranslationEngine.getDefault();
+        final Questionnaire base = engine.unmarshal(INPUT_FILE);
+        final LocalizedQuestionnaire view = engine.localize(base, XLF_FILE, new LocaleId("de"));
+        final Questionnaire merged = engine.copy(base);
+        try (InputStream in = Files.newInputStream(XLF_FILE)) {
+            engine.merge(merged, in, new LocaleId("de"));
+        }
+
+        assertEquals("de", view.getLanguage());
+        assertEquals(11, view.getTranslationCount());
+        assertEquals(merged.getReadableName(), view.getReadableName());
+        assertEquals(merged.getDescription(), view.getDescription());
+        for (Question translated : merged.getQuestions().getQuestion()) {
+            final Question question = view.getQuestion(translated.getId());
+            assertEquals(translated.getText(), view.getText(question));
+            assertEquals(translated.getIntroduction(), view.getIntroduction(question));
+            assertEquals(translated.getInfotext(), view.getInfotext(question));
+            assertEquals(translated.getReadMore(), view.getReadMore(question));
+            assertEquals(translated.getInstruction().getText(), view.getInstruction(question));
+            if (translated.getOptions() != null) {
+                for (int i = 0; i < translated.getOptions().getOption().size(); i++) {
+                    final Option option = question.getOptions().getOption().get(i);
+                    assertEquals(translated.getOptions().getOption().get(i).getText(), view.getText(question, option));
+                    assertEquals(translated.getOptions().getOption().get(i).getComment(), view.getComment(question, option));
+                }
+            }
+        }
+        for (DictionaryEntry entry : merged.getDictionary().getEntry()) {
+            assertEquals(entry.getValue(), view.getDictionaryValue(entry.getKey()));
+        }
+        assertNull(view.getQuestion("unknown"));
+        assertNull(view.getDictionaryValue("unknown"));
+
+        // the base coach is not modified by the view
+        assertEquals("Is this a question?", view.getQuestion("q1").getText());
+        assertEquals("Ist dies eine Frage?", view.getText(view.getQuestion("q1")));
+    }
+
+    @Test
+    public void testDictionaryValueRequiresBaseEntry() throws Exception {
+        final TranslationEngine engine = TranslationEngine.getDefault();
+        final Questionnaire base = engine.unmarshal(INPUT_FILE);
+        final DictionaryEntry removed = base.getDictionary().getEntry().remove(0);
+        final LocalizedQuestionnaire view = engine.localize(base, XLF_FILE, new LocaleId("de"));
+
+        // the translation of an entry missing in the base coach is not used, as for getValue(DictionaryEntry)
+        assertNull(view.getDictionaryValue(removed.getKey()));
+        final DictionaryEntry entry = base.getDictionary().getEntry().get(0);
+        assertEquals(view.getValue(entry), view.getDictionaryValue(entry.getKey()));
+        assertNotEquals(entry.getValue(), view.getDictionaryValue(entry.getKey()));
+    }
+}
@@ -22,11 +22,16 @@ package eu.smesec.cysec.translationtool;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests for the {@link Merger}.
@@ -56,4 +61,61 @@ public class MergerTest {
         merger.merge();
     }
 
+    @Test
+    public void testMergeReport() throws Exception {
+        final MergeReport report = new Merger(INPUT_FILE, XLF_FILE, "de", OUTPUT_FILE).merge();
+        assertEquals("de", report.getTargetLang());
+        assertEquals(11, report.getAppliedCount());
+        assertEquals(5, report.getMissingCount());
+        assertEquals(TextUnitId.parse("QST:q1||instruction"), report.getMissingIds().get(0));
+        assertEquals(0, report.getStaleCount());
+        assertFalse(report.isComplete());
+        for (MergeReport.Phase phase : MergeReport.Phase.values()) {
+            assertFalse(report.getDuration(phase).isNegative());
+        }
+        assertTrue(report.getDuration(MergeReport.Phase.UNMARSHAL).toNanos() > 0);
+    }
+
+    @Test
+    public void testStreamingMerge() throws Exception {
+        final Path streamingOutputFile = OUTPUT_FILE.resolveSibling("streaming").resolve(OUTPUT_FILE.getFileName());
+        new Merger(INPUT_FILE, XLF_FILE, "de", OUTPUT_FILE).merge();
+        final MergeReport report = new Merger(INPUT_FILE, XLF_FILE, "de", streamingOutputFile).mergeStreaming();
+        assertEquals(11, report.getAppliedCount());
+        assertEquals(5, report.getMissingCount());
+
+        assertTrue(report.getDuration(MergeReport.Phase.UNMARSHAL).toNanos() > 0);
+
+        // the prolog of the original coach is kept
+        final String input = new String(Files.readAllBytes(INPUT_FILE), StandardCharsets.UTF_8);
+        final String output = new String(Files.readAllBytes(streamingOutputFile), StandardCharsets.UTF_8);
+        assertTrue(output.startsWith(input.substring(0, input.indexOf("<questionnaire"))));
+
+        // the translated content must not differ from a merge via JAXB
+        final Path xlf = OUTPUT_FILE.resolveSibling("source.xlf");
+        final Path streamingXlf = streamingOutputFile.resolveSibling("source.xlf");
+        new Extractor(OUTPUT_FILE, xlf).extract();
+        new Extractor(streamingOutputFile, streamingXlf).extract();
+        assertArrayEquals(Files.readAllBytes(xlf), Files.readAllBytes(streamingXlf));
+    }
+
+    @Test
+    public void testStreamingMergeCopiesUntranslatedContent() throws Exception {
+        final Path dir = OUTPUT_FILE.resolveSibling("verbatim");
+        Files.createDirectories(dir);
+        final Path inputFile = dir.resolve("coach.xml");
+        final String coach = new String(Files.readAllBytes(INPUT_FILE), StandardCharsets.UTF_8)
+                .replace("<?xml version='1.0'?>", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>")
+                .replace("The is the UVW Coach EN.", "The is the &quot;UVW&quot; Coach EN &gt; <![CDATA[<none>]]>.");
+        Files.write(inputFile, coach.getBytes(StandardCharsets.UTF_8));
+
+        // without any translations the coach is copied unchanged
+        final Path xlfFile = dir.resolve("source.xlf");
+        final Path outputFile = dir.resolve("coach-de.xml");
+        new Extractor(inputFile, xlfFile).extract();
+        final MergeReport report = new Merger(inputFile, xlfFile, "de", outputFile).mergeStreaming();
+        assertEquals(0, report.getAppliedCount());
+        assertEquals(coach, new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8));
+    }
+
 }
@@ -0,0 +1,82 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link MultilingualMerger}.
+ *
+ * @author Matthias Luppi
+ */
+public class MultilingualMergerTest {
+
+    private static final Path INPUT_FILE = Paths.get("src", "test", "resources", "fhnw", "coach.xml");
+    private static final Path XLF_FILE = Paths.get("src", "test", "resources", "fhnw", "de.xlf");
+    private static final Path OUTPUT_DIR = Paths.get("target", "test-output-multilingual-merger");
+
+    @Test
+    public void testNoArgs() {
+        final MultilingualMerger merger = new MultilingualMerger(null, null, null);
+        assertThrows(IllegalArgumentException.class, merger::merge);
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        // add a French <file> element to the German XLIFF file
+        final String de = new String(Files.readAllBytes(XLF_FILE), StandardCharsets.UTF_8);
+        final int fileEnd = de.indexOf("</file>") + "</file>".length();
+        final String fr = de.substring(de.indexOf("<file"), fileEnd)
+                .replace("target-language=\"de\"", "target-language=\"fr\"")
+                .replace("Ist dies eine Frage?", "Est-ce une question ?");
+        final Path xlfFile = OUTPUT_DIR.resolve("translations.xlf");
+        Files.createDirectories(OUTPUT_DIR);
+        Files.write(xlfFile, (de.substring(0, fileEnd) + "\n" + fr + de.substring(fileEnd)).getBytes(StandardCharsets.UTF_8));
+
+        final BatchMergeResult result = new MultilingualMerger(INPUT_FILE, xlfFile, OUTPUT_DIR).merge();
+        assertTrue(result.isSuccessful());
+        final Map<String, MergeReport> reports = result.getReports();
+        assertEquals(Arrays.asList("de", "fr"), Arrays.asList(reports.keySet().toArray()));
+        for (MergeReport report : reports.values()) {
+            assertEquals(11, report.getAppliedCount());
+            assertEquals(5, report.getMissingCount());
+        }
+        assertTrue(new String(Files.readAllBytes(OUTPUT_DIR.resolve("coach-fr.xml")), StandardCharsets.UTF_8)
+                .contains("Est-ce une question ?"));
+
+        // the result must not differ from a merge of a single language
+        final Path singleOutput = OUTPUT_DIR.resolve("single").resolve("coach-de.xml");
+        new Merger(INPUT_FILE, XLF_FILE, "de", singleOutput).merge();
+        assertArrayEquals(Files.readAllBytes(singleOutput), Files.readAllBytes(OUTPUT_DIR.resolve("coach-de.xml")));
+    }
+
+}
@@ -0,0 +1,92 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import eu.smesec.cysec.platform.bridge.generated.Questionnaire;
+import net.sf.okapi.common.LocaleId;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link QualityChecker}.
+ *
+ * @author Matthias Luppi
+ */
+public class QualityCheckerTest {
+
+    private static final Path INPUT_FILE = Paths.get("src", "test", "resources", "fhnw", "coach.xml");
+    private static final Path XLF_FILE = Paths.get("src", "test", "resources", "fhnw", "de.xlf");
+    private static final TextUnitId ID = TextUnitId.attr(TextUnitId.QST_INFOTEXT).qst("q1");
+
+    @Test
+    public void testCheck() {
+        assertTrue(QualityChecker.check(ID, "<p>A <b>bold</b> text<br></p>", "<p>Ein Text, <b>fett</b><br/></p>").isEmpty());
+        assertTrue(QualityChecker.check(ID, "Hello {name}, you have %d points", "%d Punkte, {name}").isEmpty());
+
+        assertEquals(Collections.singletonList(QualityIssue.Type.TAG_MISMATCH),
+                types(QualityChecker.check(ID, "<p>A <b>bold</b> text</p>", "<p>Ein <b>fetter Text</p>")));
+        assertEquals(Collections.singletonList(QualityIssue.Type.MALFORMED_TAGS),
+                types(QualityChecker.check(ID, "<p>A <b>bold</b> text</p>", "<p>Ein <b>fetter</p> Text</b>")));
+        assertEquals(Collections.singletonList(QualityIssue.Type.ENTITY_MISMATCH),
+                types(QualityChecker.check(ID, "Terms&nbsp;and&nbsp;conditions", "AGB&nbsp;und Bedingungen")));
+        assertEquals(Collections.singletonList(QualityIssue.Type.PLACEHOLDER_MISMATCH),
+                types(QualityChecker.check(ID, "Hello ${user.name}", "Hallo ${user}")));
+        assertEquals(Collections.singletonList(QualityIssue.Type.LENGTH_RATIO),
+                types(QualityChecker.check(ID, "This is a rather long sentence to be translated", "Satz")));
+        // short texts may differ in length
+        assertTrue(QualityChecker.check(ID, "OK", "Einverstanden").isEmpty());
+    }
+
+    @Test
+    public void testMergeReport() throws Exception {
+        final TranslationEngine engine = new TranslationEngine();
+        final String xlf = new String(Files.readAllBytes(XLF_FILE), StandardCharsets.UTF_8)
+                .replace("Antwortoptionen&lt;/p&gt;", "Antwortoptionen&lt;/b&gt;");
+        final Questionnaire questionnaire = engine.unmarshal(INPUT_FILE);
+        final MergeReport report = engine.merge(questionnaire, new ByteArrayInputStream(xlf.getBytes(StandardCharsets.UTF_8)), new LocaleId("de"));
+        assertEquals(1, report.getQualityIssues().size());
+        assertEquals(ID, report.getQualityIssues().get(0).getId());
+        assertEquals(QualityIssue.Type.TAG_MISMATCH, report.getQualityIssues().get(0).getType());
+
+        engine.setQualityChecks(false);
+        final MergeReport unchecked = engine.merge(engine.unmarshal(INPUT_FILE),
+                new ByteArrayInputStream(xlf.getBytes(StandardCharsets.UTF_8)), new LocaleId("de"));
+        assertTrue(unchecked.getQualityIssues().isEmpty());
+    }
+
+    private static List<QualityIssue.Type> types(final List<QualityIssue> issues) {
+        final List<QualityIssue.Type> types = new ArrayList<>();
+        for (QualityIssue issue : issues) {
+            types.add(issue.getType());
+        }
+        return types;
+    }
+}
@@ -0,0 +1,83 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for the {@link TextUnitId}.
+ *
+ * @author Matthias Luppi
+ */
+public class TextUnitIdTest {
+
+    @Test
+    public void testParse() {
+        final TextUnitId option = TextUnitId.parse("QST:q2||OPT:q2o1||comment");
+        assertEquals("q2", option.getQuestionId());
+        assertEquals("q2o1", option.getOptionId());
+        assertNull(option.getDictionaryKey());
+        assertSame(TextUnitId.OPT_COMMENT, option.getAttribute());
+
+        final TextUnitId entry = TextUnitId.parse("DK:recXyz-title||text");
+        assertNull(entry.getQuestionId());
+        assertEquals("recXyz-title", entry.getDictionaryKey());
+        assertSame(TextUnitId.DK_TEXT, entry.getAttribute());
+
+        final TextUnitId coach = TextUnitId.parse(TextUnitId.COACH_READABLE_NAME);
+        assertNull(coach.getQuestionId());
+        assertSame(TextUnitId.COACH_READABLE_NAME, coach.getAttribute());
+    }
+
+    @Test
+    public void testParseEdgeCases() {
+        // IDs end at the first separator
+        assertEquals("", TextUnitId.parse("QST:||text").getQuestionId());
+        assertEquals("|text", TextUnitId.parse("QST:q1|||text").getAttribute());
+        // prefixes without separator belong to the attribute
+        assertEquals("QST:q1", TextUnitId.parse("QST:q1").getAttribute());
+        assertEquals("OPT:o1||text", TextUnitId.parse("OPT:o1||text").getAttribute());
+        assertThrows(IllegalArgumentException.class, () -> TextUnitId.parse("QST:q1||te\nxt"));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        final TextUnitId[] ids = {
+                TextUnitId.attr(TextUnitId.COACH_DESCRIPTION),
+                TextUnitId.attr(TextUnitId.QST_READ_MORE).qst("q1"),
+                TextUnitId.attr(TextUnitId.OPT_TEXT).qst("q1").opt("q1o1"),
+                TextUnitId.attr(TextUnitId.DK_TEXT).dkey("key"),
+        };
+        for (TextUnitId id : ids) {
+            final TextUnitId parsed = TextUnitId.parse(id.toString());
+            assertEquals(id, parsed);
+            assertEquals(id.hashCode(), parsed.hashCode());
+            assertEquals(id.toString(), parsed.toString());
+        }
+        assertNotEquals(TextUnitId.attr(TextUnitId.QST_TEXT).qst("q1"), TextUnitId.attr(TextUnitId.QST_TEXT).qst("q2"));
+    }
+
+}
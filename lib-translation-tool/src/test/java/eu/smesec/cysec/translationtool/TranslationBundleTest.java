@@ -0,0 +1,112 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import eu.smesec.cysec.platform.bridge.generated.Questionnaire;
+import net.sf.okapi.common.LocaleId;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for the {@link TranslationBundle}.
+ *
+ * @author Matthias Luppi
+ */
+public class TranslationBundleTest {
+
+    private static final Path INPUT_FILE = Paths.get("src", "test", "resources", "fhnw", "coach.xml");
+    private static final Path XLF_FILE = Paths.get("src", "test", "resources", "fhnw", "de.xlf");
+    private static final Path OUTPUT_DIR = Paths.get("target", "test-output-bundle");
+
+    @Test
+    public void testMergeBundle() throws Exception {
+        final Path bundleFile = OUTPUT_DIR.resolve("coach-de.bundle");
+        final MergeReport report = new Merger(INPUT_FILE, XLF_FILE, "de", bundleFile).mergeBundle(TranslationBundle.Format.BINARY);
+        assertEquals(11, report.getAppliedCount());
+
+        final TranslationEngine engine = TranslationEngine.getDefault();
+        final Questionnaire merged = engine.unmarshal(INPUT_FILE);
+        try (InputStream in = Files.newInputStream(XLF_FILE)) {
+            engine.merge(merged, in, new LocaleId("de"));
+        }
+
+        final TranslationBundle bundle = TranslationBundle.open(bundleFile);
+        assertEquals("de", bundle.getLanguage());
+        assertEquals(16, bundle.size());
+        assertEquals(merged.getReadableName(), bundle.get(TextUnitId.attr(TextUnitId.COACH_READABLE_NAME)));
+        assertEquals("Ist dies eine Frage?", bundle.get("QST:q1||text"));
+        // untranslated texts are kept in the source language
+        assertEquals(merged.getQuestions().getQuestion().get(1).getText(), bundle.get("QST:q2||text"));
+        assertEquals("Machen Sie dies oder das.", bundle.get("DK:recXyz-text||text"));
+        assertNull(bundle.get("QST:q3||text"));
+
+        try (InputStream in = Files.newInputStream(bundleFile)) {
+            assertEquals("Option 2 DE", TranslationBundle.read(in).get("QST:q2||OPT:q2o2||text"));
+        }
+        assertThrows(IOException.class, () -> TranslationBundle.read(new ByteArrayInputStream(new byte[20])));
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        final Map<String, String> texts = new LinkedHashMap<>();
+        texts.put("QST:q2||text", "Zweite \"Frage\"\n");
+        texts.put("QST:q10||text", "Zehnte Frage");
+        texts.put("QST:q\u00e4||text", "Frage \u00e4");
+        texts.put("QST:q1||text", "Erste Frage");
+
+        final ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        TranslationBundle.write("de-CH", texts, TranslationBundle.Format.BINARY, binary);
+        final TranslationBundle bundle = TranslationBundle.read(new ByteArrayInputStream(binary.toByteArray()));
+        assertEquals("de-CH", bundle.getLanguage());
+        for (Map.Entry<String, String> text : texts.entrySet()) {
+            assertEquals(text.getValue(), bundle.get(text.getKey()));
+        }
+        assertNull(bundle.get("QST:q||text"));
+        assertNull(bundle.get("QST:q3||text"));
+
+        // a truncated bundle must not open
+        final byte[] truncated = Arrays.copyOf(binary.toByteArray(), 40);
+        assertThrows(IOException.class, () -> TranslationBundle.read(new ByteArrayInputStream(truncated)));
+
+        final ByteArrayOutputStream json = new ByteArrayOutputStream();
+        TranslationBundle.write("de-CH", texts, TranslationBundle.Format.JSON, json);
+        assertEquals("{\n  \"language\": \"de-CH\",\n  \"texts\": {\n"
+                + "    \"QST:q10||text\": \"Zehnte Frage\",\n"
+                + "    \"QST:q1||text\": \"Erste Frage\",\n"
+                + "    \"QST:q2||text\": \"Zweite \\\"Frage\\\"\\n\",\n"
+                + "    \"QST:q\u00e4||text\": \"Frage \u00e4\"\n"
+                + "  }\n}\n", new String(json.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
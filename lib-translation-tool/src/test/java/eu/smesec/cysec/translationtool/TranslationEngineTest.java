@@ -0,0 +1,266 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import eu.smesec.cysec.platform.bridge.generated.Questionnaire;
+import net.sf.okapi.common.LocaleId;
+import org.junit.Test;
+
+import javax.xml.bind.JAXBException;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link TranslationEngine}.
+ *
+ * @author Matthias Luppi
+ */
+public class TranslationEngineTest {
+
+    private static final Path INPUT_FILE = Paths.get("src", "test", "resources", "fhnw", "coach.xml");
+    private static final Path XLF_FILE = Paths.get("src", "test", "resources", "fhnw", "de.xlf");
+    private static final Path OUTPUT_DIR = Paths.get("target", "test-output-engine");
+
+    @Test
+    public void testDefaultEngineIsShared() throws Exception {
+        assertSame(TranslationEngine.getDefault(), TranslationEngine.getDefault());
+    }
+
+    @Test
+    public void testConcurrentOperations() throws Exception {
+        final TranslationEngine engine = new TranslationEngine();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<MergeReport>> merges = new ArrayList<>();
+            final List<Future<?>> extractions = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final Path mergeOutput = OUTPUT_DIR.resolve("coach-de-" + i + ".xml");
+                final Path extractOutput = OUTPUT_DIR.resolve("source-" + i + ".xlf");
+                merges.add(executor.submit(() -> engine.merge(INPUT_FILE, XLF_FILE, new LocaleId("de"), mergeOutput)));
+                extractions.add(executor.submit(() -> {
+                    engine.extract(INPUT_FILE, extractOutput);
+                    return null;
+                }));
+            }
+            for (Future<MergeReport> merge : merges) {
+                // the test translation is incomplete
+                assertFalse(merge.get().isComplete());
+            }
+            for (Future<?> extraction : extractions) {
+                extraction.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // all threads must produce the same output
+        final byte[] expected = Files.readAllBytes(OUTPUT_DIR.resolve("coach-de-0.xml"));
+        for (int i = 1; i < 8; i++) {
+            assertArrayEquals(expected, Files.readAllBytes(OUTPUT_DIR.resolve("coach-de-" + i + ".xml")));
+        }
+    }
+
+    @Test
+    public void testMergeListener() throws Exception {
+        final TranslationEngine engine = new TranslationEngine();
+        final List<MergeReport> completed = new ArrayList<>();
+        final List<Exception> failed = new ArrayList<>();
+        final MergeListener listener = new MergeListener() {
+            @Override
+            public void mergeCompleted(MergeReport report) {
+                completed.add(report);
+            }
+
+            @Override
+            public void mergeFailed(Path inputFile, String targetLang, Exception error) {
+                failed.add(error);
+            }
+        };
+        engine.addMergeListener(listener);
+
+        final MergeReport report = engine.merge(INPUT_FILE, XLF_FILE, new LocaleId("de"), OUTPUT_DIR.resolve("coach-de-listener.xml"));
+        assertEquals(1, completed.size());
+        assertSame(report, completed.get(0));
+        assertEquals(report.getTotalDuration(), Arrays.stream(MergeReport.Phase.values())
+                .map(report::getDuration).reduce(Duration.ZERO, Duration::plus));
+
+        assertThrows(JAXBException.class, () -> engine.merge(XLF_FILE, XLF_FILE, new LocaleId("de"), OUTPUT_DIR.resolve("coach-de-failed.xml")));
+        assertEquals(1, failed.size());
+
+        engine.removeMergeListener(listener);
+        engine.merge(INPUT_FILE, XLF_FILE, new LocaleId("de"), OUTPUT_DIR.resolve("coach-de-listener.xml"));
+        assertEquals(1, completed.size());
+    }
+
+    @Test
+    public void testMergeListenerPhases() throws Exception {
+        final TranslationEngine engine = new TranslationEngine();
+        final Map<MergeReport.Phase, Duration> phases = new EnumMap<>(MergeReport.Phase.class);
+        final List<Exception> failed = new ArrayList<>();
+        engine.addMergeListener(new MergeListener() {
+            @Override
+            public void phaseCompleted(String targetLang, MergeReport.Phase phase, Duration duration) {
+                assertEquals("de", targetLang);
+                assertNull(phases.put(phase, duration));
+            }
+
+            @Override
+            public void mergeCompleted(MergeReport report) {
+                throw new IllegalStateException("listener failure");
+            }
+
+            @Override
+            public void mergeFailed(Path inputFile, String targetLang, Exception error) {
+                failed.add(error);
+            }
+        });
+
+        // a failing listener must neither fail the merge nor report it as failed
+        final MergeReport report = engine.merge(INPUT_FILE, XLF_FILE, new LocaleId("de"), OUTPUT_DIR.resolve("coach-de-phases.xml"));
+        assertEquals(MergeReport.Phase.values().length, phases.size());
+        for (MergeReport.Phase phase : MergeReport.Phase.values()) {
+            assertEquals(report.getDuration(phase), phases.get(phase));
+        }
+        assertTrue(failed.isEmpty());
+    }
+
+    @Test
+    public void testInMemoryOperations() throws Exception {
+        final TranslationEngine engine = new TranslationEngine();
+        final Path extractOutput = OUTPUT_DIR.resolve("source-file.xlf");
+        final Path mergeOutput = OUTPUT_DIR.resolve("coach-de-file.xml");
+        engine.extract(INPUT_FILE, extractOutput);
+        engine.merge(INPUT_FILE, XLF_FILE, new LocaleId("de"), mergeOutput);
+
+        final Questionnaire questionnaire;
+        try (InputStream in = Files.newInputStream(INPUT_FILE)) {
+            questionnaire = engine.unmarshal(in);
+        }
+        final ByteArrayOutputStream xlf = new ByteArrayOutputStream();
+        engine.extract(questionnaire, INPUT_FILE.getFileName().toString(), xlf, null);
+        assertArrayEquals(Files.readAllBytes(extractOutput), xlf.toByteArray());
+
+        final MergeReport report;
+        try (InputStream in = Files.newInputStream(XLF_FILE)) {
+            report = engine.merge(questionnaire, in, new LocaleId("de"));
+        }
+        assertEquals(11, report.getAppliedCount());
+        assertNull(report.getOutputFile());
+        final ByteArrayOutputStream coach = new ByteArrayOutputStream();
+        engine.marshal(questionnaire, coach);
+        assertArrayEquals(Files.readAllBytes(mergeOutput), coach.toByteArray());
+    }
+
+    @Test
+    public void testMigration() throws Exception {
+        final TranslationEngine engine = new TranslationEngine();
+        final String coach = new String(Files.readAllBytes(INPUT_FILE), StandardCharsets.UTF_8)
+                .replace("Is this a question?", "Is this a real question?")
+                .replace("<option id=\"q2o1\">", "<option id=\"q2o9\">")
+                .replaceAll("(?s)<entry key=\"recXyz-text\">.*?</entry>", "");
+        final Path newInputFile = OUTPUT_DIR.resolve("coach-v3.xml");
+        Files.createDirectories(OUTPUT_DIR);
+        Files.write(newInputFile, coach.getBytes(StandardCharsets.UTF_8));
+
+        final Path outputFile = OUTPUT_DIR.resolve("migrated-de.xlf");
+        final MigrationResult result = engine.migrate(INPUT_FILE, XLF_FILE, newInputFile, new LocaleId("de"), outputFile);
+        assertEquals(8, result.getCarriedIds().size());
+        assertEquals(Collections.singletonList(TextUnitId.parse("QST:q2||OPT:q2o9||text")), result.getMovedIds());
+        assertEquals(Collections.singletonList(TextUnitId.parse("QST:q1||text")), result.getChangedIds());
+        assertEquals(5, result.getUntranslatedIds().size());
+        assertEquals(new HashSet<>(Arrays.asList(TextUnitId.parse("QST:q2||OPT:q2o1||text"), TextUnitId.parse("QST:q2||OPT:q2o1||comment"),
+                TextUnitId.parse("DK:recXyz-text||text"))), new HashSet<>(result.getRemovedIds()));
+
+        final String xlf = new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8);
+        assertTrue(xlf.matches("(?s).*<trans-unit id=\"QST:q2\\|\\|OPT:q2o9\\|\\|text\">\\s*<source[^>]*>Option 1</source>\\s*"
+                + "<target[^>]*state=\"translated\"[^>]*>Option 1 DE</target>.*"));
+        assertTrue(xlf.matches("(?s).*<trans-unit id=\"QST:q1\\|\\|text\">\\s*<source[^>]*>Is this a real question\\?</source>\\s*"
+                + "<target[^>]*state=\"needs-translation\"[^>]*></target>\\s*<alt-trans[^>]*origin=\"previous-version\"[^>]*>"
+                + "<source[^>]*>Is this a question\\?</source>\\s*<target[^>]*>Ist dies eine Frage\\?</target>.*"));
+
+        // the migrated file can be merged with the new version
+        final MergeReport report = engine.merge(newInputFile, outputFile, new LocaleId("de"), OUTPUT_DIR.resolve("coach-v3-de.xml"));
+        assertEquals(9, report.getAppliedCount());
+    }
+
+    @Test
+    public void testOutdatedTranslations() throws Exception {
+        final TranslationEngine engine = new TranslationEngine();
+        final Path sourceFile = OUTPUT_DIR.resolve("outdated").resolve("source.xlf");
+        engine.extract(INPUT_FILE, sourceFile);
+
+        // translate two texts of the extraction
+        final String xlf = new String(Files.readAllBytes(sourceFile), StandardCharsets.UTF_8)
+                .replace("Is this a question?</source>", "Is this a question?</source>\n<target xml:lang=\"de\">Ist dies eine Frage?</target>")
+                .replace("Is this another question?</source>", "Is this another question?</source>\n<target xml:lang=\"de\">Ist dies eine weitere Frage?</target>");
+        final Path xlfFile = sourceFile.resolveSibling("de.xlf");
+        Files.write(xlfFile, xlf.getBytes(StandardCharsets.UTF_8));
+
+        // change one text, and only the whitespace of the other
+        final String coach = new String(Files.readAllBytes(INPUT_FILE), StandardCharsets.UTF_8)
+                .replace("Is this a question?", "Is this a real question?")
+                .replace("Is this another question?", "Is this another\n    question?");
+        final Path inputFile = sourceFile.resolveSibling("coach.xml");
+        Files.write(inputFile, coach.getBytes(StandardCharsets.UTF_8));
+
+        final List<TextUnitId> outdatedIds = Collections.singletonList(TextUnitId.parse("QST:q1||text"));
+        final MergeReport report = engine.merge(inputFile, xlfFile, new LocaleId("de"), sourceFile.resolveSibling("coach-de.xml"));
+        assertEquals(outdatedIds, report.getOutdatedIds());
+        assertEquals(2, report.getAppliedCount());
+
+        final MergeReport streamingReport = engine.mergeStreaming(inputFile, xlfFile, new LocaleId("de"), sourceFile.resolveSibling("coach-de-streaming.xml"));
+        assertEquals(outdatedIds, streamingReport.getOutdatedIds());
+        assertEquals(2, streamingReport.getAppliedCount());
+
+        // skipped translations are missing
+        engine.setSkipOutdated(true);
+        final MergeReport skipped = engine.merge(inputFile, xlfFile, new LocaleId("de"), sourceFile.resolveSibling("coach-de.xml"));
+        assertEquals(outdatedIds, skipped.getOutdatedIds());
+        assertEquals(1, skipped.getAppliedCount());
+        assertTrue(skipped.getMissingIds().contains(TextUnitId.parse("QST:q1||text")));
+        assertEquals("Is this a real question?", engine.unmarshal(sourceFile.resolveSibling("coach-de.xml")).getQuestions().getQuestion().get(0).getText());
+
+        // translations without source hash are never outdated
+        assertTrue(engine.merge(inputFile, XLF_FILE, new LocaleId("de"), sourceFile.resolveSibling("coach-de.xml")).getOutdatedIds().isEmpty());
+    }
+}
@@ -0,0 +1,129 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import net.sf.okapi.common.LocaleId;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link TranslationMemory}.
+ *
+ * @author Matthias Luppi
+ */
+public class TranslationMemoryTest {
+
+    private static final Path MEMORY_DIR = Paths.get("target", "test-output-translation-memory");
+    private static final LocaleId DE = LocaleId.fromString("de");
+    private static final LocaleId FR = LocaleId.fromString("fr");
+
+    @Before
+    public void setUp() throws IOException {
+        if (Files.exists(MEMORY_DIR)) {
+            try (Stream<Path> files = Files.walk(MEMORY_DIR)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testPutAndGet() throws IOException {
+        try (TranslationMemory memory = TranslationMemory.open(MEMORY_DIR)) {
+            memory.put("Is this a question?", DE, "Ist dies eine Frage?");
+            memory.put("Is this a question?", FR, "Est-ce une question ?");
+            memory.put("Empty", DE, "");
+
+            assertEquals("Ist dies eine Frage?", memory.get("Is this a question?", DE));
+            assertEquals("Est-ce une question ?", memory.get("Is this a question?", FR));
+            assertEquals("Ist dies eine Frage?", memory.get("  Is this\n    a question?\n", DE));
+            assertNull(memory.get("Is this another question?", DE));
+            assertNull(memory.get("Empty", DE));
+            assertEquals(2, memory.size());
+
+            // a new translation replaces the previous one
+            memory.put("Is this a question?", DE, "Ist das eine Frage?");
+            assertEquals("Ist das eine Frage?", memory.get("Is this a question?", DE));
+            assertEquals(2, memory.size());
+        }
+    }
+
+    @Test
+    public void testPersistenceAndGrowth() throws IOException {
+        final int count = 10000;
+        try (TranslationMemory memory = TranslationMemory.open(MEMORY_DIR)) {
+            for (int i = 0; i < count; i++) {
+                memory.put("Source text " + i, DE, "Quelltext " + i);
+            }
+            assertEquals(count, memory.size());
+        }
+
+        try (TranslationMemory memory = TranslationMemory.open(MEMORY_DIR)) {
+            assertEquals(count, memory.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals("Quelltext " + i, memory.get("Source text " + i, DE));
+            }
+            assertNull(memory.get("Source text " + count, DE));
+        }
+    }
+
+    @Test
+    public void testRecoveryOfMissingRecords() throws IOException {
+        final int count = 100;
+        try (TranslationMemory memory = TranslationMemory.open(MEMORY_DIR)) {
+            for (int i = 0; i < count; i++) {
+                memory.put("Source text " + i, DE, "Quelltext " + i);
+            }
+        }
+        // the index was written, but not the last record, as after a power failure
+        final long lastRecord;
+        try (RandomAccessFile index = new RandomAccessFile(MEMORY_DIR.resolve("memory.idx").toFile(), "r")) {
+            index.seek(24);
+            lastRecord = index.readLong();
+        }
+        assertTrue(lastRecord > 0);
+        try (RandomAccessFile data = new RandomAccessFile(MEMORY_DIR.resolve("memory.dat").toFile(), "rw")) {
+            data.setLength(lastRecord);
+        }
+
+        try (TranslationMemory memory = TranslationMemory.open(MEMORY_DIR)) {
+            assertEquals(count - 1, memory.size());
+            assertEquals("Quelltext 0", memory.get("Source text 0", DE));
+            assertNull(memory.get("Source text " + (count - 1), DE));
+            memory.put("Source text " + (count - 1), DE, "Quelltext " + (count - 1));
+        }
+        try (TranslationMemory memory = TranslationMemory.open(MEMORY_DIR)) {
+            assertEquals(count, memory.size());
+            assertEquals("Quelltext " + (count - 1), memory.get("Source text " + (count - 1), DE));
+        }
+    }
+
+}
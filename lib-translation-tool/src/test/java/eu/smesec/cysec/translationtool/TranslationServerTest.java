@@ -0,0 +1,182 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link TranslationServer}.
+ *
+ * @author Matthias Luppi
+ */
+public class TranslationServerTest {
+
+    private static final Path INPUT_FILE = Paths.get("src", "test", "resources", "fhnw", "coach.xml").toAbsolutePath();
+    private static final Path XLF_FILE = Paths.get("src", "test", "resources", "fhnw", "de.xlf").toAbsolutePath();
+    private static final Path OUTPUT_DIR = Paths.get("target", "test-output-server").toAbsolutePath();
+
+    private static TranslationServer server;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        server = new TranslationServer(new TranslationEngine(), 0, 2);
+        server.start();
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void testJobs() throws Exception {
+        final Path xlfFile = OUTPUT_DIR.resolve("source.xlf");
+        final Map<String, String> extract = post("/extract", "input=" + encode(INPUT_FILE) + "&output=" + encode(xlfFile));
+        assertEquals(200, Integer.parseInt(extract.get("code")));
+        assertEquals("ok", extract.get("status"));
+        assertTrue(Files.exists(xlfFile));
+
+        // concurrent merges of the same coach
+        final CompletableFuture<Map<String, String>> de = CompletableFuture.supplyAsync(() -> merge("de", "coach-de.xml"));
+        final CompletableFuture<Map<String, String>> de2 = CompletableFuture.supplyAsync(() -> merge("de", "coach-de-2.xml"));
+        for (Map<String, String> merge : Arrays.asList(de.join(), de2.join())) {
+            assertEquals("ok", merge.get("status"));
+            assertEquals("11", merge.get("appliedCount"));
+            assertEquals("5", merge.get("missingCount"));
+            assertTrue(merge.containsKey("xliffReadMillis"));
+            assertTrue(Files.exists(Paths.get(merge.get("outputFile"))));
+        }
+
+        final Map<String, String> status = get("/status");
+        assertEquals("ok", status.get("status"));
+        assertEquals("3", status.get("jobCount"));
+    }
+
+    @Test
+    public void testInvalidJob() throws Exception {
+        final Map<String, String> merge = post("/merge", "input=" + encode(INPUT_FILE) + "&lang=de");
+        assertEquals(400, Integer.parseInt(merge.get("code")));
+        assertEquals("error", merge.get("status"));
+        assertEquals("Invalid xlf file", merge.get("message"));
+    }
+
+    @Test
+    public void testDeniedRequests() throws Exception {
+        // without token
+        final HttpURLConnection anonymous = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + "/status").openConnection();
+        assertEquals("401", read(anonymous).get("code"));
+
+        // from a web page, the header is restricted in HttpURLConnection
+        assertEquals("HTTP/1.1 403", statusLine("Host: localhost\r\nOrigin: https://example.com\r\n"));
+
+        // for a host name which may resolve to the loopback address
+        assertEquals("HTTP/1.1 403", statusLine("Host: example.com\r\n"));
+        assertEquals("HTTP/1.1 200", statusLine("Host: 127.0.0.1:" + server.getPort() + "\r\n"));
+    }
+
+    private static String statusLine(final String headers) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            final OutputStream out = socket.getOutputStream();
+            out.write(("GET /status HTTP/1.1\r\n" + headers + TranslationServer.TOKEN_HEADER + ": " + server.getToken()
+                    + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            final byte[] statusLine = new byte[12];
+            int length = 0;
+            for (int n; length < statusLine.length && (n = socket.getInputStream().read(statusLine, length, statusLine.length - length)) > 0; ) {
+                length += n;
+            }
+            return new String(statusLine, 0, length, StandardCharsets.US_ASCII);
+        }
+    }
+
+    private Map<String, String> merge(final String lang, final String outputFileName) {
+        try {
+            return post("/merge", "input=" + encode(INPUT_FILE) + "&xlf=" + encode(XLF_FILE) + "&lang=" + lang
+                    + "&output=" + encode(OUTPUT_DIR.resolve(outputFileName)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, String> post(final String path, final String form) throws IOException {
+        final HttpURLConnection connection = open(path);
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(form.getBytes(StandardCharsets.UTF_8));
+        }
+        return read(connection);
+    }
+
+    private static Map<String, String> get(final String path) throws IOException {
+        return read(open(path));
+    }
+
+    private static HttpURLConnection open(final String path) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+        connection.setRequestProperty(TranslationServer.TOKEN_HEADER, server.getToken());
+        return connection;
+    }
+
+    private static Map<String, String> read(final HttpURLConnection connection) throws IOException {
+        final int code = connection.getResponseCode();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = code < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            final byte[] buffer = new byte[4096];
+            for (int n; (n = in.read(buffer)) > 0; ) {
+                body.write(buffer, 0, n);
+            }
+        }
+        final Map<String, String> response = new HashMap<>();
+        response.put("code", String.valueOf(code));
+        for (String line : new String(body.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            response.put(line.substring(0, line.indexOf('=')), line.substring(line.indexOf('=') + 1));
+        }
+        return response;
+    }
+
+    private static String encode(final Path path) throws IOException {
+        return URLEncoder.encode(path.toString(), "UTF-8");
+    }
+}
@@ -0,0 +1,101 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link TranslationTable}.
+ *
+ * @author Matthias Luppi
+ */
+public class TranslationTableTest {
+
+    @Test
+    public void testPutAndGet() {
+        final TranslationTable table = new TranslationTable();
+        table.put(TextUnitId.attr(TextUnitId.QST_TEXT).qst("q1"), "Frage 1");
+        table.put(TextUnitId.attr(TextUnitId.QST_INSTRUCTION).qst("q1"), null);
+        table.put(TextUnitId.attr(TextUnitId.QST_TEXT).qst("q1"), "Frage 1 neu");
+
+        assertEquals(2, table.size());
+        assertEquals("Frage 1 neu", table.get(TextUnitId.parse("QST:q1||text")));
+        assertNull(table.get(TextUnitId.parse("QST:q1||instruction")));
+        assertTrue(table.containsKey(TextUnitId.parse("QST:q1||instruction")));
+        assertFalse(table.containsKey(TextUnitId.parse("QST:q2||text")));
+    }
+
+    @Test
+    public void testUnusedCount() {
+        final TranslationTable table = new TranslationTable();
+        table.put(TextUnitId.attr(TextUnitId.QST_TEXT).qst("q1"), "Frage 1");
+        table.put(TextUnitId.attr(TextUnitId.QST_TEXT).qst("q2"), null);
+        table.put(TextUnitId.attr(TextUnitId.QST_TEXT).qst("q3"), "Frage 3");
+        assertEquals(3, table.unusedCount());
+
+        assertEquals("Frage 1", table.use(TextUnitId.parse("QST:q1||text")));
+        assertEquals("Frage 1", table.use(TextUnitId.parse("QST:q1||text")));
+        assertNull(table.use(TextUnitId.parse("QST:q2||text")));
+        assertNull(table.use(TextUnitId.parse("QST:q4||text")));
+        assertEquals(1, table.unusedCount());
+    }
+
+    @Test
+    public void testResize() {
+        final TranslationTable table = new TranslationTable(0);
+        for (int i = 0; i < 10_000; i++) {
+            table.put(TextUnitId.attr(TextUnitId.OPT_TEXT).qst("q" + i / 4).opt("o" + i), "target " + i);
+        }
+        assertEquals(10_000, table.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals("target " + i, table.get(TextUnitId.attr(TextUnitId.OPT_TEXT).qst("q" + i / 4).opt("o" + i)));
+        }
+        assertNull(table.get(TextUnitId.attr(TextUnitId.OPT_TEXT).qst("q0").opt("o4")));
+    }
+
+    @Test
+    public void testSourceHashes() {
+        final TranslationTable table = new TranslationTable(0);
+        table.put(TextUnitId.attr(TextUnitId.QST_TEXT).qst("q0"), "Frage 0");
+        assertFalse(table.hasSourceHash(TextUnitId.attr(TextUnitId.QST_TEXT).qst("q0")));
+
+        // hashes survive the resizing of the table
+        for (int i = 0; i < 1_000; i++) {
+            final TextUnitId id = TextUnitId.attr(TextUnitId.QST_TEXT).qst("q" + i);
+            table.put(id, "Frage " + i);
+            if (i % 2 == 1) {
+                table.putSourceHash(id, SourceHash.of("Question " + i));
+            }
+        }
+        for (int i = 0; i < 1_000; i++) {
+            final TextUnitId id = TextUnitId.attr(TextUnitId.QST_TEXT).qst("q" + i);
+            assertEquals(i % 2 == 1, table.hasSourceHash(id));
+            if (i % 2 == 1) {
+                assertEquals(SourceHash.of("Question " + i), table.getSourceHash(id));
+            }
+        }
+        assertFalse(table.hasSourceHash(TextUnitId.attr(TextUnitId.QST_TEXT).qst("q1000")));
+    }
+}
@@ -0,0 +1,108 @@
+/*-
+ * #%L
+ * CYSEC Translation Tool Library
+ * %%
+ * Copyright (C) 2021 - 2025 FHNW (University of Applied Sciences and Arts Northwestern Switzerland)
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package eu.smesec.cysec.translationtool;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link TranslationWatcher}.
+ *
+ * @author Matthias Luppi
+ */
+public class TranslationWatcherTest {
+
+    private static final Path INPUT_FILE = Paths.get("src", "test", "resources", "fhnw", "coach.xml");
+    private static final Path XLF_FILE = Paths.get("src", "test", "resources", "fhnw", "de.xlf");
+    private static final Path OUTPUT_DIR = Paths.get("target", "test-output-watcher");
+
+    @Before
+    public void setUp() throws IOException {
+        if (Files.exists(OUTPUT_DIR)) {
+            try (Stream<Path> files = Files.walk(OUTPUT_DIR)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+        Files.createDirectories(OUTPUT_DIR);
+    }
+
+    @Test
+    public void testRerunOnChange() throws Exception {
+        final Path coachFile = Files.copy(INPUT_FILE, OUTPUT_DIR.resolve("coach.xml"));
+        final Path xlfFile = Files.copy(XLF_FILE, OUTPUT_DIR.resolve("de.xlf"));
+        final Path extractedFile = OUTPUT_DIR.resolve("source.xlf");
+        final Path mergedFile = OUTPUT_DIR.resolve("coach-de.xml");
+
+        final TranslationEngine engine = new TranslationEngine();
+        final BlockingQueue<MergeReport> reports = new LinkedBlockingQueue<>();
+        engine.addMergeListener(new MergeListener() {
+            @Override
+            public void mergeCompleted(final MergeReport report) {
+                reports.add(report);
+            }
+        });
+
+        try (TranslationWatcher watcher = new TranslationWatcher(engine, Duration.ofMillis(50))) {
+            watcher.watchExtraction(coachFile, extractedFile);
+            watcher.watchMerge(coachFile, xlfFile, "de", mergedFile);
+            watcher.start();
+
+            // a changed XLIFF file is only merged
+            replace(xlfFile, "Ist dies eine Frage?", "Ist das eine Frage?");
+            assertNotNull(reports.poll(10, TimeUnit.SECONDS));
+            assertTrue(read(mergedFile).contains("Ist das eine Frage?"));
+            assertFalse(Files.exists(extractedFile));
+
+            // a changed coach is extracted and merged
+            replace(coachFile, "Is this another question?", "Is this still another question?");
+            assertNotNull(reports.poll(10, TimeUnit.SECONDS));
+            assertTrue(read(extractedFile).contains("Is this still another question?"));
+
+            // unrelated files are ignored
+            Files.write(OUTPUT_DIR.resolve("notes.txt"), "notes".getBytes(StandardCharsets.UTF_8));
+            assertNull(reports.poll(500, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private static void replace(final Path file, final String text, final String replacement) throws IOException {
+        Files.write(file, read(file).replace(text, replacement).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(final Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}